@@ -10,6 +10,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
@@ -19,10 +20,13 @@ import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsControllerFactory;
+import org.jenkinsci.test.acceptance.controller.SharedJenkinsController;
 import org.jenkinsci.test.acceptance.guice.TestCleaner;
 import org.jenkinsci.test.acceptance.guice.TestName;
 import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.po.ItemNamespace;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.selenium.CommandTracer;
 import org.jenkinsci.test.acceptance.selenium.SanityChecker;
 import org.jenkinsci.test.acceptance.selenium.Scroller;
 import org.jenkinsci.test.acceptance.server.JenkinsControllerPoolProcess;
@@ -178,7 +182,7 @@ public class FallbackConfig extends AbstractModule {
      * Creates a {@link WebDriver} for each test, then make sure to clean it up at the end.
      */
     @Provides @TestScope
-    public WebDriver createWebDriver(TestCleaner cleaner, TestName testName, ElasticTime time) throws IOException {
+    public WebDriver createWebDriver(TestCleaner cleaner, TestName testName, ElasticTime time, CommandTracer tracer) throws IOException {
         WebDriver base = createWebDriver(testName);
 
         // Make sue the window have minimal resolution set, even when out of the visible screen.
@@ -188,9 +192,13 @@ public class FallbackConfig extends AbstractModule {
             base.manage().window().setSize(new Dimension(1680, 1050));
         }
 
-        final EventFiringWebDriver d = new EventFiringWebDriver(base);
+        final EventFiringWebDriver d = new EventFiringWebDriver(CommandTracer.isEnabled() ? tracer.wrap(base) : base);
         d.register(new SanityChecker());
         d.register(new Scroller());
+        if (CommandTracer.isEnabled()) {
+            // Registered last so the time spent in other listeners is not attributed to the command
+            d.register(tracer);
+        }
 
         try {
             d.manage().timeouts().pageLoadTimeout(time.seconds(30), TimeUnit.MILLISECONDS);
@@ -224,9 +232,22 @@ public class FallbackConfig extends AbstractModule {
 
     /**
      * Instantiates a controller through the "TYPE" attribute and {@link JenkinsControllerFactory}.
+     *
+     * Tests in an {@link ItemNamespace} get a view of the shared one.
      */
     @Provides @TestScope
-    public JenkinsController createController(Injector injector, ExtensionList<JenkinsControllerFactory> factories) throws IOException {
+    public JenkinsController createController(final Injector injector, final ExtensionList<JenkinsControllerFactory> factories, ItemNamespace namespace) throws IOException {
+        if (namespace.isActive()) {
+            return SharedJenkinsController.forTest(injector, new Callable<JenkinsController>() {
+                @Override public JenkinsController call() throws IOException {
+                    return createDedicatedController(injector, factories);
+                }
+            });
+        }
+        return createDedicatedController(injector, factories);
+    }
+
+    private JenkinsController createDedicatedController(Injector injector, ExtensionList<JenkinsControllerFactory> factories) throws IOException {
         String type = System.getenv("type");  // this is lower case for backward compatibility
         if (type==null)
             type = System.getenv("TYPE");
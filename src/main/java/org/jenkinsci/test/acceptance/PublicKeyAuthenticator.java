@@ -36,6 +36,22 @@ public class PublicKeyAuthenticator implements Authenticator {
         }
     }
 
+    /**
+     * Same user and key, so connections can be shared.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PublicKeyAuthenticator)) return false;
+        PublicKeyAuthenticator that = (PublicKeyAuthenticator) o;
+        return credentials.getUser().equals(that.credentials.getUser()) && keyPair.privateKey.equals(that.keyPair.privateKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * credentials.getUser().hashCode() + keyPair.privateKey.hashCode();
+    }
+
     private  LoginCredentials getLoginForCommandExecution(String user, File privateKeyFile){
         try {
             String privateKey = Files.toString(
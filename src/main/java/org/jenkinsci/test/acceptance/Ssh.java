@@ -2,7 +2,6 @@ package org.jenkinsci.test.acceptance;
 
 import com.trilead.ssh2.Connection;
 import com.trilead.ssh2.SCPClient;
-import com.trilead.ssh2.Session;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -12,12 +11,38 @@ import java.io.OutputStream;
  */
 public class Ssh implements AutoCloseable {
     private final Connection connection;
+    private final SshConnectionPool.Pooled lease;
+    private boolean released;
 
     public Ssh(String hostname) throws IOException {
         this.connection = new Connection(hostname);
+        this.lease = null;
         connection.connect();
     }
 
+    /*package*/ Ssh(Connection connection, SshConnectionPool.Pooled lease) {
+        this.connection = connection;
+        this.lease = lease;
+    }
+
+    /**
+     * Get an authenticated connection, shared through {@link SshConnectionPool} unless disabled.
+     */
+    public static Ssh connect(String hostname, Authenticator authenticator) throws IOException {
+        if (SshConnectionPool.ENABLED) {
+            return SshConnectionPool.get().lease(hostname, authenticator);
+        }
+
+        Ssh ssh = new Ssh(hostname);
+        try {
+            authenticator.authenticate(ssh.getConnection());
+            return ssh;
+        } catch (IOException | RuntimeException e) {
+            ssh.close();
+            throw e;
+        }
+    }
+
     /**
      * Escapes a path to a form suitable for use on a command-line.
      * @param path the path.
@@ -61,9 +86,8 @@ public class Ssh implements AutoCloseable {
 
 
     public int executeRemoteCommand(String cmd, OutputStream os) {
-        Session session = null;
         try {
-            session = connection.openSession();
+            // Opens a session of its own
             int status = connection.exec(cmd, os);
             if (status != 0) {
                 throw new RuntimeException("Failed to execute command: " + cmd + ", exit code = " + status);
@@ -71,10 +95,6 @@ public class Ssh implements AutoCloseable {
             return status;
         } catch (InterruptedException | IOException e) {
             throw new AssertionError(e);
-        } finally {
-            if (session != null) {
-                session.close();
-            }
         }
     }
 
@@ -95,11 +115,22 @@ public class Ssh implements AutoCloseable {
      */
     @Deprecated
     public void destroy() {
-        connection.close();
+        close();
     }
 
+    /**
+     * Close the connection, or give it back to the pool it was leased from.
+     */
     @Override
     public void close() {
-        connection.close();
+        if (lease != null) {
+            synchronized (this) {
+                if (released) return;
+                released = true;
+            }
+            lease.release();
+        } else {
+            connection.close();
+        }
     }
 }
\ No newline at end of file
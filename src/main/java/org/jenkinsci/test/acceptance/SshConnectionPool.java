@@ -0,0 +1,282 @@
+package org.jenkinsci.test.acceptance;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.trilead.ssh2.Connection;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated ssh connections shared by all {@link Ssh} sessions to the same host as the same user.
+ *
+ * <p>
+ * Opening a connection costs a key exchange and an authentication, while a session on an open connection costs a
+ * single round trip. {@link Ssh#connect} leases a connection from here, up to {@link #MAX_SESSIONS} leases share one
+ * connection concurrently and closing the {@link Ssh} returns it. A connection is checked by opening a session before
+ * it is leased and replaced if that fails, as the machine on the other end might be gone. Connections unused for
+ * {@link #IDLE_TIMEOUT} ms are closed, the rest are checked every {@link #KEEP_ALIVE} ms and dropped if broken.
+ *
+ * <p>
+ * Connections are keyed by host and {@link Authenticator}, which stands for the user and key. Disable pooling by
+ * setting <tt>SSH_POOL=false</tt>.
+ */
+public final class SshConnectionPool {
+    public static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("SSH_POOL", "true").trim()
+    );
+
+    /*package*/ static final int MAX_SESSIONS = 8;
+    /*package*/ static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+    /*package*/ static final long KEEP_ALIVE = TimeUnit.SECONDS.toMillis(30);
+
+    private static final SshConnectionPool INSTANCE = new SshConnectionPool();
+
+    private final Map<List<Object>, List<Pooled>> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong broken = new AtomicLong();
+
+    /*package*/ SshConnectionPool() {}
+
+    public static SshConnectionPool get() {
+        return INSTANCE;
+    }
+
+    /*package*/ static final class Pooled {
+        private final List<Pooled> pool;
+        private final Connection connection;
+        private int sessions;
+        private long lastUsed = System.currentTimeMillis();
+        /**
+         * Evicted while in use, to be closed once released.
+         */
+        private boolean evicted;
+
+        private Pooled(List<Pooled> pool, Connection connection) {
+            this.pool = pool;
+            this.connection = connection;
+        }
+
+        /*package*/ void release() {
+            boolean close;
+            synchronized (pool) {
+                sessions--;
+                lastUsed = System.currentTimeMillis();
+                close = evicted && sessions == 0;
+            }
+            if (close) {
+                connection.close();
+            }
+        }
+
+        private boolean works() {
+            try {
+                connection.openSession().close();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        /*package*/ void discard() {
+            synchronized (pool) {
+                pool.remove(this);
+            }
+            connection.close();
+        }
+    }
+
+    /**
+     * Get an authenticated connection to given host.
+     *
+     * Closing the returned {@link Ssh} gives the connection back.
+     */
+    public Ssh lease(String host, Authenticator authenticator) throws IOException {
+        leased.incrementAndGet();
+        List<Pooled> pool = pool(host, authenticator);
+        for (Pooled p; (p = take(pool)) != null;) {
+            if (p.works()) {
+                return new Ssh(p.connection, p);
+            }
+            broken.incrementAndGet();
+            p.discard();
+        }
+
+        Connection connection = new Connection(host);
+        try {
+            connection.connect();
+            authenticator.authenticate(connection);
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+        opened.incrementAndGet();
+        ensureSweeping();
+
+        Pooled p = new Pooled(pool, connection);
+        p.sessions = 1;
+        synchronized (pool) {
+            pool.add(p);
+        }
+        return new Ssh(connection, p);
+    }
+
+    private static Pooled take(List<Pooled> pool) {
+        synchronized (pool) {
+            for (Pooled p : pool) {
+                if (p.sessions < MAX_SESSIONS) {
+                    p.sessions++;
+                    return p;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Pooled> pool(String host, Authenticator authenticator) {
+        List<Object> key = Arrays.<Object>asList(host, authenticator);
+        List<Pooled> pool = pools.get(key);
+        if (pool == null) {
+            synchronized (pools) {
+                pool = pools.get(key);
+                if (pool == null) {
+                    pools.put(key, pool = new ArrayList<>());
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Remove all connections to given host from the pool, as when the machine is about to be disposed of.
+     *
+     * Idle connections are closed right away, the ones in use once released.
+     */
+    public void evict(String host) {
+        for (Map.Entry<List<Object>, List<Pooled>> e : pools.entrySet()) {
+            if (!e.getKey().get(0).equals(host)) continue;
+            List<Pooled> pool = e.getValue();
+            List<Pooled> idle = new ArrayList<>();
+            synchronized (pool) {
+                for (Pooled p : pool) {
+                    evicted.incrementAndGet();
+                    if (p.sessions == 0) {
+                        idle.add(p);
+                    } else {
+                        p.evicted = true;
+                    }
+                }
+                pool.clear();
+            }
+            for (Pooled p : idle) {
+                p.connection.close();
+            }
+        }
+    }
+
+    /**
+     * Remove and return connections idle for at least given time.
+     */
+    private static List<Pooled> idle(List<Pooled> pool, long idleFor) {
+        List<Pooled> idle = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (pool) {
+            for (Iterator<Pooled> it = pool.iterator(); it.hasNext();) {
+                Pooled p = it.next();
+                if (p.sessions == 0 && now - p.lastUsed >= idleFor) {
+                    it.remove();
+                    idle.add(p);
+                }
+            }
+        }
+        return idle;
+    }
+
+    private ScheduledExecutorService sweeper;
+
+    private synchronized void ensureSweeping() {
+        if (sweeper != null) return;
+        sweeper = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("Ssh connection pool sweeper").setDaemon(true).build()
+        );
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override public void run() {
+                sweep();
+            }
+        }, KEEP_ALIVE, KEEP_ALIVE, TimeUnit.MILLISECONDS);
+    }
+
+    /*package*/ void sweep() {
+        long before = evicted.get() + broken.get();
+        for (List<Pooled> pool : pools.values()) {
+            for (Pooled p : idle(pool, IDLE_TIMEOUT)) {
+                evicted.incrementAndGet();
+                p.connection.close();
+            }
+
+            // Keep the rest alive, checking the idle ones still work. Taken while checked, not to be leased broken
+            List<Pooled> check = new ArrayList<>();
+            synchronized (pool) {
+                for (Pooled p : pool) {
+                    if (p.sessions == 0) {
+                        p.sessions++;
+                        check.add(p);
+                    }
+                }
+            }
+            for (Pooled p : check) {
+                if (p.works()) {
+                    p.release();
+                } else {
+                    broken.incrementAndGet();
+                    p.discard();
+                }
+            }
+        }
+        if (evicted.get() + broken.get() != before) {
+            logger.info(stats());
+        }
+    }
+
+    /**
+     * Usage metrics.
+     */
+    public String stats() {
+        int open = 0;
+        int sessions = 0;
+        for (List<Pooled> pool : pools.values()) {
+            synchronized (pool) {
+                open += pool.size();
+                for (Pooled p : pool) {
+                    sessions += p.sessions;
+                }
+            }
+        }
+        long l = leased.get();
+        long o = opened.get();
+        return String.format(
+                "Ssh connection pool: %d leases served by %d connections (%d%% reused), %d open with %d sessions, %d evicted idle, %d broken",
+                l, o, l == 0 ? 0 : (l - o) * 100 / l, open, sessions, evicted.get(), broken.get()
+        );
+    }
+
+    /*package*/ long getOpened() {
+        return opened.get();
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SshConnectionPool.class);
+}
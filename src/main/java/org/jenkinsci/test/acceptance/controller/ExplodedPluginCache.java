@@ -0,0 +1,203 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.utils.FileDigest;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+
+/**
+ * Plugins exploded by Jenkins, shared across <tt>JENKINS_HOME</tt>s.
+ *
+ * <p>
+ * Jenkins explodes every <tt>plugins/NAME.jpi</tt> into <tt>plugins/NAME/</tt> on first boot and marks it with
+ * <tt>.timestamp2</tt> file having the modification time of the archive. Once Jenkins is done with a home, exploded
+ * plugins are harvested to the cache keyed by checksum of the archive. Before Jenkins starts in another home, plugins
+ * found in the cache are materialised through hardlinks (copied where links are not supported) and stamped so Jenkins
+ * considers them exploded already. Jenkins deletes exploded directory before exploding an upgraded plugin, so the
+ * linked files are never modified in place.
+ *
+ * <p>
+ * Only archives present in <tt>plugins/</tt> before Jenkins starts are populated, that is plugins staged from
+ * <tt>PLUGINS_DIR</tt>. Plugins installed through the update center while the test runs are exploded by Jenkins as
+ * they are deployed, so a fresh home with no staged plugins gains nothing.
+ *
+ * <p>
+ * Enabled by pointing <tt>EXPLODED_PLUGIN_CACHE</tt> to a directory on the same file system as <tt>WORKSPACE</tt>.
+ */
+@Singleton
+public class ExplodedPluginCache {
+    private static final String DIR = SystemEnvironmentVariables.getPropertyVariableOrEnvironment("EXPLODED_PLUGIN_CACHE", null);
+
+    /**
+     * Name of the file Jenkins marks exploded plugins with.
+     */
+    /*package*/ static final String TIMESTAMP = ".timestamp2";
+
+    private static final FileFilter ARCHIVES = new FileFilter() {
+        @Override public boolean accept(File f) {
+            return f.isFile() && (f.getName().endsWith(".jpi") || f.getName().endsWith(".hpi"));
+        }
+    };
+
+    private final File store;
+
+    public ExplodedPluginCache() {
+        this(DIR == null || DIR.trim().isEmpty() ? null : new File(DIR.trim()));
+    }
+
+    /*package*/ ExplodedPluginCache(@CheckForNull File store) {
+        this.store = store;
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Materialise cached plugins not exploded in the plugin directory yet.
+     *
+     * Plugins not in the directory are not materialised, see the class documentation.
+     *
+     * @return Number of plugins materialised.
+     */
+    public int populate(@Nonnull File pluginsDir) {
+        File[] archives = pluginsDir.listFiles(ARCHIVES);
+        if (!isEnabled() || archives == null) return 0;
+
+        long start = System.currentTimeMillis();
+        int populated = 0;
+        for (File archive: archives) {
+            File exploded = explodedDir(archive);
+            if (isExploded(archive, exploded)) continue;
+
+            try {
+                File cached = new File(store, checksum(archive));
+                if (!cached.isDirectory()) continue;
+
+                FileUtils.deleteDirectory(exploded);
+                link(cached.toPath(), exploded.toPath());
+                File timestamp = new File(exploded, TIMESTAMP);
+                FileUtils.touch(timestamp);
+                if (!timestamp.setLastModified(archive.lastModified())) {
+                    throw new IOException("Unable to set timestamp of " + timestamp);
+                }
+                populated++;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to populate exploded " + archive, e);
+                FileUtils.deleteQuietly(exploded); // Let Jenkins explode it
+            }
+        }
+        LOGGER.info(String.format("Populated %d of %d exploded plugins in %d ms",
+                populated, archives.length, System.currentTimeMillis() - start
+        ));
+        return populated;
+    }
+
+    /**
+     * Put plugins exploded by Jenkins to the cache unless cached already.
+     *
+     * Jenkins is expected not to be running.
+     *
+     * @return Number of plugins added.
+     */
+    public int harvest(@Nonnull File pluginsDir) {
+        File[] archives = pluginsDir.listFiles(ARCHIVES);
+        if (!isEnabled() || archives == null) return 0;
+
+        int harvested = 0;
+        for (File archive: archives) {
+            File exploded = explodedDir(archive);
+            if (!isExploded(archive, exploded)) continue;
+
+            try {
+                String key = checksum(archive);
+                File cached = new File(store, key);
+                if (cached.isDirectory()) continue;
+
+                FileUtils.forceMkdir(store);
+                File tmp = Files.createTempDirectory(store.toPath(), key + ".tmp").toFile();
+                try {
+                    link(exploded.toPath(), tmp.toPath());
+                    FileUtils.deleteQuietly(new File(tmp, TIMESTAMP)); // Stamped per home
+                    try {
+                        Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                        harvested++;
+                    } catch (FileAlreadyExistsException e) {
+                        // Harvested concurrently
+                    } catch (IOException e) {
+                        if (!cached.isDirectory()) throw e;
+                        // Harvested concurrently, some platforms report that differently
+                    }
+                } finally {
+                    FileUtils.deleteQuietly(tmp);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to cache exploded " + archive, e);
+            }
+        }
+        if (harvested > 0) {
+            LOGGER.info("Cached " + harvested + " exploded plugins in " + store);
+        }
+        return harvested;
+    }
+
+    private static File explodedDir(File archive) {
+        String name = archive.getName();
+        return new File(archive.getParentFile(), name.substring(0, name.length() - 4));
+    }
+
+    /**
+     * Jenkins does not explode the archive again when this holds.
+     */
+    /*package*/ static boolean isExploded(File archive, File exploded) {
+        File timestamp = new File(exploded, TIMESTAMP);
+        return timestamp.exists() && timestamp.lastModified() == archive.lastModified();
+    }
+
+    private static String checksum(File archive) throws IOException {
+        return FileDigest.of(archive).getSha1Hex();
+    }
+
+    /**
+     * Recreate directory tree hardlinking the files, copying them if links can not be created.
+     */
+    private static void link(final Path from, final Path to) throws IOException {
+        Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(to.resolve(from.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = to.resolve(from.relativize(file));
+                try {
+                    Files.createLink(target, file);
+                } catch (IOException|UnsupportedOperationException e) {
+                    // Different file system or no hardlink support
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ExplodedPluginCache.class.getName());
+}
@@ -1,5 +1,6 @@
 package org.jenkinsci.test.acceptance.controller;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.File;
@@ -14,6 +15,7 @@ import java.util.logging.Logger;
 import org.apache.commons.io.IOUtils;
 import org.codehaus.plexus.util.FileUtils;
 import org.jenkinsci.test.acceptance.guice.AutoCleaned;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogPrinter;
 import org.jenkinsci.test.acceptance.log.NullPrinter;
@@ -52,6 +54,7 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
     }
 
     private boolean isRunning;
+    private int starts;
 
     protected JenkinsController(Injector i) {
         i.injectMembers(this);
@@ -88,6 +91,7 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
             populateJenkinsHome(IOUtils.toByteArray(url), false);
             startNow();
             isRunning = true;
+            starts++;
         }
     }
 
@@ -158,6 +162,13 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
         return isRunning;
     }
 
+    /**
+     * Number of times Jenkins was started, so every {@linkplain #restart() restart} changes it.
+     */
+    public int getStarts() {
+        return starts;
+    }
+
     /**
      * Gives URL where Jenkins is listening. Must end with "/"
      */
@@ -171,6 +182,15 @@ public abstract class JenkinsController implements IJenkinsController, AutoClean
         return String.format("master%05d",getUrl().getPort());
     }
 
+    /**
+     * Indexed log of the Jenkins instance, if the controller captures it.
+     *
+     * @return null unless supported by the controller and Jenkins was started.
+     */
+    public @CheckForNull JenkinsLogStore getLogStore() {
+        return null;
+    }
+
     /**
      * Perform controller specific diagnostics for test failure. Defaults to no-op.
      * @param cause Failure cause
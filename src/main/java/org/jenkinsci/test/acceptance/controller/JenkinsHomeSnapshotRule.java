@@ -0,0 +1,43 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.junit.GlobalRule;
+import org.jenkinsci.test.acceptance.junit.WithPlugins;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * Restore plugins the test needs from {@link JenkinsHomeSnapshots} before Jenkins is started.
+ *
+ * Snapshots are captured by {@link WithPlugins} once it installs the plugins.
+ */
+@GlobalRule(priority = -1) // Run before Jenkins is started
+public class JenkinsHomeSnapshotRule implements TestRule {
+    private final JenkinsController controller;
+    private final JenkinsHomeSnapshots snapshots;
+
+    @Inject
+    public JenkinsHomeSnapshotRule(JenkinsController controller, JenkinsHomeSnapshots snapshots) {
+        this.controller = controller;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public Statement apply(final Statement base, final Description d) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (snapshots.isEnabled()) {
+                    List<PluginSpec> plugins = WithPlugins.RuleImpl.requiredPlugins(d.getTestClass(), d.getAnnotation(WithPlugins.class));
+                    snapshots.restore(controller, plugins);
+                }
+                base.evaluate();
+            }
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.io.FileUtils;
+import org.jenkinsci.test.acceptance.update_center.CachedUpdateCenterMetadataLoader;
+import org.jenkinsci.test.acceptance.update_center.PluginMetadata;
+import org.jenkinsci.test.acceptance.update_center.PluginResolver;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadataProvider;
+import org.jenkinsci.test.acceptance.utils.FileDigest;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Snapshots of <tt>$JENKINS_HOME/plugins</tt> keyed by <tt>jenkins.war</tt> and the plan of installing plugins a test
+ * needs.
+ *
+ * <p>
+ * Plugins installed by {@link org.jenkinsci.test.acceptance.junit.WithPlugins} are captured once installation
+ * completes. Later tests with the same installation plan get the snapshot restored into their fresh
+ * <tt>JENKINS_HOME</tt> before Jenkins starts so there is nothing left to install. The plan is the one
+ * {@link PluginResolver} makes for a fresh <tt>JENKINS_HOME</tt>: names and versions of all the plugins to install,
+ * dependencies included, so a refreshed update center produces new snapshots. Installation that did not end up with
+ * the planned versions is not captured. Tests using locally built plugins are never snapshotted.
+ *
+ * <p>
+ * Only <tt>plugins</tt> is captured, other files in <tt>JENKINS_HOME</tt> hold instance specific data like the URL.
+ * Supported by {@link LocalController}s, enabled by pointing <tt>JENKINS_HOME_SNAPSHOTS</tt> to a directory.
+ */
+@Singleton
+public class JenkinsHomeSnapshots {
+    private static final String DIR = SystemEnvironmentVariables.getPropertyVariableOrEnvironment("JENKINS_HOME_SNAPSHOTS", null);
+
+    private final File store;
+
+    @Inject
+    private UpdateCenterMetadataProvider ucmp;
+
+    public JenkinsHomeSnapshots() {
+        this(DIR == null || DIR.trim().isEmpty() ? null : new File(DIR.trim()));
+    }
+
+    /*package*/ JenkinsHomeSnapshots(@CheckForNull File store) {
+        this.store = store;
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Restore snapshot of plugins into Jenkins that is about to start.
+     *
+     * @return true if the snapshot was restored.
+     */
+    public boolean restore(@Nonnull JenkinsController controller, @Nonnull List<PluginSpec> plugins) {
+        if (!isEnabled() || plugins.isEmpty() || !(controller instanceof LocalController) || controller.isRunning()) return false;
+
+        LocalController local = (LocalController) controller;
+        try {
+            String key = key(local.war, plugins);
+            return key != null && restore(key, local.getJenkinsHome());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to restore plugins for " + plugins, e);
+            return false;
+        }
+    }
+
+    /**
+     * Capture plugins installed for the test unless captured already.
+     *
+     * @param installed Versions of plugins installed by name.
+     */
+    public void capture(@Nonnull JenkinsController controller, @Nonnull List<PluginSpec> plugins, @Nonnull Map<String, VersionNumber> installed) {
+        if (!isEnabled() || plugins.isEmpty() || !(controller instanceof LocalController)) return;
+
+        LocalController local = (LocalController) controller;
+        try {
+            List<PluginMetadata> plan = plan(local.war, plugins);
+            if (plan == null) return;
+            for (PluginMetadata pm: plan) {
+                VersionNumber version = installed.get(pm.getName());
+                if (version == null || !version.equals(new VersionNumber(pm.getVersion()))) {
+                    LOGGER.info(String.format("Not capturing plugins for %s, %s planned but %s installed", plugins, pm, version));
+                    return;
+                }
+            }
+            capture(key(warChecksum(local.war), coordinates(plan)), local.getJenkinsHome());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to capture plugins for " + plugins, e);
+        }
+    }
+
+    /**
+     * @return null if the plugins to be installed cannot be determined reliably.
+     */
+    private @CheckForNull String key(File war, List<PluginSpec> plugins) throws IOException {
+        List<PluginMetadata> plan = plan(war, plugins);
+        return plan == null ? null : key(warChecksum(war), coordinates(plan));
+    }
+
+    /**
+     * Plugins {@link org.jenkinsci.test.acceptance.junit.WithPlugins} installs into fresh <tt>JENKINS_HOME</tt>.
+     *
+     * @return null if the plugins to be installed cannot be determined reliably.
+     */
+    private @CheckForNull List<PluginMetadata> plan(File war, List<PluginSpec> plugins) throws IOException {
+        if (!(ucmp instanceof CachedUpdateCenterMetadataLoader)) return null;
+
+        VersionNumber version = CachedUpdateCenterMetadataLoader.getCoreVersion(war);
+        if (version == null) return null;
+
+        List<PluginMetadata> plan;
+        try {
+            plan = new PluginResolver(((CachedUpdateCenterMetadataLoader) ucmp).get(version))
+                    .resolve(plugins, version, Collections.<String, VersionNumber>emptyMap());
+        } catch (UnableToResolveDependencies | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Unable to plan installation of " + plugins, e);
+            return null;
+        }
+        for (PluginMetadata pm: plan) {
+            if (pm instanceof PluginMetadata.LocalOverride) return null; // Content changes with no version change
+        }
+        return plan;
+    }
+
+    private static List<String> coordinates(List<PluginMetadata> plan) {
+        List<String> coordinates = new ArrayList<>();
+        for (PluginMetadata pm: plan) {
+            coordinates.add(pm.getName() + ":" + pm.getVersion());
+        }
+        return coordinates;
+    }
+
+    /*package*/ static String key(String warChecksum, Collection<String> pluginCoordinates) {
+        List<String> sorted = new ArrayList<>(pluginCoordinates);
+        Collections.sort(sorted);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(warChecksum.getBytes(StandardCharsets.UTF_8));
+            for (String c: sorted) {
+                digest.update((byte) '\n');
+                digest.update(c.getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b: digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String warChecksum(File war) throws IOException {
+        return FileDigest.of(war).getSha1Hex();
+    }
+
+    /*package*/ boolean restore(String key, File jenkinsHome) throws IOException {
+        File snapshot = new File(new File(store, key), "plugins");
+        if (!snapshot.isDirectory()) return false;
+
+        // Timestamps are preserved so Jenkins does not explode the plugins again
+        FileUtils.copyDirectory(snapshot, new File(jenkinsHome, "plugins"), true);
+        LOGGER.info("Restored plugins from " + snapshot);
+        return true;
+    }
+
+    /*package*/ void capture(String key, File jenkinsHome) throws IOException {
+        File snapshot = new File(store, key);
+        if (snapshot.isDirectory()) return;
+
+        FileUtils.forceMkdir(store);
+        File tmp = Files.createTempDirectory(store.toPath(), key + ".tmp").toFile();
+        try {
+            FileUtils.copyDirectory(new File(jenkinsHome, "plugins"), new File(tmp, "plugins"), true);
+            try {
+                Files.move(tmp.toPath(), snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                LOGGER.info("Captured plugins to " + snapshot);
+            } catch (FileAlreadyExistsException e) {
+                // Captured concurrently
+            } catch (IOException e) {
+                if (!snapshot.isDirectory()) throw e;
+                // Captured concurrently, some platforms report that differently
+            }
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(JenkinsHomeSnapshots.class.getName());
+}
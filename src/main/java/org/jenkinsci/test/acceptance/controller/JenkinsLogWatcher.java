@@ -2,8 +2,6 @@ package org.jenkinsci.test.acceptance.controller;
 
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Date;
@@ -14,7 +12,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.input.TeeInputStream;
+import org.jenkinsci.test.acceptance.log.AsyncLogDispatcher;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogReader;
@@ -49,10 +48,19 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
     protected final Thread reader;
 
     /**
-     * Splits the log file to multiple sinks.
+     * Splits the log file to multiple sinks. Called from the reader thread so it only holds cheap listeners.
      */
     private final LogSplitter splitter = new LogSplitter();
 
+    /**
+     * Listeners that are potentially slow, notified from {@link #dispatcher} thread.
+     */
+    private final LogSplitter asyncSplitter = new LogSplitter();
+
+    private final AsyncLogDispatcher dispatcher;
+
+    private final JenkinsLogStore store;
+
     private final LogWatcher watcher = new LogWatcher();
 
     /**
@@ -61,12 +69,18 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
      * @param printer
      *      The printer to use to write the Jenkins logging statements to
      */
-    public JenkinsLogWatcher(String id, InputStream pipe, File logFile, final LogListener printer) throws FileNotFoundException {
+    public JenkinsLogWatcher(String id, InputStream pipe, File logFile, final LogListener printer) throws IOException {
         this.logFile = logFile;
-        this.pipe = new TeeInputStream(pipe,new FileOutputStream(logFile));
+        this.pipe = pipe;
+        // Blocking, listeners waiting for a line must not miss it
+        this.dispatcher = new AsyncLogDispatcher("Log dispatcher: " + id, asyncSplitter);
+        this.store = new JenkinsLogStore(logFile, dispatcher);
 
-        splitter.addLogListener(printer);
+        // Readiness watchers stay on the reader thread, parsing of the log does not
         splitter.addLogListener(watcher);
+        splitter.addLogListener(dispatcher);
+        asyncSplitter.addLogListener(store);
+        asyncSplitter.addLogListener(printer);
         reader = new Thread(new LogReader(this.pipe,splitter),"Log reader: "+id);
 
         ready = watcher.watch(Pattern.compile("Jenkins is fully up and running"));
@@ -77,9 +91,24 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
      * Starts scanning logs.
      */
     public void start() {
+        dispatcher.start();
         reader.start();
     }
 
+    /**
+     * Indexed log written to {@link #logFile}.
+     */
+    public JenkinsLogStore getLogStore() {
+        return store;
+    }
+
+    /**
+     * Counters of the asynchronous log delivery.
+     */
+    public String getDispatchStats() {
+        return dispatcher.getStats();
+    }
+
     @Override
     public void close() throws IOException {
         if(pipe != null){
@@ -108,7 +137,10 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
         String msg = getClass()+": Could not bring up a Jenkins server";
         msg += "\nprocess is " + (reader.isAlive() ? "alive" : "dead");
         msg += "\nnow = " + new Date();
+        msg += "\nlog dispatch: " + dispatcher.getStats();
         try {
+            dispatcher.drain(10, SECONDS);
+            store.flush();
             msg += "\n" + FileUtils.readFileToString(logFile);
         } catch (IOException _) {
             // ignore
@@ -118,11 +150,11 @@ public class JenkinsLogWatcher implements LogListenable, Closeable {
 
     @Override
     public void addLogListener(LogListener l) {
-        splitter.addLogListener(l);
+        asyncSplitter.addLogListener(l);
     }
 
     @Override
     public void removeLogListener(LogListener l) {
-        splitter.removeLogListener(l);
+        asyncSplitter.removeLogListener(l);
     }
 }
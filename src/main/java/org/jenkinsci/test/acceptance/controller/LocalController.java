@@ -13,14 +13,20 @@ import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 import org.apache.commons.io.FileUtils;
 import org.codehaus.plexus.util.Expand;
 import org.codehaus.plexus.util.StringUtils;
 import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.utils.process.CommandBuilder;
@@ -66,12 +72,23 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     private final File logFile;
 
+    /**
+     * Ports handed out to controllers in this JVM and not released yet. A port is free from the moment it is picked
+     * until Jenkins binds it, so concurrently started controllers could otherwise pick the same one.
+     */
+    private static final Set<Integer> RESERVED_PORTS = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    private final List<Integer> reservedPorts = new CopyOnWriteArrayList<>();
+
     @Inject @Named("form-element-path.hpi")
     private File formElementPathPlugin;
 
     @Inject
     private Injector injector;
 
+    @Inject
+    private ExplodedPluginCache explodedPlugins;
+
     /**
      * Flag to indicate if the install wizard should be run
      */
@@ -209,6 +226,9 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     @Override
     public void startNow() throws IOException {
+        explodedPlugins.populate(new File(jenkinsHome, "plugins"));
+
+        long start = System.currentTimeMillis();
         this.process = startProcess();
         Runtime.getRuntime().addShutdownHook(shutdownHook);
 
@@ -217,12 +237,17 @@ public abstract class LocalController extends JenkinsController implements LogLi
         try {
             LOGGER.info("Waiting for Jenkins to become running in "+ this);
             this.logWatcher.waitTillReady();
-            LOGGER.info("Jenkins is running in " + this);
+            LOGGER.info(String.format("Jenkins is running in %s, started in %d ms", this, System.currentTimeMillis() - start));
         } catch (Exception e) {
             diagnoseFailedLoad(e);
         }
     }
 
+    @Override
+    public JenkinsLogStore getLogStore() {
+        return logWatcher == null ? null : logWatcher.getLogStore();
+    }
+
     @Override
     public void stopNow() throws IOException{
         process.getProcess().destroy();
@@ -273,6 +298,8 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
     @Override
     public void tearDown(){
+        RESERVED_PORTS.removeAll(reservedPorts);
+        explodedPlugins.harvest(new File(jenkinsHome, "plugins"));
         try {
             FileUtils.forceDelete(jenkinsHome);
         } catch (IOException e) {
@@ -319,8 +346,12 @@ public abstract class LocalController extends JenkinsController implements LogLi
 
         while(true){
             int candidate = (int) ((Math.random() * (to-from)) + from);
-            if(isFreePort(candidate)){
-                return candidate;
+            if(RESERVED_PORTS.add(candidate)){
+                if(isFreePort(candidate)){
+                    reservedPorts.add(candidate);
+                    return candidate;
+                }
+                RESERVED_PORTS.remove(candidate);
             }
             LOGGER.info(String.format("Port %s is in use", candidate));
         }
@@ -8,7 +8,9 @@ import java.net.URL;
 
 import org.codehaus.plexus.util.FileUtils;
 import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
 import org.jenkinsci.test.acceptance.machine.Machine;
+import org.jenkinsci.test.acceptance.resolver.RemoteArtifactCache;
 import org.jenkinsci.test.acceptance.utils.GNUCLibrary;
 import org.jenkinsci.utils.process.CommandBuilder;
 import org.jenkinsci.utils.process.ProcessInputStream;
@@ -87,6 +89,11 @@ public class RemoteJenkinsController extends JenkinsController {
         }
     }
 
+    @Override
+    public JenkinsLogStore getLogStore() {
+        return logWatcher == null ? null : logWatcher.getLogStore();
+    }
+
     @Override
     public void stopNow() throws IOException {
         Process p = process.getProcess();
@@ -122,17 +129,18 @@ public class RemoteJenkinsController extends JenkinsController {
                 connection.executeRemoteCommand("rm -rf "+ Ssh.escape(jenkinsHome) + "; mkdir -p " + Ssh.escape(jenkinsHome));
             }
             File template = File.createTempFile("template", ".dat");
+            // Linked out of the cache, other tenants of the machine can prune it meanwhile
+            String templateArchive = jenkinsHome.replaceAll("/+$", "") + ".template.zip";
             try {
                 org.apache.commons.io.FileUtils.writeByteArrayToFile(template, _template);
-                connection.copyTo(template.getAbsolutePath(), ".home-template.zip", jenkinsHome);
+                // Most of the template is usually on the machine already
+                new RemoteArtifactCache(machine, privateKeyLocation).materialize(template, "home-template.zip", templateArchive);
             } finally {
                 template.delete();
             }
-                String templateArchive =
-                        Ssh.escape(jenkinsHome + (jenkinsHome.endsWith("/") ? "" : "/") + ".home-template.zip");
-                connection.executeRemoteCommand(
-                        "unzip -o " + templateArchive + " -d " + Ssh.escape(jenkinsHome) + " && rm -f "
-                                + templateArchive);
+            connection.executeRemoteCommand(
+                    "mkdir -p " + Ssh.escape(jenkinsHome) + " && unzip -o " + Ssh.escape(templateArchive) + " -d " + Ssh.escape(jenkinsHome)
+                    + "; rm -f " + Ssh.escape(templateArchive));
         } catch (Exception e) {
             throw new IOException(e.getMessage(), e);
         } finally {
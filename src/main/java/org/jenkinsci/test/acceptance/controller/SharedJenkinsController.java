@@ -0,0 +1,163 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.junit.SharedInstance;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.runners.model.Statement;
+
+import com.google.inject.Injector;
+
+/**
+ * Gives each {@link SharedInstance} test a view of one Jenkins shared by all such tests in the JVM.
+ *
+ * <p>
+ * The shared Jenkins is created by the controller configured for the run, started by the first test that needs it
+ * and torn down once all tests are done. Tests can not stop it, an attempt to restart it or to populate its
+ * <tt>JENKINS_HOME</tt> once running fails the test.
+ *
+ * <p>
+ * Enabled by <tt>SHARED_JENKINS=true</tt>.
+ */
+public class SharedJenkinsController extends JenkinsController {
+    public static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("SHARED_JENKINS", "false")
+    );
+
+    private static JenkinsController shared;
+    private static long startupMillis;
+    private static int tests;
+
+    private final JenkinsController delegate;
+
+    private SharedJenkinsController(Injector i, JenkinsController delegate) {
+        super(i);
+        this.delegate = delegate;
+    }
+
+    /**
+     * Controller for the current test, creating the shared one first if needed.
+     */
+    public static synchronized SharedJenkinsController forTest(Injector injector, Callable<JenkinsController> factory) throws IOException {
+        if (shared == null) {
+            try {
+                shared = factory.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Unable to create shared Jenkins", e);
+            }
+
+            injector.getInstance(WorldCleaner.class).addTask(new Statement() {
+                @Override public void evaluate() throws Throwable {
+                    report();
+                    shared.close();
+                }
+
+                @Override public String toString() {
+                    return "Tear down shared Jenkins";
+                }
+            });
+        }
+        tests++;
+        return new SharedJenkinsController(injector, shared);
+    }
+
+    private static synchronized void report() {
+        if (startupMillis == 0) return;
+
+        // Not measured, per-test startups would differ by the plugins installed and the JENKINS_HOME populated
+        System.out.printf("Shared Jenkins served %d tests and started once in %d s. " +
+                "Starting one per test would take an estimated %d s, the startup time times the tests%n",
+                tests, TimeUnit.MILLISECONDS.toSeconds(startupMillis), TimeUnit.MILLISECONDS.toSeconds(startupMillis * tests)
+        );
+    }
+
+    @Override
+    public void start() throws IOException {
+        synchronized (SharedJenkinsController.class) {
+            if (!delegate.isRunning()) {
+                long start = System.currentTimeMillis();
+                delegate.start();
+                startupMillis = System.currentTimeMillis() - start;
+            }
+        }
+    }
+
+    @Override
+    public void startNow() throws IOException {
+        start();
+    }
+
+    /**
+     * Shared instance outlives the test.
+     */
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void stopNow() {
+    }
+
+    @Override
+    public void restart() {
+        throw new AssertionError("Jenkins can not be restarted by tests annotated with @" + SharedInstance.class.getSimpleName()
+                + ", remove the annotation from tests that need a restart");
+    }
+
+    @Override
+    public void tearDown() {
+    }
+
+    @Override
+    public boolean isRunning() {
+        return delegate.isRunning();
+    }
+
+    @Override
+    public int getStarts() {
+        return delegate.getStarts();
+    }
+
+    @Override
+    public void populateJenkinsHome(byte[] template, boolean clean) throws IOException {
+        synchronized (SharedJenkinsController.class) {
+            if (delegate.isRunning()) {
+                throw new AssertionError("JENKINS_HOME can not be populated by tests annotated with @" + SharedInstance.class.getSimpleName()
+                        + " once the shared Jenkins is running, remove the annotation from tests that need a custom JENKINS_HOME");
+            }
+            delegate.populateJenkinsHome(template, clean);
+        }
+    }
+
+    @Override
+    public URL getUrl() {
+        return delegate.getUrl();
+    }
+
+    @Override
+    public String getLogId() {
+        return delegate.getLogId();
+    }
+
+    @Override
+    public JenkinsLogStore getLogStore() {
+        return delegate.getLogStore();
+    }
+
+    @Override
+    public void diagnose(Throwable cause) throws IOException {
+        delegate.diagnose(cause);
+    }
+
+    @Override
+    public String toString() {
+        return "Shared " + delegate;
+    }
+}
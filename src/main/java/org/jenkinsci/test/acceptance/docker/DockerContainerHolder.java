@@ -31,6 +31,8 @@ public class DockerContainerHolder<T extends DockerContainer> implements Provide
 
     T container;
 
+    private DockerImage image;
+
     /**
      * Injecting a portOffset will force the binding of dockerPorts to local Ports with an offset
      * (e.g. bind docker 22 to localhost port 40022,
@@ -54,21 +56,35 @@ public class DockerContainerHolder<T extends DockerContainer> implements Provide
         return container;
     }
 
+    /**
+     * Builds the image of the fixture, without starting a container. Built once per test.
+     */
+    public synchronized DockerImage build() throws IOException, InterruptedException {
+        if (image == null) {
+            File buildlog = diag.touch("docker-" + fixture().getSimpleName() + ".build.log");
+            image = docker.build(fixture(), buildlog);
+        }
+        return image;
+    }
+
     /**
      * Provides a starter directly, so you can customize it a bit before calling {@link Starter#start}.
      */
     public Starter<T> starter() throws IOException, InterruptedException {
-        @SuppressWarnings("unchecked")
-        Class<T> fixture = (Class<T>) type.getRawType();
-        File buildlog = diag.touch("docker-" + fixture.getSimpleName() + ".build.log");
+        Class<T> fixture = fixture();
         File runlog = diag.touch("docker-" + fixture.getSimpleName() + ".run.log");
-        Starter<T> containerStarter = docker.build(fixture, buildlog).start(fixture).withLog(runlog);
+        Starter<T> containerStarter = build().start(fixture).withLog(runlog);
         if (portOffset != null) {
             containerStarter.withPortOffset(portOffset);
         }
         return containerStarter;
     }
 
+    @SuppressWarnings("unchecked")
+    private Class<T> fixture() {
+        return (Class<T>) type.getRawType();
+    }
+
     /**
      * {@link TestCleaner} will call this at the end of the test automatically
      */
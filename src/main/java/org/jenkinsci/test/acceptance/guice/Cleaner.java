@@ -4,14 +4,17 @@ import org.junit.runners.model.Statement;
 
 import java.io.Closeable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
  * Performs clean-up tasks at the end of scope.
  *
  * Tests and their decorators can add stuff to this cleaner to ensure some cleanup operation
- * happens at the end of each test.
+ * happens at the end of each test. Tasks can be added concurrently, {@link WorldCleaner} is shared by all tests
+ * running in the JVM.
  *
  * @author Kohsuke Kawaguchi
  */
@@ -19,7 +22,9 @@ public class Cleaner {
     private final Deque<Statement> tasks = new ArrayDeque<>();
 
     public void addTask(Statement stmt) {
-        tasks.push(stmt);
+        synchronized (tasks) {
+            tasks.push(stmt);
+        }
     }
 
     public void addTask(final Runnable r) {
@@ -49,13 +54,26 @@ public class Cleaner {
         });
     }
     public void performCleanUp() {
-        for (Statement task : tasks) {
-            try {
-                task.evaluate();
-            } catch (Throwable t) {
-                throw new AssertionError(task+" failed",t);
+        while (true) {
+            List<Statement> pending;
+            synchronized (tasks) {
+                if (tasks.isEmpty()) return;
+                pending = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            // Run outside of the lock so the tasks can register further tasks, run in the next round
+            for (int i = 0; i < pending.size(); i++) {
+                Statement task = pending.get(i);
+                try {
+                    task.evaluate();
+                } catch (Throwable t) {
+                    // Keep the tasks not run yet for the next clean up
+                    synchronized (tasks) {
+                        tasks.addAll(pending.subList(i + 1, pending.size()));
+                    }
+                    throw new AssertionError(task+" failed",t);
+                }
             }
         }
-        tasks.clear();
     }
 }
@@ -4,13 +4,24 @@ import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Keeps track of {@link TestScope} objects.
  *
+ * <p>
+ * Every thread running a test has its own scope, so several tests can run concurrently in one JVM. Threads created
+ * from within a test inherit its scope and may resolve test-scoped objects concurrently with the test thread. Once
+ * the scope ends, threads that outlived the test (pooled threads, most notably) no longer see its objects, nor can
+ * they create new ones that nobody would clean up.
+ *
 * @author Kohsuke Kawaguchi
 */
 public class TestLifecycle implements Scope {
@@ -21,14 +32,28 @@ public class TestLifecycle implements Scope {
      */
     private final ThreadLocal<Map> testScopeObjects = new InheritableThreadLocal<>();
 
+    /**
+     * Scopes started and not yet ended, possibly exported to other threads.
+     */
+    private final Set<Map> active = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<Map, Boolean>()));
+
     /**
      * Call this method when a new test starts, to reset the {@link TestScope}.
      */
     public void startTestScope() {
-        testScopeObjects.set(new HashMap());
+        Map m = new HashMap();
+        active.add(m);
+        testScopeObjects.set(m);
     }
 
     public void endTestScope() {
+        Map m = testScopeObjects.get();
+        if (m != null) {
+            active.remove(m);
+            synchronized (m) {
+                m.clear();
+            }
+        }
         testScopeObjects.set(null);
     }
 
@@ -42,11 +67,34 @@ public class TestLifecycle implements Scope {
         testScopeObjects.set(o);
     }
 
+    /**
+     * Number of scopes started and not yet ended.
+     */
+    public int getActiveScopes() {
+        return active.size();
+    }
+
     /**
      * Returns already existing instances.
      */
     /*package*/ Collection<Object> getInstances() {
-        return testScopeObjects.get().values();
+        Map m = current();
+        if (m == null) return Collections.emptyList();
+        synchronized (m) {
+            List<Object> instances = new ArrayList<>();
+            for (Object o: m.entrySet()) {
+                Map.Entry e = (Map.Entry) o;
+                if (!(e.getKey() instanceof CreationLock)) {
+                    instances.add(e.getValue());
+                }
+            }
+            return instances;
+        }
+    }
+
+    private Map current() {
+        Map m = testScopeObjects.get();
+        return m != null && active.contains(m) ? m : null;
     }
 
     @Override
@@ -54,13 +102,56 @@ public class TestLifecycle implements Scope {
         return new Provider<T>() {
             @Override
             public T get() {
-                Map m = testScopeObjects.get();
+                Map m = current();
                 if (m==null)    return null;
-                T v = (T)m.get(key);
-                if (v==null)
-                    m.put(key, v = base.get());
-                return v;
+
+                Object lock;
+                synchronized (m) {
+                    T v = (T)m.get(key);
+                    if (v!=null)    return v;
+                    CreationLock lockKey = new CreationLock(key);
+                    lock = m.get(lockKey);
+                    if (lock==null)
+                        m.put(lockKey, lock = new Object());
+                }
+
+                // Each object is created under a lock of its own, so a slow one (a browser, a container) being
+                // created on one thread does not hold up the others. Reentrant, providers commonly depend on
+                // other test scoped objects.
+                synchronized (lock) {
+                    synchronized (m) {
+                        T v = (T)m.get(key);
+                        if (v!=null)    return v;
+                    }
+                    T v = base.get();
+                    synchronized (m) {
+                        if (active.contains(m))
+                            m.put(key, v);
+                    }
+                    return v;
+                }
             }
         };
     }
+
+    /**
+     * Key of the lock creating instance of the wrapped key.
+     */
+    private static final class CreationLock {
+        private final Key<?> key;
+
+        private CreationLock(Key<?> key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CreationLock && key.equals(((CreationLock) o).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() + 1;
+        }
+    }
 }
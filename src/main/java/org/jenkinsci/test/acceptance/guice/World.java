@@ -22,7 +22,8 @@ import javax.inject.Singleton;
  * In this test harness, Guice has two important scopes. One is the singleton scope that lives
  * for the entire duration of the VM (thus covering all the tests that are run.) This is the
  * {@link Singleton} scope. The other scope is {@link TestScope}, which is for each test case
- * that runs.
+ * that runs. Tests running concurrently on different threads share the former and get their own
+ * instance of the latter.
  *
  * @author Kohsuke Kawaguchi
  */
@@ -40,7 +41,7 @@ public class World extends AbstractModule {
         return cl;
     }
 
-    public Injector getInjector() {
+    public synchronized Injector getInjector() {
         if (injector==null)
             injector = Guice.createInjector(this);
         return injector;
@@ -63,6 +64,7 @@ public class World extends AbstractModule {
     }
 
     public void endTestScope() {
+        Injector injector = getInjector();
         injector.getInstance(TestCleaner.class).performCleanUp();
         injector.getInstance(TestLifecycle.class).endTestScope();
 
@@ -106,7 +108,7 @@ public class World extends AbstractModule {
 
     private static World INSTANCE;
 
-    public static World get() {
+    public static synchronized World get() {
         if (INSTANCE==null) {
             INSTANCE = new World(Thread.currentThread().getContextClassLoader());
             Runtime.getRuntime().addShutdownHook(INSTANCE.cleaner);
@@ -39,14 +39,11 @@ public class FailureDiagnostics extends TestWatcher {
      * Get test specific diagnostic directory.
      */
     private File getDir() {
-        if (!dir.exists()) {
-            if (!dir.mkdirs()) {
-                throw new Error("Directory " + dir + " could not be created. mkdirs operation returned false.");
-            }
-        } else {
-            if (!dir.isDirectory()) {
-                throw new Error(dir + " is not a directory.");
-            }
+        try {
+            // Unlike mkdirs, does not fail when created concurrently by other thread of the test
+            Files.createDirectories(dir.toPath());
+        } catch (IOException e) {
+            throw new Error("Directory " + dir + " could not be created.", e);
         }
         return dir;
     }
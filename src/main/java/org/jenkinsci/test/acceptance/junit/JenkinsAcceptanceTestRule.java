@@ -2,29 +2,30 @@ package org.jenkinsci.test.acceptance.junit;
 
 import com.google.inject.Inject;
 import com.google.inject.Injector;
+import com.google.inject.Provider;
 
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.controller.SharedJenkinsController;
 import org.jenkinsci.test.acceptance.guice.World;
 import org.jenkinsci.test.acceptance.po.CapybaraPortingLayerImpl;
+import org.jenkinsci.test.acceptance.po.ItemNamespace;
 import org.junit.internal.AssumptionViolatedException;
 import org.junit.rules.MethodRule;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
-import org.jvnet.hudson.annotation_indexer.Index;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebDriver;
 
 import java.io.IOException;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 /**
  * Runs Guice container that houses {@link JenkinsController}, {@link WebDriver}, and so on.
@@ -45,16 +46,26 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
             @Inject JenkinsController controller;
             @Inject Injector injector;
             @Inject FailureDiagnostics diagnostics;
-            @Inject WebDriver driver;
+            @Inject Provider<WebDriver> driver; // Launched concurrently with Jenkins
+            @Inject TestBootstrap bootstrap;
 
             @Override
             public void evaluate() throws Throwable {
                 World world = World.get();
                 Injector injector = world.getInjector();
 
+                long start = System.nanoTime();
                 world.startTestScope(description.getDisplayName());
+                long scope = System.nanoTime() - start;
 
+                if (SharedJenkinsController.ENABLED && isShared()) {
+                    // Decides the controller, so before anything gets injected
+                    injector.getInstance(ItemNamespace.class).enter();
+                }
+                start = System.nanoTime();
                 injector.injectMembers(this);
+                bootstrap.record("scope", scope);
+                bootstrap.record("injection", System.nanoTime() - start);
 
                 try {
                     decorateWithRules(base).evaluate();
@@ -66,7 +77,7 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
                     if (causedBy(e, NoSuchElementException.class) != null) {
                         diagnostics.write(
                                 "last-page.html",
-                                CapybaraPortingLayerImpl.getPageSource(driver)
+                                CapybaraPortingLayerImpl.getPageSource(driver.get())
                         );
                     }
                     controller.diagnose(e);
@@ -76,6 +87,11 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
                 }
             }
 
+            private boolean isShared() {
+                return method.getAnnotation(SharedInstance.class) != null
+                        || target.getClass().getAnnotation(SharedInstance.class) != null;
+            }
+
             /**
              * Detect the outermost exception of given type.
              */
@@ -90,17 +106,20 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
              * Look for annotations on a test and honor {@link RuleAnnotation}s in them.
              */
             private Statement decorateWithRules(Statement body) {
-
-                TreeMap<Integer, Set<TestRule>> rules = new TreeMap<Integer, Set<TestRule>>(new Comparator<Integer>() {
-                    @Override
-                    public int compare(Integer o1, Integer o2) {
-                        // Reversed since we apply the TestRule inside out:
-                        return Integer.compare(o2, o1);
+                long start = System.nanoTime();
+                SortedMap<Integer, List<Class<? extends TestRule>>> ruleClasses = RuleDiscovery.rules(target.getClass(), method.getMethod());
+                bootstrap.record("rules", System.nanoTime() - start);
+
+                start = System.nanoTime();
+                TreeMap<Integer, Set<TestRule>> rules = new TreeMap<>(ruleClasses.comparator());
+                for (Map.Entry<Integer, List<Class<? extends TestRule>>> e: ruleClasses.entrySet()) {
+                    Set<TestRule> group = new LinkedHashSet<>();
+                    for (Class<? extends TestRule> impl: e.getValue()) {
+                        group.add(injector.getInstance(impl));
                     }
-                });
-
-                collectRuleAnnotations(method, target, rules);
-                collectGlobalRules(rules);
+                    rules.put(e.getKey(), group);
+                }
+                bootstrap.record("injection", System.nanoTime() - start);
 
                 // Make sure Jenkins is started between -1 and 0
                 if (rules.get(0) == null) {
@@ -116,62 +135,30 @@ public class JenkinsAcceptanceTestRule implements MethodRule { // TODO should us
                 return body;
             }
 
-            private void collectGlobalRules(TreeMap<Integer, Set<TestRule>> rules) {
-                Iterable<Class> impls;
-                try {
-                    impls = Index.list(GlobalRule.class, getClass().getClassLoader(), Class.class);
-                } catch (IOException e) {
-                    throw new Error("Unable to collect global annotations", e);
-                }
-
-                for (Class<?> rule: impls) {
-                    if (!TestRule.class.isAssignableFrom(rule)) {
-                        throw new Error("GlobalRule is applicable for TestRules only");
-                    }
-
-                    addRule(rules, rule.getAnnotation(GlobalRule.class).priority(), (Class<? extends TestRule>) rule);
-                }
-            }
-
-            private void collectRuleAnnotations(final FrameworkMethod method, final Object target, TreeMap<Integer, Set<TestRule>> rules) {
-                Set<Class<? extends Annotation>> annotations = new HashSet<>();
-                collectAnnotationTypes(method.getMethod(), annotations);
-                collectAnnotationTypes(target.getClass(), annotations);
-                for (Class<? extends  Annotation> a : annotations) {
-                    RuleAnnotation r = a.getAnnotation(RuleAnnotation.class);
-                    if (r!=null) {
-                        addRule(rules, r.priority(), r.value());
-                    }
-                }
-            }
-
-            private void collectAnnotationTypes(AnnotatedElement e, Collection<Class<? extends Annotation>> types) {
-                for (Annotation a : e.getAnnotations()) {
-                    types.add(a.annotationType());
-                }
-            }
-
-            private void addRule(TreeMap<Integer, Set<TestRule>> rules, int prio, Class<? extends TestRule> impl) {
-                if (rules.get(prio) == null) {
-                    rules.put(prio, new LinkedHashSet<TestRule>());
-                }
-                rules.get(prio).add(injector.getInstance(impl));
-            }
-
             private TestRule jenkinsBoot(final TreeMap<Integer, Set<TestRule>> rules) {
                 return new TestRule() {
                     @Override
                     public Statement apply(final Statement base, Description description) {
                         return new Statement() {
                             @Override public void evaluate() throws Throwable {
-                                controller.start();
+                                bootstrap.begin(description, target);
+                                bootstrap.run("jenkins", new Callable<Void>() {
+                                    @Override public Void call() throws IOException {
+                                        controller.start();
+                                        return null;
+                                    }
+                                });
+                                bootstrap.join();
                                 // Now it is safe to inject Jenkins
+                                long start = System.nanoTime();
                                 injector.injectMembers(target);
                                 for (Set<TestRule> rg: rules.values()) {
                                     for (TestRule rule: rg) {
                                         injector.injectMembers(rule);
                                     }
                                 }
+                                bootstrap.record("injection", System.nanoTime() - start);
+                                bootstrap.report();
                                 base.evaluate();
                             }
                         };
@@ -0,0 +1,122 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+
+import org.jenkinsci.test.acceptance.guice.World;
+import org.jenkinsci.test.acceptance.update_center.CachedUpdateCenterMetadataLoader;
+import org.jenkinsci.test.acceptance.update_center.PluginPrefetcher;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadataProvider;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Resolves plugins required by all tests about to run before the first of them starts.
+ *
+ * Test classes are scanned for {@link WithPlugins} the same way {@link WithPlugins.RuleImpl} does, and the plugins
+ * are prefetched by {@link PluginPrefetcher} for the core version of <tt>jenkins.war</tt>. Disable by setting
+ * <tt>PLUGIN_PREFETCH=false</tt>, <tt>PLUGIN_PREFETCH_THREADS</tt> controls the concurrency.
+ */
+public class PluginPrefetchListener extends RunListener {
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("PLUGIN_PREFETCH", "true").trim()
+    );
+    private static final int THREADS = Integer.parseInt(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("PLUGIN_PREFETCH_THREADS", "8").trim()
+    );
+
+    @Override
+    public void testRunStarted(Description description) throws Exception {
+        if (!ENABLED) return;
+
+        Set<Class<?>> testClasses = new LinkedHashSet<>();
+        collectTestClasses(description, testClasses);
+        List<PluginSpec> plugins = requiredPlugins(testClasses);
+        if (plugins.isEmpty()) return;
+
+        try {
+            PluginPrefetcher.Result result = prefetch(World.get().getInjector(), plugins, THREADS);
+            if (result != null) {
+                System.out.println("=== " + result);
+            }
+        } catch (IOException|RuntimeException|Error e) {
+            // Failing here would abort the whole run, tests will resolve the plugins themselves.
+            // FallbackConfig throws Error when there is no jenkins.war, as with ExistingJenkinsController.
+            LOGGER.log(Level.WARNING, "Unable to prefetch plugins", e);
+        }
+    }
+
+    /**
+     * Resolve plugins for the core version of <tt>jenkins.war</tt>.
+     *
+     * @return null if the plugins can not be resolved up front.
+     */
+    /*package*/ static @CheckForNull PluginPrefetcher.Result prefetch(Injector injector, List<PluginSpec> plugins, int threads) throws IOException, InterruptedException {
+        UpdateCenterMetadataProvider provider = injector.getInstance(UpdateCenterMetadataProvider.class);
+        if (!(provider instanceof CachedUpdateCenterMetadataLoader)) {
+            LOGGER.info("Not prefetching plugins for " + provider.getClass().getName());
+            return null;
+        }
+
+        File war = injector.getInstance(Key.get(File.class, Names.named("jenkins.war")));
+        VersionNumber version = CachedUpdateCenterMetadataLoader.getCoreVersion(war);
+        if (version == null) {
+            LOGGER.info("Not prefetching plugins, unable to tell core version of " + war);
+            return null;
+        }
+
+        UpdateCenterMetadata ucm = ((CachedUpdateCenterMetadataLoader) provider).get(version);
+        return new PluginPrefetcher(ucm, injector, threads).prefetch(plugins);
+    }
+
+    private static void collectTestClasses(Description description, Set<Class<?>> testClasses) {
+        Class<?> testClass = description.getTestClass();
+        if (testClass != null) {
+            testClasses.add(testClass);
+        }
+        for (Description child: description.getChildren()) {
+            collectTestClasses(child, testClasses);
+        }
+    }
+
+    /**
+     * Union of plugins required by all test methods.
+     */
+    /*package*/ static List<PluginSpec> requiredPlugins(Set<Class<?>> testClasses) {
+        Map<String, PluginSpec> plugins = new LinkedHashMap<>();
+        for (Class<?> testClass: testClasses) {
+            for (Method method: testClass.getMethods()) {
+                if (method.getAnnotation(Test.class) == null) continue;
+
+                List<PluginSpec> required = WithPlugins.RuleImpl.requiredPlugins(testClass, method.getAnnotation(WithPlugins.class));
+                for (PluginSpec spec: required) {
+                    plugins.put(spec.getName(), spec);
+                }
+            }
+        }
+        return new ArrayList<>(plugins.values());
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PluginPrefetchListener.class.getName());
+}
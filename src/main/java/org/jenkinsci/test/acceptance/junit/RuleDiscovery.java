@@ -0,0 +1,122 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import org.junit.rules.TestRule;
+import org.jvnet.hudson.annotation_indexer.Index;
+
+/**
+ * Finds {@link TestRule}s to apply to a test, by priority.
+ *
+ * <p>
+ * These are given by {@link RuleAnnotation}s on the test method and class, and by {@link GlobalRule}s. None of that
+ * changes within a JVM, so the global rules are looked up once and the rules of each test method once per test class.
+ */
+/*package*/ final class RuleDiscovery {
+    /**
+     * Reversed since rules are applied inside out.
+     */
+    private static final Comparator<Integer> OUTERMOST_LAST = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            return Integer.compare(o2, o1);
+        }
+    };
+
+    private static final Map<List<Object>, SortedMap<Integer, List<Class<? extends TestRule>>>> CACHE = new ConcurrentHashMap<>();
+    private static volatile List<Class<? extends TestRule>> globalRules;
+
+    private RuleDiscovery() {}
+
+    /**
+     * Rule classes of given test, highest priority first.
+     */
+    /*package*/ static @Nonnull SortedMap<Integer, List<Class<? extends TestRule>>> rules(@Nonnull Class<?> testClass, @Nonnull Method method) {
+        List<Object> key = Arrays.<Object>asList(testClass, method);
+        SortedMap<Integer, List<Class<? extends TestRule>>> rules = CACHE.get(key);
+        if (rules == null) {
+            rules = discover(testClass, method);
+            CACHE.put(key, rules);
+        }
+        return rules;
+    }
+
+    /**
+     * Find rules reflectively, without caching.
+     */
+    /*package*/ static @Nonnull SortedMap<Integer, List<Class<? extends TestRule>>> discover(@Nonnull Class<?> testClass, @Nonnull Method method) {
+        TreeMap<Integer, List<Class<? extends TestRule>>> rules = new TreeMap<>(OUTERMOST_LAST);
+
+        Set<Class<? extends Annotation>> annotations = new HashSet<>();
+        collectAnnotationTypes(method, annotations);
+        collectAnnotationTypes(testClass, annotations);
+        for (Class<? extends Annotation> a : annotations) {
+            RuleAnnotation r = a.getAnnotation(RuleAnnotation.class);
+            if (r != null) {
+                add(rules, r.priority(), r.value());
+            }
+        }
+
+        for (Class<? extends TestRule> rule : globalRules()) {
+            add(rules, rule.getAnnotation(GlobalRule.class).priority(), rule);
+        }
+
+        for (Map.Entry<Integer, List<Class<? extends TestRule>>> e : rules.entrySet()) {
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+        }
+        return Collections.unmodifiableSortedMap(rules);
+    }
+
+    private static List<Class<? extends TestRule>> globalRules() {
+        List<Class<? extends TestRule>> rules = globalRules;
+        if (rules == null) {
+            rules = new ArrayList<>();
+            Iterable<Class> impls;
+            try {
+                impls = Index.list(GlobalRule.class, RuleDiscovery.class.getClassLoader(), Class.class);
+            } catch (IOException e) {
+                throw new Error("Unable to collect global annotations", e);
+            }
+
+            for (Class<?> rule : impls) {
+                if (!TestRule.class.isAssignableFrom(rule)) {
+                    throw new Error("GlobalRule is applicable for TestRules only");
+                }
+                rules.add(rule.asSubclass(TestRule.class));
+            }
+            globalRules = rules = Collections.unmodifiableList(rules);
+        }
+        return rules;
+    }
+
+    private static void collectAnnotationTypes(AnnotatedElement e, Collection<Class<? extends Annotation>> types) {
+        for (Annotation a : e.getAnnotations()) {
+            types.add(a.annotationType());
+        }
+    }
+
+    private static void add(TreeMap<Integer, List<Class<? extends TestRule>>> rules, int prio, Class<? extends TestRule> impl) {
+        List<Class<? extends TestRule>> group = rules.get(prio);
+        if (group == null) {
+            rules.put(prio, group = new ArrayList<>());
+        }
+        group.add(impl);
+    }
+}
@@ -0,0 +1,34 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.jenkinsci.test.acceptance.controller.SharedJenkinsController;
+import org.jenkinsci.test.acceptance.po.ItemNamespace;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks tests that can share one running Jenkins with other such tests, concurrently.
+ *
+ * <p>
+ * When the shared mode is {@linkplain SharedJenkinsController#ENABLED enabled}, marked tests run against a
+ * {@link SharedJenkinsController} instead of a Jenkins of their own. Jobs and views they create through
+ * {@link org.jenkinsci.test.acceptance.po.JobsMixIn} and {@link org.jenkinsci.test.acceptance.po.ViewsMixIn} get
+ * names in the {@link ItemNamespace} of the test, and only those are deleted once it completes.
+ *
+ * <p>
+ * Mark only tests that create jobs, views and builds and look at nothing else. Tests must not restart Jenkins,
+ * change global configuration or security, install plugins, add agents, nor assert on names they did not get from
+ * page objects, or on lists of all jobs, views or builds of the instance.
+ */
+@Retention(RUNTIME)
+@Target({TYPE, METHOD})
+@Inherited
+@Documented
+public @interface SharedInstance {
+}
@@ -0,0 +1,221 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.docker.Docker;
+import org.jenkinsci.test.acceptance.docker.DockerContainerHolder;
+import org.jenkinsci.test.acceptance.guice.TestCleaner;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.runner.Description;
+import org.openqa.selenium.WebDriver;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+/**
+ * Prepares what a test needs concurrently with Jenkins startup.
+ *
+ * <p>
+ * Jenkins is started by the test thread once the rules that can reconfigure the controller or skip the test are
+ * done. Meanwhile, the browser is launched, images of {@link DockerContainerHolder} fields of the test are built,
+ * and plugins required by the test are resolved. All of it is joined before any other rule or the test itself runs.
+ * Phases that failed are left to be retried by whoever needs them, so the test fails the same way it would without
+ * the overlap.
+ *
+ * <p>
+ * Duration of each phase is logged, along with how much shorter the startup was than running the phases one by one.
+ * Time the harness itself spends preparing the test, such as setting up the scope, discovering rules and injecting
+ * them, is {@linkplain #record recorded} and logged separately from the time spent waiting for Jenkins and the rest.
+ * Disable the overlap by setting <tt>BOOTSTRAP_OVERLAP=false</tt>.
+ */
+@TestScope
+public class TestBootstrap {
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("BOOTSTRAP_OVERLAP", "true").trim()
+    );
+
+    @Inject
+    private Injector injector;
+
+    @Inject
+    private TestCleaner cleaner;
+
+    private final Map<String, Future<?>> phases = new LinkedHashMap<>();
+    private final Map<String, Long> durations = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+    private final Map<String, Long> overhead = new LinkedHashMap<>();
+    private ExecutorService executor;
+    private long started;
+    private String name;
+    private long joined;
+
+    /**
+     * Start preparing the test in the background.
+     */
+    public synchronized void begin(Description description, Object target) {
+        started = System.nanoTime();
+        name = description.getDisplayName();
+        if (!ENABLED) return;
+
+        // Created on demand by the test thread, so pooled threads inherit its scope
+        executor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("Bootstrap " + name.replace("%", "%%") + " %d").setDaemon(true).build()
+        );
+        cleaner.addTask(new Runnable() {
+            @Override public void run() {
+                // Phases still running when the test ended register their clean up once done
+                join();
+                executor.shutdownNow();
+            }
+
+            @Override public String toString() {
+                return "Wait for test bootstrap to finish";
+            }
+        });
+
+        submit("browser", new Callable<Object>() {
+            @Override public Object call() {
+                return injector.getInstance(WebDriver.class);
+            }
+        });
+
+        final List<PluginSpec> plugins = WithPlugins.RuleImpl.requiredPlugins(
+                description.getTestClass(), description.getAnnotation(WithPlugins.class)
+        );
+        if (!plugins.isEmpty()) {
+            submit("plugins", new Callable<Object>() {
+                @Override public Object call() throws Exception {
+                    return PluginPrefetchListener.prefetch(injector, plugins, 4);
+                }
+            });
+        }
+
+        for (final Key<?> key: fixtures(target.getClass())) {
+            submit("docker " + key.getTypeLiteral(), new Callable<Object>() {
+                @Override public Object call() throws Exception {
+                    if (!injector.getInstance(Docker.class).isAvailable()) return null;
+                    // Only the image, the test might not use the fixture or start it its own way
+                    return ((DockerContainerHolder<?>) injector.getInstance(key)).build();
+                }
+            });
+        }
+    }
+
+    /**
+     * {@link DockerContainerHolder}s injected into the test.
+     */
+    /*package*/ static List<Key<?>> fixtures(Class<?> testClass) {
+        List<Key<?>> keys = new ArrayList<>();
+        for (Class<?> c = testClass; c != null; c = c.getSuperclass()) {
+            for (Field f: c.getDeclaredFields()) {
+                if (f.getType() != DockerContainerHolder.class) continue;
+                if (f.getAnnotation(Inject.class) == null && f.getAnnotation(javax.inject.Inject.class) == null) continue;
+                keys.add(Key.get(f.getGenericType()));
+            }
+        }
+        return keys;
+    }
+
+    private void submit(final String phase, final Callable<Object> task) {
+        phases.put(phase, executor.submit(new Callable<Object>() {
+            @Override public Object call() throws Exception {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    durations.put(phase, System.nanoTime() - start);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Run a phase on the current thread.
+     */
+    public void run(String phase, Callable<?> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            task.call();
+        } finally {
+            durations.put(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Add time the harness spent on given phase of preparing the test.
+     */
+    public synchronized void record(String phase, long nanos) {
+        Long total = overhead.get(phase);
+        overhead.put(phase, total == null ? nanos : total + nanos);
+    }
+
+    /**
+     * Wait for all phases to complete.
+     */
+    public synchronized void join() {
+        if (joined != 0) return;
+
+        for (Map.Entry<String, Future<?>> e: phases.entrySet()) {
+            try {
+                e.getValue().get();
+            } catch (ExecutionException ex) {
+                LOGGER.log(Level.INFO, "Unable to prepare " + e.getKey() + " up front, leaving it to the test", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        phases.clear();
+        joined = System.nanoTime();
+    }
+
+    /**
+     * Log the timings, once the test is ready to run.
+     */
+    public synchronized void report() {
+        long critical = joined - started;
+        long sequential = 0;
+        StringBuilder sb = new StringBuilder();
+        synchronized (durations) {
+            for (Map.Entry<String, Long> e: durations.entrySet()) {
+                sequential += e.getValue();
+                append(sb, e.getKey(), e.getValue());
+            }
+        }
+        long harness = 0;
+        StringBuilder hsb = new StringBuilder();
+        for (Map.Entry<String, Long> e: overhead.entrySet()) {
+            harness += e.getValue();
+            append(hsb, e.getKey(), e.getValue());
+        }
+        LOGGER.info(String.format("Bootstrap of %s took %d ms instead of %d ms: %s; harness overhead %d ms: %s",
+                name, millis(critical), millis(Math.max(sequential, critical)), sb, millis(harness), hsb
+        ));
+    }
+
+    private static void append(StringBuilder sb, String phase, long nanos) {
+        sb.append(sb.length() == 0 ? "" : ", ").append(phase).append(' ').append(millis(nanos)).append(" ms");
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(TestBootstrap.class.getName());
+}
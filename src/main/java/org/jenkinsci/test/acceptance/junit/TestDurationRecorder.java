@@ -0,0 +1,61 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.plan.DurationSharder;
+import org.jenkinsci.test.acceptance.plan.TestDurations;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Records how long each test class took into the history file used by {@link DurationSharder}.
+ *
+ * Duration of a class is the sum of its test methods, Jenkins startup included. Enabled by pointing
+ * <tt>TEST_DURATIONS</tt> to the history file.
+ */
+public class TestDurationRecorder extends RunListener {
+    private static final String FILE = SystemEnvironmentVariables.getPropertyVariableOrEnvironment("TEST_DURATIONS", null);
+
+    private final Map<Description, Long> started = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    @Override
+    public void testStarted(Description description) throws Exception {
+        if (FILE == null) return;
+        started.put(description, System.currentTimeMillis());
+    }
+
+    @Override
+    public void testFinished(Description description) throws Exception {
+        Long start = started.remove(description);
+        if (start == null || description.getClassName() == null) return;
+
+        long duration = System.currentTimeMillis() - start;
+        synchronized (durations) {
+            Long total = durations.get(description.getClassName());
+            durations.put(description.getClassName(), total == null ? duration : total + duration);
+        }
+    }
+
+    @Override
+    public void testRunFinished(Result result) throws Exception {
+        if (FILE == null || durations.isEmpty()) return;
+
+        try {
+            TestDurations.update(new File(FILE), new HashMap<>(durations));
+            System.out.println("=== Recorded durations of " + durations.size() + " test classes to " + FILE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to record test durations to " + FILE, e);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(TestDurationRecorder.class.getName());
+}
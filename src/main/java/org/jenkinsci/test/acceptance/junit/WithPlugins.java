@@ -12,9 +12,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.annotation.CheckForNull;
+
 import com.google.common.annotations.VisibleForTesting;
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.controller.JenkinsHomeSnapshots;
 import org.jenkinsci.test.acceptance.po.Jenkins;
-import org.jenkinsci.test.acceptance.po.Plugin;
+import org.jenkinsci.test.acceptance.po.InstalledPlugins;
 import org.jenkinsci.test.acceptance.po.PluginManager;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
@@ -31,7 +35,6 @@ import com.google.inject.name.Named;
 import static java.lang.annotation.ElementType.*;
 import static java.lang.annotation.RetentionPolicy.*;
 
-import hudson.util.VersionNumber;
 import java.io.IOException;
 
 /**
@@ -84,6 +87,12 @@ public @interface WithPlugins {
         @Inject(optional=true) @Named("neverReplaceExistingPlugins")
         boolean neverReplaceExistingPlugins;
 
+        @Inject
+        JenkinsController controller;
+
+        @Inject
+        JenkinsHomeSnapshots snapshots;
+
         @VisibleForTesting static List<PluginSpec> combinePlugins(List<WithPlugins> wp) {
             Map<String, PluginSpec> plugins = new LinkedHashMap<>();
             for (WithPlugins withPlugins : wp) {
@@ -109,6 +118,21 @@ public @interface WithPlugins {
             return new ArrayList<>(plugins.values());
         }
 
+        /**
+         * Plugins required by a test, merging the method annotation with those of the class and its superclasses.
+         */
+        public static List<PluginSpec> requiredPlugins(@CheckForNull Class<?> testClass, @CheckForNull WithPlugins onMethod) {
+            List<WithPlugins> wp = new LinkedList<>();
+            wp.add(onMethod);
+
+            while (testClass != null) {
+                wp.add(testClass.getAnnotation(WithPlugins.class));
+                testClass = testClass.getSuperclass();
+            }
+
+            return combinePlugins(wp);
+        }
+
         @Override
         public Statement apply(final Statement base, final Description d) {
             return new Statement() {
@@ -117,33 +141,31 @@ public @interface WithPlugins {
                 public void evaluate() throws Throwable {
                     jenkins = injector.getInstance(Jenkins.class);
 
-                    List<WithPlugins> wp = new LinkedList<>();
-                    wp.add(d.getAnnotation(WithPlugins.class));
-
-                    Class<?> testClass = d.getTestClass();
-                    while (testClass != null) {
-                        wp.add(testClass.getAnnotation(WithPlugins.class));
-                        testClass = testClass.getSuperclass();
-                    }
-
-                    List<PluginSpec> plugins = combinePlugins(wp);
+                    List<PluginSpec> plugins = requiredPlugins(d.getTestClass(), d.getAnnotation(WithPlugins.class));
                     installPlugins(plugins);
 
+                    InstalledPlugins installed = jenkins.getInstalledPlugins();
                     for (PluginSpec plugin : plugins) {
-                        Plugin installedPlugin = jenkins.getPlugin(plugin.getName());
-                        VersionNumber installedVersion = installedPlugin.getVersion();
-                        String version = installedVersion.toString();
+                        InstalledPlugins.InstalledPlugin installedPlugin = installed.get(plugin.getName());
+                        if (installedPlugin == null) {
+                            throw new IllegalArgumentException(plugin.getName() + " plugin not installed");
+                        }
+                        String version = installedPlugin.getVersion().toString();
                         pluginReporter.log(
                                 d.getClassName() + "." + d.getMethodName(),
                                 plugin.getName(),
                                 version
                         );
                     }
+                    LOGGER.info(String.format("Installed plugins fetched %d times and Jenkins restarted %d times to prepare the test",
+                            jenkins.getInstalledPluginsRequests(), jenkins.getRestarts()
+                    ));
                     base.evaluate();
                 }
 
                 private void installPlugins(List<PluginSpec> install) {
                     PluginManager pm = jenkins.getPluginManager();
+                    List<PluginSpec> required = new ArrayList<>(install);
 
                     for (Iterator<PluginSpec> iterator = install.iterator(); iterator.hasNext(); ) {
                         PluginSpec spec = iterator.next();
@@ -178,6 +200,7 @@ public @interface WithPlugins {
                         } catch (UnableToResolveDependencies | IOException ex) {
                             throw new AssumptionViolatedException("Unable to install required plugins", ex);
                         }
+                        snapshots.capture(controller, required, jenkins.getInstalledPlugins().getVersions());
                     }
                 }
             };
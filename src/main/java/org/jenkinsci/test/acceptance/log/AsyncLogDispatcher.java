@@ -0,0 +1,291 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decouples log producer from {@link LogListener}s so slow listeners do not back-pressure the producer.
+ *
+ * <p>
+ * Lines are passed through a bounded single-producer/single-consumer ring buffer and delivered to the target
+ * listener on a dedicated thread, which sleeps while the buffer is empty and is woken up by the next line. When the
+ * buffer is full, the producer waits for the consumer to catch up, or drops (and counts) the line if the dispatcher
+ * was created to do so. {@link #processClose(Exception)} is never dropped and terminates the dispatching thread once
+ * delivered. A {@link Flushable} target is flushed whenever the buffer runs empty, the same way {@link LogReader}
+ * flushes its listener when it runs out of input.
+ *
+ * <p>
+ * Only one thread is expected to feed the dispatcher, which is the case for {@link LogReader}.
+ */
+public class AsyncLogDispatcher implements LogListener {
+    /**
+     * Default number of lines the buffer can hold.
+     */
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static final long DRAIN_PARK = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LogListener target;
+    private final boolean dropOnOverflow;
+
+    private final Object[] ring;
+    private final int mask;
+
+    /**
+     * Sequence of the next slot to be written. Written by producer only.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Sequence of the next slot to be read. Written by consumer only.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long delivered;
+    private volatile boolean closed;
+    private volatile long maxBacklog;
+    private volatile long started;
+    private volatile long finished;
+
+    /**
+     * Set by the consumer before it sleeps on an empty buffer.
+     */
+    private volatile boolean consumerWaiting;
+    /**
+     * Set by the producer before it sleeps on a full buffer.
+     */
+    private volatile Thread producerWaiting;
+
+    private final Thread thread;
+
+    /**
+     * @param name
+     *      Name of the dispatching thread.
+     * @param target
+     *      Listener to deliver the lines to.
+     * @param capacity
+     *      Number of lines the buffer holds, rounded up to the power of two.
+     * @param dropOnOverflow
+     *      Drop the line when buffer is full instead of waiting for the consumer. Only for listeners that can do with
+     *      some of the lines.
+     */
+    public AsyncLogDispatcher(String name, LogListener target, int capacity, boolean dropOnOverflow) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.target = target;
+        this.dropOnOverflow = dropOnOverflow;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.ring = new Object[size];
+        this.mask = size - 1;
+
+        thread = new Thread(new Runnable() {
+            @Override public void run() {
+                dispatch();
+            }
+        }, name);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Dispatcher delivering every line, waiting for the consumer when the buffer is full.
+     */
+    public AsyncLogDispatcher(String name, LogListener target) {
+        this(name, target, DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Start delivering lines.
+     */
+    public AsyncLogDispatcher start() {
+        started = System.nanoTime();
+        thread.start();
+        return this;
+    }
+
+    @Override
+    public void processLine(String line) {
+        long h = head.get();
+        long backlog = h - tail.get();
+        if (backlog >= ring.length) {
+            if (dropOnOverflow) {
+                dropped.incrementAndGet();
+                return;
+            }
+            waitForSpace(h);
+        }
+        if (backlog > maxBacklog) {
+            maxBacklog = backlog;
+        }
+        publish(h, line);
+    }
+
+    @Override
+    public void processClose(Exception t) {
+        long h = head.get();
+        waitForSpace(h);
+        closed = true;
+        publish(h, new Close(t));
+    }
+
+    private void waitForSpace(long h) {
+        while (h - tail.get() >= ring.length) {
+            if (!thread.isAlive()) {
+                throw new IllegalStateException("Log dispatcher " + thread.getName() + " is not running");
+            }
+            producerWaiting = Thread.currentThread();
+            if (h - tail.get() >= ring.length) {
+                // Timed so a dead consumer is noticed
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            producerWaiting = null;
+        }
+    }
+
+    private void publish(long h, Object item) {
+        ring[(int) h & mask] = item;
+        head.set(h + 1); // Makes the slot visible to consumer, before checking whether it sleeps
+        if (consumerWaiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void dispatch() {
+        long t = tail.get();
+        boolean unflushed = false;
+        while (true) {
+            long h = head.get();
+            if (t == h) {
+                if (unflushed) {
+                    unflushed = false;
+                    flushTarget();
+                    continue; // More lines might have arrived meanwhile
+                }
+                consumerWaiting = true;
+                if (head.get() == t) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+                continue;
+            }
+
+            for (; t < h; t++) {
+                int i = (int) t & mask;
+                Object item = ring[i];
+                ring[i] = null;
+                tail.set(t + 1);
+                Thread producer = producerWaiting;
+                if (producer != null) {
+                    LockSupport.unpark(producer);
+                }
+
+                if (item instanceof Close) {
+                    finished = System.nanoTime();
+                    target.processClose(((Close) item).cause);
+                    if (dropped.get() > 0) {
+                        LOGGER.warning(thread.getName() + " was not able to keep up: " + getStats());
+                    }
+                    return;
+                }
+
+                try {
+                    target.processLine((String) item);
+                } catch (IOException|RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Log listener failed to process line", e);
+                }
+                delivered++; // Single writer
+                unflushed = true;
+            }
+        }
+    }
+
+    private void flushTarget() {
+        if (!(target instanceof Flushable)) return;
+        try {
+            ((Flushable) target).flush();
+        } catch (IOException|RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Log listener failed to flush", e);
+        }
+    }
+
+    /**
+     * Block until all lines received so far are delivered.
+     *
+     * @return false if the timeout elapsed before that.
+     */
+    public boolean drain(long timeout, TimeUnit unit) {
+        long target = getReceived();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (delivered < target) {
+            if (System.nanoTime() > deadline || !thread.isAlive()) return delivered >= target;
+            LockSupport.parkNanos(DRAIN_PARK);
+        }
+        return true;
+    }
+
+    /**
+     * Lines accepted into the buffer.
+     */
+    public long getReceived() {
+        return head.get() - (closed ? 1 : 0);
+    }
+
+    /**
+     * Lines passed to the target listener.
+     */
+    public long getDelivered() {
+        return delivered;
+    }
+
+    /**
+     * Lines dropped as the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Lines waiting in the buffer.
+     */
+    public long getBacklog() {
+        return getReceived() - getDelivered();
+    }
+
+    /**
+     * Largest backlog observed.
+     */
+    public long getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    /**
+     * Delivered lines per second since start.
+     */
+    public long getThroughput() {
+        if (started == 0) return 0;
+        long end = finished == 0 ? System.nanoTime() : finished;
+        long elapsed = Math.max(1, end - started);
+        return getDelivered() * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    public String getStats() {
+        return String.format(
+                "received=%d, delivered=%d, dropped=%d, backlog=%d, maxBacklog=%d, throughput=%d lines/s",
+                getReceived(), getDelivered(), getDropped(), getBacklog(), getMaxBacklog(), getThroughput()
+        );
+    }
+
+    private static final class Close {
+        private final Exception cause;
+
+        private Close(Exception cause) {
+            this.cause = cause;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncLogDispatcher.class.getName());
+}
@@ -0,0 +1,68 @@
+package org.jenkinsci.test.acceptance.log;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Date;
+import java.util.logging.Level;
+
+/**
+ * Single record parsed from Jenkins log by {@link JenkinsLogStore}.
+ *
+ * Lines Jenkins (or anything else in its JVM) writes to stdout bypassing <tt>java.util.logging</tt> are represented
+ * as {@link Level#INFO} records with no logger.
+ */
+public class JenkinsLogRecord {
+    private final long timestamp;
+    private final Level level;
+    private final String logger;
+    private final String message;
+    private final String stackTrace;
+
+    public JenkinsLogRecord(long timestamp, @Nonnull Level level, @CheckForNull String logger, @Nonnull String message, @CheckForNull String stackTrace) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.logger = logger;
+        this.message = message;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Time the record was received by the harness.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public @Nonnull Level getLevel() {
+        return level;
+    }
+
+    public @CheckForNull String getLogger() {
+        return logger;
+    }
+
+    public @Nonnull String getMessage() {
+        return message;
+    }
+
+    /**
+     * Lines following the message, typically a stack trace.
+     */
+    public @CheckForNull String getStackTrace() {
+        return stackTrace;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(new Date(timestamp)).append(' ').append(level);
+        if (logger != null) {
+            sb.append(' ').append(logger);
+        }
+        sb.append(": ").append(message);
+        if (stackTrace != null) {
+            sb.append('\n').append(stackTrace);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package org.jenkinsci.test.acceptance.log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.controller.JenkinsController;
+import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.jenkinsci.test.acceptance.junit.GlobalRule;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Attach Jenkins log written during the failed test to its diagnostics.
+ *
+ * Marks the test start in {@link JenkinsLogStore} so only the relevant part is attached when Jenkins serves more
+ * tests. <tt>jenkins.log</tt> holds the raw slice and <tt>jenkins-severe.log</tt> the SEVERE records logged since.
+ */
+@GlobalRule(priority = -1) // Mark the log before Jenkins is started, if running already
+public class JenkinsLogSliceRule extends TestWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(JenkinsLogSliceRule.class);
+
+    private final JenkinsController controller;
+    private final FailureDiagnostics diagnostics;
+
+    private JenkinsLogStore.Mark mark;
+
+    @Inject
+    public JenkinsLogSliceRule(JenkinsController controller, FailureDiagnostics diagnostics) {
+        this.controller = controller;
+        this.diagnostics = diagnostics;
+    }
+
+    @Override
+    protected void starting(Description description) {
+        JenkinsLogStore store = controller.getLogStore();
+        if (store != null) {
+            mark = store.mark(description.getDisplayName());
+        }
+        // Otherwise Jenkins is yet to be started so its whole log belongs to this test
+    }
+
+    @Override
+    protected void failed(Throwable e, Description description) {
+        JenkinsLogStore store = controller.getLogStore();
+        if (store == null) return;
+
+        try {
+            store.copySlice(mark, diagnostics.touch("jenkins.log"));
+
+            List<JenkinsLogRecord> severe = store.records(mark, Level.SEVERE);
+            if (!severe.isEmpty()) {
+                StringBuilder sb = new StringBuilder();
+                for (JenkinsLogRecord r: severe) {
+                    sb.append(r).append('\n');
+                }
+                diagnostics.write("jenkins-severe.log", sb.toString());
+            }
+        } catch (IOException ex) {
+            logger.warn("Unable to attach Jenkins log to diagnostics", ex);
+        }
+    }
+}
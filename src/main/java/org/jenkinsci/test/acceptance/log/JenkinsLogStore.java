@@ -0,0 +1,359 @@
+package org.jenkinsci.test.acceptance.log;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores Jenkins log in a file and indexes it by records.
+ *
+ * <p>
+ * Lines are written verbatim (UTF-8) to the log file so it stays readable by humans. In addition, the output is split
+ * into <tt>java.util.logging</tt> records, understanding both the classic two-line format and the single-line one
+ * used by newer Jenkins versions. For each record the byte offset, arrival time and level are kept in memory. Callers
+ * can {@link #mark(String)} test boundaries and later ask for records or raw log slices since a mark without rescanning
+ * the file.
+ *
+ * <p>
+ * Parsing costs more than writing the line, so the store is best fed through an {@link AsyncLogDispatcher} rather than
+ * from the thread reading the log. Such dispatcher is drained before {@link #mark(String) marking} so lines received
+ * before the mark do not end up after it.
+ *
+ * @see JenkinsLogRecord
+ */
+public class JenkinsLogStore implements LogListener, Flushable, Closeable {
+
+    // Oct 19, 2016 10:15:32 AM jenkins.InitReactorRunner$1 onAttained
+    private static final Pattern CLASSIC_HEADER = Pattern.compile(
+            "^\\w{3} \\d{1,2}, \\d{4} \\d{1,2}:\\d{2}:\\d{2} [AP]M (\\S+)(?: \\S+)?$"
+    );
+    // INFO: Started initialization
+    private static final Pattern CLASSIC_MESSAGE = Pattern.compile(
+            "^(SEVERE|WARNING|INFO|CONFIG|FINE|FINER|FINEST): (.*)$"
+    );
+    // 2016-10-19 10:15:32.123+0000 [id=1]	INFO	jenkins.InitReactorRunner$1#onAttained: Started initialization
+    private static final Pattern SINGLE_LINE = Pattern.compile(
+            "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d+\\S* \\[id=\\d+\\]\\t(\\w+)\\t([^\\s#:]+)(?:#\\S+)?: (.*)$"
+    );
+    // java.lang.IllegalStateException: Something went wrong
+    private static final Pattern EXCEPTION = Pattern.compile(
+            "^([a-zA-Z_$][\\w$]*\\.)+[\\w$]*(Exception|Error|Throwable)(: .*)?$"
+    );
+
+    private final File file;
+    private final OutputStream data;
+    private final @CheckForNull AsyncLogDispatcher dispatcher;
+
+    private long written;
+
+    // Index of all records, including the one still being written
+    private int size;
+    private long[] offsets = new long[1024];
+    private long[] times = new long[1024];
+    private int[] levels = new int[1024];
+
+    /**
+     * Classic header was seen, level line is expected.
+     */
+    private boolean awaitingLevel;
+
+    private final List<Mark> markList = new ArrayList<>();
+
+    private boolean closed;
+
+    public JenkinsLogStore(File file) throws IOException {
+        this(file, null);
+    }
+
+    /**
+     * @param dispatcher
+     *      Dispatcher the store is fed through, if any.
+     */
+    public JenkinsLogStore(File file, @CheckForNull AsyncLogDispatcher dispatcher) throws IOException {
+        this.file = file;
+        this.dispatcher = dispatcher;
+        this.data = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void processLine(String line) throws IOException {
+        long offset = written;
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        data.write(bytes);
+        data.write('\n');
+        written += bytes.length + 1;
+
+        if (awaitingLevel) {
+            awaitingLevel = false;
+            Matcher m = CLASSIC_MESSAGE.matcher(line);
+            if (m.matches()) {
+                levels[size - 1] = Level.parse(m.group(1)).intValue();
+                return;
+            }
+        }
+
+        if (CLASSIC_HEADER.matcher(line).matches()) {
+            startRecord(offset, Level.INFO);
+            awaitingLevel = true;
+            return;
+        }
+
+        Matcher m = SINGLE_LINE.matcher(line);
+        if (m.matches()) {
+            startRecord(offset, parseLevel(m.group(1)));
+            return;
+        }
+
+        if (size == 0 || !isContinuation(line)) {
+            // Plain stdout output
+            startRecord(offset, Level.INFO);
+        }
+    }
+
+    private static boolean isContinuation(String line) {
+        return line.isEmpty() || Character.isWhitespace(line.charAt(0)) || EXCEPTION.matcher(line).matches()
+                || line.startsWith("Caused: ") || line.startsWith("Caused by: ") || line.startsWith("...")
+                || line.startsWith("Also: ")
+        ;
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.parse(name);
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    private void startRecord(long offset, Level level) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            times = Arrays.copyOf(times, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+        }
+        offsets[size] = offset;
+        times[size] = System.currentTimeMillis();
+        levels[size] = level.intValue();
+        size++;
+    }
+
+    /**
+     * Remember current position in the log, typically a start of the test.
+     */
+    public @Nonnull Mark mark(@Nonnull String name) {
+        // Not holding the lock, the dispatcher delivers to this store
+        if (dispatcher != null) {
+            dispatcher.drain(10, TimeUnit.SECONDS);
+        }
+        synchronized (this) {
+            Mark mark = new Mark(this, name, size, written, System.currentTimeMillis());
+            markList.add(mark);
+            return mark;
+        }
+    }
+
+    /**
+     * Last mark of a given name.
+     */
+    public synchronized @CheckForNull Mark getMark(@Nonnull String name) {
+        for (int i = markList.size() - 1; i >= 0; i--) {
+            Mark mark = markList.get(i);
+            if (mark.name.equals(name)) return mark;
+        }
+        return null;
+    }
+
+    /**
+     * Records received since the mark, at least as severe as given level.
+     */
+    public synchronized @Nonnull List<JenkinsLogRecord> records(@CheckForNull Mark since, @Nonnull Level level) throws IOException {
+        return read(isOwn(since) ? since.record : 0, size, level);
+    }
+
+    /**
+     * Records received in a time range, at least as severe as given level.
+     */
+    public synchronized @Nonnull List<JenkinsLogRecord> records(long fromMillis, long toMillis, @Nonnull Level level) throws IOException {
+        return read(firstAfter(fromMillis), firstAfter(toMillis + 1), level);
+    }
+
+    /**
+     * Marks from other stores (Jenkins restarted in the meantime) are treated as the beginning of this one.
+     */
+    private boolean isOwn(@CheckForNull Mark mark) {
+        return mark != null && mark.store == this;
+    }
+
+    /**
+     * Number of records received so far.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Binary search the first record that arrived on or after given time.
+     */
+    private int firstAfter(long millis) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private List<JenkinsLogRecord> read(int from, int to, Level level) throws IOException {
+        if (from >= to) return Collections.emptyList();
+        flush();
+
+        int threshold = level.intValue();
+        List<JenkinsLogRecord> ret = new ArrayList<>();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (int i = from; i < to; i++) {
+                if (levels[i] < threshold) continue;
+
+                long end = i + 1 < size ? offsets[i + 1] : written;
+                byte[] bytes = new byte[(int) (end - offsets[i])];
+                raf.seek(offsets[i]);
+                raf.readFully(bytes);
+                ret.add(parse(new String(bytes, StandardCharsets.UTF_8), times[i], levels[i]));
+            }
+        }
+        return ret;
+    }
+
+    private static JenkinsLogRecord parse(String text, long time, int levelValue) {
+        String[] lines = text.split("\n");
+        Level level = Level.parse(Integer.toString(levelValue));
+        String logger = null;
+        String message = lines[0];
+        int next = 1;
+
+        Matcher m = CLASSIC_HEADER.matcher(lines[0]);
+        if (m.matches()) {
+            logger = m.group(1);
+            message = "";
+            if (lines.length > 1) {
+                Matcher mm = CLASSIC_MESSAGE.matcher(lines[1]);
+                if (mm.matches()) {
+                    message = mm.group(2);
+                    next = 2;
+                }
+            }
+        } else {
+            m = SINGLE_LINE.matcher(lines[0]);
+            if (m.matches()) {
+                logger = m.group(2);
+                message = m.group(3);
+            }
+        }
+
+        String stackTrace = null;
+        if (next < lines.length) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = next; i < lines.length; i++) {
+                if (i > next) sb.append('\n');
+                sb.append(lines[i]);
+            }
+            stackTrace = sb.toString();
+        }
+        return new JenkinsLogRecord(time, level, logger, message, stackTrace);
+    }
+
+    /**
+     * Copy raw log since the mark to a file.
+     */
+    public synchronized void copySlice(@CheckForNull Mark since, @Nonnull File target) throws IOException {
+        flush();
+        long from = isOwn(since) ? since.offset : 0;
+        try (
+                FileChannel in = new RandomAccessFile(file, "r").getChannel();
+                FileChannel out = new FileOutputStream(target).getChannel()
+        ) {
+            long position = from;
+            while (position < written) {
+                position += in.transferTo(position, written - position, out);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        data.flush();
+    }
+
+    @Override
+    public synchronized void processClose(Exception t) {
+        try {
+            close();
+        } catch (IOException e) {
+            // Nothing to do about it
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        data.close();
+    }
+
+    /**
+     * Position in the log.
+     */
+    public static final class Mark {
+        private final JenkinsLogStore store;
+        private final String name;
+        private final int record;
+        private final long offset;
+        private final long time;
+
+        private Mark(JenkinsLogStore store, String name, int record, long offset, long time) {
+            this.store = store;
+            this.name = name;
+            this.record = record;
+            this.offset = offset;
+            this.time = time;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return "Mark " + name + " at record " + record;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.jenkinsci.test.acceptance.log;
 
 import java.io.BufferedReader;
+import java.io.Flushable;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.http.concurrent.BasicFuture;
@@ -42,17 +44,28 @@ public class LogReader implements Runnable {
     @Override
     public void run() {
         String line;
+        Exception cause = null;
         try {
-            BufferedReader reader = new BufferedReader(new InputStreamReader(source));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(source), 64 * 1024);
             while ((line = reader.readLine()) != null) {
                 listener.processLine(line);
+                // Flush buffering listeners only when about to block on input
+                if (listener instanceof Flushable && !reader.ready()) {
+                    ((Flushable) listener).flush();
+                }
             }
             LOGGER.info("Jenkins is stopped");
         } catch (Exception e) {
-            listener.processClose(new Exception("Process has terminated", e));
+            cause = new Exception("Process has terminated", e);
             done.failed(e);
         } finally {
-            listener.processClose(null);
+            // Delivered exactly once so asynchronous listeners know when to stop
+            try {
+                listener.processClose(cause);
+            } catch (RuntimeException e) {
+                // Such as a dispatcher that is no longer running, waiting threads still need to be released
+                LOGGER.log(Level.WARNING, "Log listener failed to close", e);
+            }
             done.completed(null);
         }
     }
@@ -1,5 +1,6 @@
 package org.jenkinsci.test.acceptance.log;
 
+import java.io.Flushable;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -9,7 +10,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  *
  * @author Kohsuke Kawaguchi
  */
-public class LogSplitter implements LogListenable, LogListener {
+public class LogSplitter implements LogListenable, LogListener, Flushable {
     private final List<LogListener> listeners = new CopyOnWriteArrayList<>();
 
     @Override
@@ -33,6 +34,18 @@ public class LogSplitter implements LogListenable, LogListener {
         }
     }
 
+    /**
+     * Flush all listeners that buffer their output.
+     */
+    @Override
+    public void flush() throws IOException {
+        for (LogListener l : listeners) {
+            if (l instanceof Flushable) {
+                ((Flushable) l).flush();
+            }
+        }
+    }
+
     @Override
     public void processClose(Exception t) {
         for (LogListener l : listeners) {
@@ -0,0 +1,84 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshConnectionPool;
+import org.jenkinsci.test.acceptance.docker.fixtures.JavaContainer;
+
+import java.io.IOException;
+import java.util.EmptyStackException;
+import java.util.Stack;
+
+/**
+ * {@link Machine} backed by a local docker container running sshd.
+ *
+ * Closing the machine removes the container.
+ */
+public class DockerMachine implements Machine {
+
+    private final DockerMachineProvider machineProvider;
+
+    private final JavaContainer container;
+
+    private final String dir;
+
+    private final Stack<Integer> availablePorts = new Stack<>();
+
+    /*package*/ DockerMachine(DockerMachineProvider machineProvider, JavaContainer container, String dir) {
+        this.machineProvider = machineProvider;
+        this.container = container;
+        this.dir = dir;
+        for (int port : machineProvider.getAvailableInboundPorts()) {
+            availablePorts.push(port);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return container.getCid();
+    }
+
+    @Override
+    public Ssh connect() {
+        try {
+            return Ssh.connect(getPublicIpAddress(), machineProvider.authenticator());
+        } catch (IOException e) {
+            throw new AssertionError("Failed to create ssh connection", e);
+        }
+    }
+
+    @Override
+    public String getPublicIpAddress() {
+        return container.getIpAddress();
+    }
+
+    @Override
+    public String getUser() {
+        return DockerMachineProvider.USER;
+    }
+
+    @Override
+    public String dir() {
+        return dir;
+    }
+
+    @Override
+    public int getNextAvailablePort() {
+        try {
+            return availablePorts.pop();
+        } catch (EmptyStackException e) {
+            throw new AssertionError("No more free inbound ports", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        machineProvider.release(this);
+        SshConnectionPool.get().evict(getPublicIpAddress());
+        container.close();
+    }
+
+    @Override
+    public String toString() {
+        return "DockerMachine " + getId() + " at " + getPublicIpAddress();
+    }
+}
@@ -0,0 +1,227 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import org.jenkinsci.test.acceptance.Authenticator;
+import org.jenkinsci.test.acceptance.PublicKeyAuthenticator;
+import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshKeyPair;
+import org.jenkinsci.test.acceptance.docker.Docker;
+import org.jenkinsci.test.acceptance.docker.fixtures.JavaContainer;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Provides {@link Machine}s as local docker containers running sshd.
+ *
+ * <p>
+ * This lets {@link org.jenkinsci.test.acceptance.controller.RemoteJenkinsController} and the ssh based slave providers
+ * run on a single computer, without a cloud account. Containers are reached on their own IP address, so docker needs
+ * to run locally. A container is ready once its sshd answers, which is {@linkplain SshProbe probed} rather than waited
+ * for. A standby pool of <tt>dockerMachinePoolSize</tt> containers, 1 by default, is started in the background so the
+ * next machine is ready when asked for. Provisioning latency is logged per machine and summarized on exit.
+ *
+ * <pre>
+ *     bind MachineProvider to DockerMachineProvider
+ * </pre>
+ */
+@Singleton
+public class DockerMachineProvider implements MachineProvider, Closeable {
+    /*package*/ static final String USER = "test";
+    private static final String PASSWORD = "test";
+    private static final String DIR = "/home/" + USER + "/machine/";
+
+    private final Docker docker;
+    private final SshKeyPair keyPair;
+    private final Authenticator authenticator;
+    private final int[] inboundPorts = new int[1000];
+
+    @Inject(optional = true)
+    @Named("dockerMachinePoolSize")
+    private int poolSize = 1;
+
+    @Inject(optional = true)
+    @Named("dockerMachineReadyTimeout")
+    private int readyTimeout = 60;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("Docker machine provisioning %d").setDaemon(true).build()
+    );
+    private final BlockingDeque<Future<DockerMachine>> standby = new LinkedBlockingDeque<>();
+    private final Set<DockerMachine> machines = Collections.newSetFromMap(new ConcurrentHashMap<DockerMachine, Boolean>());
+
+    private final AtomicInteger provisioned = new AtomicInteger();
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger servedWarm = new AtomicInteger();
+    private final AtomicLong readyMillis = new AtomicLong();
+    private final AtomicLong waitedMillis = new AtomicLong();
+
+    @Inject
+    public DockerMachineProvider(Docker docker, SshKeyPair keyPair, WorldCleaner cleaner) {
+        this.docker = docker;
+        this.keyPair = keyPair;
+        this.authenticator = new PublicKeyAuthenticator(USER, keyPair);
+        for (int i = 0; i < inboundPorts.length; i++) {
+            inboundPorts[i] = 20000 + i;
+        }
+        cleaner.addTask(this);
+    }
+
+    @Override
+    public int[] getAvailableInboundPorts() {
+        return inboundPorts.clone();
+    }
+
+    @Override
+    public Authenticator authenticator() {
+        return authenticator;
+    }
+
+    @Override
+    public Machine get() {
+        if (!docker.isAvailable()) {
+            throw new AssertionError("DockerMachineProvider needs docker to be available");
+        }
+
+        long start = System.currentTimeMillis();
+        replenish();
+        Future<DockerMachine> f = standby.poll();
+        boolean warm = f != null && f.isDone();
+        DockerMachine machine;
+        try {
+            try {
+                machine = f != null ? f.get() : provision();
+            } catch (ExecutionException e) {
+                logger.warn("Standby docker machine failed to start, starting another one", e.getCause());
+                machine = provision();
+            }
+        } catch (IOException | TimeoutException e) {
+            throw new AssertionError("Failed to provision docker machine", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted provisioning docker machine", e);
+        } finally {
+            replenish();
+        }
+
+        long waited = System.currentTimeMillis() - start;
+        served.incrementAndGet();
+        waitedMillis.addAndGet(waited);
+        if (warm) {
+            servedWarm.incrementAndGet();
+        }
+        logger.info("Provided {} in {} ms ({})", machine, waited, warm ? "warm" : "cold");
+        return machine;
+    }
+
+    /**
+     * Start containers in the background until the standby pool is full.
+     */
+    private synchronized void replenish() {
+        while (standby.size() < poolSize && !executor.isShutdown()) {
+            standby.add(executor.submit(new Callable<DockerMachine>() {
+                @Override public DockerMachine call() throws Exception {
+                    return provision();
+                }
+            }));
+        }
+    }
+
+    private DockerMachine provision() throws IOException, InterruptedException, TimeoutException {
+        long start = System.currentTimeMillis();
+        File buildlog = File.createTempFile("docker-machine", ".build.log");
+        File runlog = File.createTempFile("docker-machine", ".run.log");
+        JavaContainer container = docker.build(JavaContainer.class, buildlog).start(JavaContainer.class).withLog(runlog).start();
+        try {
+            String host = container.getIpAddress();
+            long probed = SshProbe.await(host, 22, TimeUnit.SECONDS.toMillis(readyTimeout));
+            installKey(host);
+
+            DockerMachine machine = new DockerMachine(this, container, DIR);
+            machines.add(machine);
+            long ready = System.currentTimeMillis() - start;
+            provisioned.incrementAndGet();
+            readyMillis.addAndGet(ready);
+            logger.info("Started {} in {} ms, sshd answered after {} ms", machine, ready, probed);
+            return machine;
+        } catch (IOException | InterruptedException | TimeoutException | RuntimeException e) {
+            container.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Authorize our key, so the machine is accessed just like any other.
+     */
+    private void installKey(String host) throws IOException {
+        try (Ssh ssh = new Ssh(host)) {
+            if (!ssh.getConnection().authenticateWithPassword(USER, PASSWORD)) {
+                throw new IOException("Unable to authenticate to " + host + " as " + USER);
+            }
+            String cmd = String.format(
+                    "mkdir -p ~/.ssh %s && chmod 700 ~/.ssh && echo %s >> ~/.ssh/authorized_keys && chmod 600 ~/.ssh/authorized_keys",
+                    DIR, Ssh.escape(keyPair.readPublicKey().trim())
+            );
+            if (ssh.executeRemoteCommand(cmd) != 0) {
+                throw new IOException("Unable to install public key on " + host);
+            }
+        }
+    }
+
+    /*package*/ void release(DockerMachine machine) {
+        machines.remove(machine);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+
+        List<Future<DockerMachine>> pending = new ArrayList<>();
+        standby.drainTo(pending);
+        for (Future<DockerMachine> f : pending) {
+            try {
+                f.get().close();
+            } catch (ExecutionException e) {
+                // Failed to start, nothing to clean
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (DockerMachine machine : new ArrayList<>(machines)) {
+            machine.close();
+        }
+
+        int count = served.get();
+        if (count > 0) {
+            logger.info("Provided {} docker machines ({} warm), waited {} ms on average, each took {} ms on average to start",
+                    count, servedWarm.get(), waitedMillis.get() / count, readyMillis.get() / Math.max(1, provisioned.get())
+            );
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DockerMachineProvider.class);
+}
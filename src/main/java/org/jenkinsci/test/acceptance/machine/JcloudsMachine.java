@@ -2,6 +2,7 @@ package org.jenkinsci.test.acceptance.machine;
 
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshConnectionPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,15 +50,9 @@ public class JcloudsMachine implements Machine {
 
     @Override
     public Ssh connect() {
-        Ssh ssh = null;
         try {
-            ssh = new Ssh(getPublicIpAddress());
-            machineProvider.authenticator().authenticate(ssh.getConnection());
-            return ssh;
+            return Ssh.connect(getPublicIpAddress(), machineProvider.authenticator());
         } catch (IOException e) {
-            if (ssh != null) {
-                ssh.close();
-            }
             throw new AssertionError("Failed to create ssh connection", e);
         }
     }
@@ -96,6 +91,8 @@ public class JcloudsMachine implements Machine {
             //ignore
             logger.error(e.getMessage());
         }
+        // Killed along with the user processes
+        SshConnectionPool.get().evict(getPublicIpAddress());
         machineProvider.offer(this);
     }
 
@@ -278,6 +278,15 @@ public abstract class JcloudsMachineProvider implements MachineProvider,Closeabl
     private void waitForSsh(String user, String host){
         int timeout = 120000; //2 minute
         long startTime = System.currentTimeMillis();
+        try {
+            // Do not sleep while sshd is not even listening
+            SshProbe.await(host, 22, timeout);
+        } catch (TimeoutException e) {
+            throw new RuntimeException(String.format("ssh failed to work within %s seconds.",timeout/1000), e);
+        } catch (InterruptedException e) {
+            logger.error(e.getMessage(), e);
+            return;
+        }
         while(true){
             logger.info(String.format("Making sure sshd is up on host: %s ",host));
             try {
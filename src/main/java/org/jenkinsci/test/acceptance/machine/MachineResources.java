@@ -0,0 +1,58 @@
+package org.jenkinsci.test.acceptance.machine;
+
+/**
+ * Resources a tenant of a {@link MultitenancyMachineProvider} asks for, or a raw machine offers.
+ *
+ * CPU is counted in cores, memory in megabytes and ports in the number of inbound ports taken from the machine.
+ */
+public final class MachineResources {
+    /**
+     * A Jenkins instance, taking a HTTP and a control port.
+     */
+    public static final MachineResources DEFAULT_TENANT = new MachineResources(1, 1024, 2);
+
+    public static final MachineResources NONE = new MachineResources(0, 0, 0);
+
+    public final int cpus;
+    public final int memory;
+    public final int ports;
+
+    public MachineResources(int cpus, int memory, int ports) {
+        if (cpus < 0 || memory < 0 || ports < 0) {
+            throw new IllegalArgumentException(String.format("Negative resources: %d cpus, %d MB, %d ports", cpus, memory, ports));
+        }
+        this.cpus = cpus;
+        this.memory = memory;
+        this.ports = ports;
+    }
+
+    public boolean fits(MachineResources request) {
+        return request.cpus <= cpus && request.memory <= memory && request.ports <= ports;
+    }
+
+    public MachineResources plus(MachineResources other) {
+        return new MachineResources(cpus + other.cpus, memory + other.memory, ports + other.ports);
+    }
+
+    public MachineResources minus(MachineResources other) {
+        return new MachineResources(cpus - other.cpus, memory - other.memory, ports - other.ports);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MachineResources)) return false;
+        MachineResources that = (MachineResources) o;
+        return cpus == that.cpus && memory == that.memory && ports == that.ports;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * cpus + memory) + ports;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d cpus, %d MB, %d ports", cpus, memory, ports);
+    }
+}
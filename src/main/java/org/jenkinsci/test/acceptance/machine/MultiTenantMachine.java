@@ -4,6 +4,8 @@ import com.google.inject.Inject;
 import org.jenkinsci.test.acceptance.Ssh;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Vivek Pandey
@@ -14,11 +16,18 @@ public class MultiTenantMachine implements Machine {
     private final String dir;
     private final String id;
     private final MultitenancyMachineProvider provider;
+    private final MachineResources request;
+    private final List<Integer> ports = new ArrayList<>();
 
     @Inject
     public MultiTenantMachine(MultitenancyMachineProvider provider, Machine machine) {
+        this(provider, machine, MachineResources.DEFAULT_TENANT);
+    }
+
+    /*package*/ MultiTenantMachine(MultitenancyMachineProvider provider, Machine machine, MachineResources request) {
         this.base = machine;
         this.provider = provider;
+        this.request = request;
         String mtSuffix = String.format("mt_%s", JcloudsMachine.newDirSuffix());
         this.dir = String.format("%s%s/",machine.dir(), mtSuffix);
         try (Ssh ssh = connect()) {
@@ -56,9 +65,28 @@ public class MultiTenantMachine implements Machine {
         return base;
     }
 
+    /**
+     * Resources this tenant occupies on its base machine.
+     */
+    public MachineResources request() {
+        return request;
+    }
+
+    /**
+     * Inbound ports of the base machine taken by this tenant.
+     */
+    /*package*/ synchronized List<Integer> ports() {
+        return new ArrayList<>(ports);
+    }
+
+    /**
+     * Shared with other tenants of the base machine, so handed out by the provider.
+     */
     @Override
-    public int getNextAvailablePort() {
-        return base.getNextAvailablePort();
+    public synchronized int getNextAvailablePort() {
+        int port = provider.takePort(base);
+        ports.add(port);
+        return port;
     }
 
     @Override
@@ -8,13 +8,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Multi-tenancy can be done as a filter.
  *
+ * <p>
+ * Each tenant declares the {@link MachineResources} it needs, {@link MachineResources#DEFAULT_TENANT} unless
+ * {@linkplain #get(MachineResources) given}. Tenants are packed on raw machines by best fit, a new raw machine is
+ * acquired only when none of them has room left. Raw machines offer <tt>mtMachineCpus</tt> cores and
+ * <tt>mtMachineMemory</tt> MB, enough for <tt>maxMtMachines</tt> default tenants unless configured, the inbound ports
+ * of the base provider and at most <tt>maxMtMachines</tt> tenants. Inbound ports of a raw machine are handed out to its
+ * tenants from here, and returned when the tenant is released.
+ *
  * @author Kohsuke Kawaguchi
  * @author Vivek Pandey
  */
@@ -27,55 +37,106 @@ public class MultitenancyMachineProvider implements MachineProvider {
     @Named("maxMtMachines")
     private int max = 10;
 
-    private int cur = 0;
+    @Inject(optional = true)
+    @Named("mtMachineCpus")
+    private int cpus = 0;
 
+    @Inject(optional = true)
+    @Named("mtMachineMemory")
+    private int memory = 0;
 
-    private final Map<String,AtomicInteger> machineReferences = new ConcurrentHashMap<>();
-    private final Map<String,Machine> machineMap = new ConcurrentHashMap<>();
+    private final TenantPlacement<Machine> placement = new TenantPlacement<>();
+    private final Map<String,TenantPlacement.Host<Machine>> hosts = new ConcurrentHashMap<>();
+    private final Map<String,Deque<Integer>> ports = new ConcurrentHashMap<>();
 
-    private volatile Machine machine;
+    /**
+     * Raw machine acquired up front, not yet known to the placement as its capacity depends on the configuration.
+     */
+    private final AtomicReference<Machine> initial;
 
     @Inject
     public MultitenancyMachineProvider(@Named("raw") MachineProvider base) {
         logger.info("Initializing Mt Machine Provider...");
         this.base = base;
-        this.machine = this.base.get();
-        machineMap.put(machine.getId(),machine);
+        this.initial = new AtomicReference<>(this.base.get());
     }
 
     @Override
-    public synchronized Machine get() {
-        logger.info(String.format("Base machine: %s, MT capacity: %s, taken: %s",machine.getPublicIpAddress(),max,cur));
-        if (cur++==max) {
-            boolean foundExisting = false;
-            //Lets look for available machine, if other machine has available counts, lets use that
-            for(String id : machineReferences.keySet()){
-                if(machineReferences.get(id).get() < max){
-                    if(machineMap.get(id) == null){
-                        throw new IllegalStateException("No raw machine found in MT machine provider for id: "+id);
-                    }
-                    machine = machineMap.get(id);
-                    foundExisting = true;
-                    break;
-                }
-            }
-            if(!foundExisting){
-                logger.info(String.format("Max MT machine limit %s reached Getting new Machine instance...",max));
-                machine = base.get();
-                machineMap.put(machine.getId(),machine);
-                cur=0;
-            }
+    public Machine get() {
+        return get(MachineResources.DEFAULT_TENANT);
+    }
+
+    /**
+     * Get a machine for a tenant that needs given resources.
+     */
+    public MultiTenantMachine get(MachineResources request) {
+        MachineResources capacity = capacity();
+        if (!capacity.fits(request)) {
+            throw new IllegalArgumentException(String.format("Tenant needing %s does not fit raw machine with %s", request, capacity));
+        }
+
+        Machine idle = initial.getAndSet(null);
+        if (idle != null) {
+            register(idle, capacity, null);
         }
+
+        TenantPlacement.Host<Machine> host = placement.allocate(request);
+        if (host == null) {
+            logger.info(String.format("No raw machine has room for tenant needing %s, getting new Machine instance...", request));
+            host = register(base.get(), capacity, request);
+        }
+
         logger.info("Creating new MT machine...");
-        MultiTenantMachine m = new MultiTenantMachine(this,machine);
-        if(machineReferences.get(machine.getId()) != null){
-            machineReferences.get(machine.getId()).incrementAndGet();
-        }else{
-            machineReferences.put(machine.getId(),new AtomicInteger(1));
+        MultiTenantMachine m;
+        try {
+            m = new MultiTenantMachine(this, host.handle(), request);
+        } catch (RuntimeException | Error e) {
+            try {
+                release(host, request);
+            } catch (IOException x) {
+                e.addSuppressed(x);
+            }
+            throw e;
         }
+        logger.info(String.format("MT machine %s placed on %s; %s", m.getId(), host, placement.stats()));
         return m;
     }
 
+    private MachineResources capacity() {
+        return new MachineResources(
+                cpus > 0 ? cpus : max * MachineResources.DEFAULT_TENANT.cpus,
+                memory > 0 ? memory : max * MachineResources.DEFAULT_TENANT.memory,
+                base.getAvailableInboundPorts().length
+        );
+    }
+
+    private TenantPlacement.Host<Machine> register(Machine machine, MachineResources capacity, MachineResources first) {
+        Deque<Integer> free = new ArrayDeque<>();
+        for (int port : base.getAvailableInboundPorts()) {
+            free.push(port);
+        }
+        ports.put(machine.getId(), free);
+        TenantPlacement.Host<Machine> host = placement.add(machine, capacity, max, first);
+        hosts.put(machine.getId(), host);
+        return host;
+    }
+
+    /**
+     * Take a free inbound port of the raw machine, for one of its tenants.
+     */
+    /*package*/ int takePort(Machine raw) {
+        Deque<Integer> free = ports.get(raw.getId());
+        if (free == null) {
+            // Not placed by this provider
+            return raw.getNextAvailablePort();
+        }
+        synchronized (free) {
+            Integer port = free.poll();
+            if (port == null) throw new AssertionError("No more free inbound ports on " + raw.getId());
+            return port;
+        }
+    }
+
     @Override
     public int[] getAvailableInboundPorts() {
         return base.getAvailableInboundPorts();
@@ -87,17 +148,28 @@ public class MultitenancyMachineProvider implements MachineProvider {
     }
 
 
-    public synchronized void offer(MultiTenantMachine m) throws IOException {
+    public void offer(MultiTenantMachine m) throws IOException {
         logger.info(String.format("MT machine %s offered, will be recycled",m.getId()));
-        AtomicInteger counter = machineReferences.get(m.baseMachine().getId());
-        if(counter == null){
+        TenantPlacement.Host<Machine> host = hosts.get(m.baseMachine().getId());
+        if(host == null){
             throw new IllegalStateException(String.format("No raw machine found for MT machine: %s",m.getId()));
         }
-        int remaining = counter.decrementAndGet();
-        if(remaining == 0){
-            m.baseMachine().close();
-            machineReferences.remove(m.getId());
-            machineMap.remove(m.getId());
+        Deque<Integer> free = ports.get(m.baseMachine().getId());
+        if (free != null) {
+            synchronized (free) {
+                for (int port : m.ports()) {
+                    free.push(port);
+                }
+            }
+        }
+        release(host, m.request());
+    }
+
+    private void release(TenantPlacement.Host<Machine> host, MachineResources request) throws IOException {
+        if (placement.release(host, request)) {
+            hosts.remove(host.handle().getId());
+            ports.remove(host.handle().getId());
+            host.handle().close();
         }
     }
 
@@ -54,16 +54,10 @@ public class SimpleMachine implements Machine {
 
     @Override
     public Ssh connect() {
-        Ssh ssh = null;
         try {
-            ssh = new Ssh(getPublicIpAddress());
-            machineProvider.authenticator().authenticate(ssh.getConnection());
-            return ssh;
+            return Ssh.connect(getPublicIpAddress(), machineProvider.authenticator());
         } catch (IOException e) {
-            if (ssh != null) {
-                ssh.close();
-            }
-            throw new AssertionError("Failed to create ssh connection",e);
+            throw new AssertionError("Failed to create ssh connection", e);
         }
     }
 
@@ -0,0 +1,60 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Detects sshd is ready by probing its port rather than sleeping.
+ *
+ * <p>
+ * An open port is not enough as proxies, like the one forwarding ports of docker containers, accept connections
+ * before anything listens behind them. sshd is ready once it sends its identification string.
+ */
+/*package*/ final class SshProbe {
+    private static final int ATTEMPT_TIMEOUT = 1000;
+    private static final int MAX_BACKOFF = 1000;
+
+    private SshProbe() {}
+
+    /**
+     * Wait for sshd to start responding.
+     *
+     * @return Milliseconds waited.
+     */
+    /*package*/ static long await(String host, int port, long timeoutMillis) throws TimeoutException, InterruptedException {
+        long start = System.currentTimeMillis();
+        long backoff = 50;
+        while (true) {
+            if (isReady(host, port)) {
+                return System.currentTimeMillis() - start;
+            }
+            if (System.currentTimeMillis() - start > timeoutMillis) {
+                throw new TimeoutException(String.format("sshd on %s:%d not ready within %d ms", host, port, timeoutMillis));
+            }
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+    }
+
+    /*package*/ static boolean isReady(String host, int port) {
+        try (Socket s = new Socket()) {
+            s.connect(new InetSocketAddress(host, port), ATTEMPT_TIMEOUT);
+            s.setSoTimeout(ATTEMPT_TIMEOUT);
+            byte[] banner = new byte[4];
+            InputStream in = s.getInputStream();
+            int read = 0;
+            while (read < banner.length) {
+                int r = in.read(banner, read, banner.length - read);
+                if (r < 0) return false;
+                read += r;
+            }
+            return "SSH-".equals(new String(banner, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import javax.annotation.CheckForNull;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Places tenants on hosts by their {@link MachineResources}, best fit first.
+ *
+ * <p>
+ * A tenant goes to the host with the least capacity left after placing it, so hosts fill up one by one and large
+ * requests still find room. Allocation and release never block: usage of each host is swapped atomically and a
+ * placement that lost a race with another thread is simply retried. A host whose last tenant leaves is retired, so
+ * it can be disposed of.
+ *
+ * @param <H> Host handle.
+ */
+/*package*/ final class TenantPlacement<H> {
+
+    /*package*/ static final class Host<H> {
+        private final H handle;
+        private final MachineResources capacity;
+        private final int maxTenants;
+        private final AtomicReference<Usage> usage;
+
+        private Host(H handle, MachineResources capacity, int maxTenants, Usage usage) {
+            this.handle = handle;
+            this.capacity = capacity;
+            this.maxTenants = maxTenants;
+            this.usage = new AtomicReference<>(usage);
+        }
+
+        /*package*/ H handle() {
+            return handle;
+        }
+
+        /*package*/ MachineResources capacity() {
+            return capacity;
+        }
+
+        /*package*/ MachineResources used() {
+            return usage.get().used;
+        }
+
+        /*package*/ int tenants() {
+            return usage.get().tenants;
+        }
+
+        /*package*/ boolean isRetired() {
+            return usage.get().retired;
+        }
+
+        private boolean canHold(Usage u, MachineResources request) {
+            return !u.retired && u.tenants < maxTenants && capacity.minus(u.used).fits(request);
+        }
+
+        /**
+         * Fraction of the host left unused after placing the request, summed over all resources.
+         */
+        private double slack(Usage u, MachineResources request) {
+            MachineResources after = u.used.plus(request);
+            return free(capacity.cpus, after.cpus)
+                    + free(capacity.memory, after.memory)
+                    + free(capacity.ports, after.ports)
+                    + free(maxTenants, u.tenants + 1);
+        }
+
+        private static double free(int capacity, int used) {
+            return capacity == 0 ? 0 : (capacity - used) / (double) capacity;
+        }
+
+        @Override
+        public String toString() {
+            Usage u = usage.get();
+            return String.format("%s (%d tenants, %s of %s used)", handle, u.tenants, u.used, capacity);
+        }
+    }
+
+    private static final class Usage {
+        private static final Usage EMPTY = new Usage(MachineResources.NONE, 0, false);
+        private static final Usage RETIRED = new Usage(MachineResources.NONE, 0, true);
+
+        private final MachineResources used;
+        private final int tenants;
+        private final boolean retired;
+
+        private Usage(MachineResources used, int tenants, boolean retired) {
+            this.used = used;
+            this.tenants = tenants;
+            this.retired = retired;
+        }
+    }
+
+    private final List<Host<H>> hosts = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong unplaceable = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+
+    /**
+     * Add a host, optionally with its first tenant already placed so no other thread can take its place.
+     */
+    /*package*/ Host<H> add(H handle, MachineResources capacity, int maxTenants, @CheckForNull MachineResources first) {
+        Usage usage = Usage.EMPTY;
+        if (first != null) {
+            if (maxTenants < 1 || !capacity.fits(first)) {
+                throw new IllegalArgumentException(String.format("Tenant needing %s does not fit %s", first, capacity));
+            }
+            usage = new Usage(first, 1, false);
+            placed.incrementAndGet();
+        }
+        Host<H> host = new Host<>(handle, capacity, maxTenants, usage);
+        hosts.add(host);
+        added.incrementAndGet();
+        return host;
+    }
+
+    /**
+     * Place a tenant on the best fitting host.
+     *
+     * @return null if no host has room for it.
+     */
+    /*package*/ @CheckForNull Host<H> allocate(MachineResources request) {
+        while (true) {
+            Host<H> best = null;
+            Usage bestUsage = null;
+            double bestSlack = Double.MAX_VALUE;
+            for (Host<H> host : hosts) {
+                Usage u = host.usage.get();
+                if (!host.canHold(u, request)) continue;
+                double slack = host.slack(u, request);
+                if (slack < bestSlack) {
+                    best = host;
+                    bestUsage = u;
+                    bestSlack = slack;
+                }
+            }
+
+            if (best == null) {
+                unplaceable.incrementAndGet();
+                return null;
+            }
+            if (best.usage.compareAndSet(bestUsage, new Usage(bestUsage.used.plus(request), bestUsage.tenants + 1, false))) {
+                placed.incrementAndGet();
+                return best;
+            }
+            contended.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove a tenant from its host.
+     *
+     * @return true if it was the last tenant and the host was retired.
+     */
+    /*package*/ boolean release(Host<H> host, MachineResources request) {
+        while (true) {
+            Usage u = host.usage.get();
+            if (u.retired || u.tenants == 0) {
+                throw new IllegalStateException("No tenant to release from " + host);
+            }
+            Usage next = u.tenants == 1
+                    ? Usage.RETIRED
+                    : new Usage(u.used.minus(request), u.tenants - 1, false)
+            ;
+            if (host.usage.compareAndSet(u, next)) {
+                released.incrementAndGet();
+                if (next.retired) {
+                    hosts.remove(host);
+                    retired.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+            contended.incrementAndGet();
+        }
+    }
+
+    /*package*/ List<Host<H>> hosts() {
+        return hosts;
+    }
+
+    /*package*/ long getPlaced() {
+        return placed.get();
+    }
+
+    /*package*/ long getUnplaceable() {
+        return unplaceable.get();
+    }
+
+    /*package*/ long getContended() {
+        return contended.get();
+    }
+
+    /**
+     * Placement metrics and current utilization of all hosts.
+     */
+    /*package*/ String stats() {
+        long cpus = 0, memory = 0, ports = 0, usedCpus = 0, usedMemory = 0, usedPorts = 0, tenants = 0;
+        int count = 0;
+        for (Host<H> host : hosts) {
+            Usage u = host.usage.get();
+            if (u.retired) continue;
+            count++;
+            tenants += u.tenants;
+            cpus += host.capacity.cpus;
+            memory += host.capacity.memory;
+            ports += host.capacity.ports;
+            usedCpus += u.used.cpus;
+            usedMemory += u.used.memory;
+            usedPorts += u.used.ports;
+        }
+        return String.format(
+                "%d tenants on %d hosts (cpus %d%%, memory %d%%, ports %d%% used); placed %d, released %d, unplaceable %d, contended %d, hosts added %d, retired %d",
+                tenants, count, percent(usedCpus, cpus), percent(usedMemory, memory), percent(usedPorts, ports),
+                placed.get(), released.get(), unplaceable.get(), contended.get(), added.get(), retired.get()
+        );
+    }
+
+    private static long percent(long used, long capacity) {
+        return capacity == 0 ? 0 : used * 100 / capacity;
+    }
+}
@@ -0,0 +1,243 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Splits test classes into shards of similar duration based on {@link TestDurations} history.
+ *
+ * <p>
+ * Classes are assigned longest first, each to the shard with the smallest total so far (LPT scheduling), which
+ * keeps the longest shard within 4/3 of the optimum. Classes with no history are assumed to take the median of known
+ * durations. Each shard gets an include list and an exclude list of Surefire patterns; the include list runs exactly
+ * the shard, the exclude list also runs classes added since the sharding.
+ *
+ * <p>
+ * Run from command line:
+ * <pre>
+ * DurationSharder shard &lt;test-classes-dir> &lt;history-file> &lt;shards> &lt;output-dir>
+ * DurationSharder simulate &lt;test-classes-dir> &lt;history-file> &lt;shards>
+ * </pre>
+ * The simulation compares the expected duration of the longest shard with splitting by count.
+ */
+public class DurationSharder {
+    /**
+     * Estimate for tests when there is no history at all.
+     */
+    /*package*/ static final long DEFAULT_ESTIMATE = TimeUnit.MINUTES.toMillis(1);
+
+    private final TestDurations history;
+    private final long estimate;
+
+    public DurationSharder(@Nonnull TestDurations history) {
+        this.history = history;
+        this.estimate = history.estimate(DEFAULT_ESTIMATE);
+    }
+
+    /**
+     * Split classes into given number of shards, longest first.
+     */
+    public @Nonnull List<Shard> shard(@Nonnull Collection<String> classes, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("At least one shard needed: " + shards);
+
+        List<String> sorted = new ArrayList<>(new TreeSet<>(classes));
+        sorted.sort(new Comparator<String>() {
+            @Override public int compare(String o1, String o2) {
+                return Long.compare(duration(o2), duration(o1));
+            }
+        });
+
+        List<Shard> result = new ArrayList<>(shards);
+        PriorityQueue<Shard> lightest = new PriorityQueue<>(shards, new Comparator<Shard>() {
+            @Override public int compare(Shard o1, Shard o2) {
+                int c = Long.compare(o1.millis, o2.millis);
+                return c != 0 ? c : Integer.compare(o1.index, o2.index);
+            }
+        });
+        for (int i = 0; i < shards; i++) {
+            Shard shard = new Shard(i);
+            result.add(shard);
+            lightest.add(shard);
+        }
+
+        for (String c: sorted) {
+            Shard shard = lightest.poll();
+            shard.add(c, duration(c));
+            lightest.add(shard);
+        }
+        return result;
+    }
+
+    /**
+     * Split classes into shards of equal count, the way count based splitting does.
+     */
+    public @Nonnull List<Shard> shardByCount(@Nonnull Collection<String> classes, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("At least one shard needed: " + shards);
+
+        List<String> sorted = new ArrayList<>(new TreeSet<>(classes));
+        List<Shard> result = new ArrayList<>(shards);
+        int from = 0;
+        for (int i = 0; i < shards; i++) {
+            Shard shard = new Shard(i);
+            int to = (int) ((long) sorted.size() * (i + 1) / shards);
+            for (String c: sorted.subList(from, to)) {
+                shard.add(c, duration(c));
+            }
+            result.add(shard);
+            from = to;
+        }
+        return result;
+    }
+
+    /*package*/ long duration(String className) {
+        return history.getOrEstimate(className, estimate);
+    }
+
+    /**
+     * Expected duration of the whole run, given by the longest shard.
+     */
+    public static long makespan(@Nonnull List<Shard> shards) {
+        long max = 0;
+        for (Shard shard: shards) {
+            max = Math.max(max, shard.millis);
+        }
+        return max;
+    }
+
+    public static final class Shard {
+        private final int index;
+        private final List<String> classes = new ArrayList<>();
+        private long millis;
+
+        private Shard(int index) {
+            this.index = index;
+        }
+
+        private void add(String className, long duration) {
+            classes.add(className);
+            millis += duration;
+        }
+
+        public @Nonnull List<String> getClasses() {
+            return Collections.unmodifiableList(classes);
+        }
+
+        /**
+         * Expected duration.
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("shard %d: %d classes, %s", index + 1, classes.size(), format(millis));
+        }
+    }
+
+    /**
+     * Surefire pattern of a test class as understood by <tt>includesFile</tt> and <tt>excludesFile</tt>.
+     */
+    /*package*/ static String pattern(String className) {
+        return className.replace('.', '/') + ".java";
+    }
+
+    public static void writeIncludes(@Nonnull Shard shard, @Nonnull File file) throws IOException {
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.println("# " + shard);
+            for (String c: new TreeSet<>(shard.classes)) {
+                w.println(pattern(c));
+            }
+        }
+    }
+
+    public static void writeExcludes(@Nonnull List<Shard> shards, @Nonnull Shard shard, @Nonnull File file) throws IOException {
+        Set<String> others = new TreeSet<>();
+        for (Shard s: shards) {
+            if (s != shard) {
+                others.addAll(s.classes);
+            }
+        }
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.println("# " + shard);
+            for (String c: others) {
+                w.println(pattern(c));
+            }
+        }
+    }
+
+    private static String format(long millis) {
+        return String.format("%d:%02d:%02d",
+                TimeUnit.MILLISECONDS.toHours(millis),
+                TimeUnit.MILLISECONDS.toMinutes(millis) % 60,
+                TimeUnit.MILLISECONDS.toSeconds(millis) % 60
+        );
+    }
+
+    private static List<String> classes(File classesDir) {
+        Set<String> classes = new TreeSet<>();
+        for (PlannedTest test: ExecutionPlanner.scan(classesDir, Thread.currentThread().getContextClassLoader())) {
+            classes.add(test.getClassName());
+        }
+        return new ArrayList<>(classes);
+    }
+
+    private static void report(String title, List<Shard> shards) {
+        System.out.println(title + ": expected duration " + format(makespan(shards)));
+        for (Shard shard: shards) {
+            System.out.println("  " + shard);
+        }
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length == 5 && "shard".equals(args[0])) {
+            List<String> classes = classes(new File(args[1]));
+            DurationSharder sharder = new DurationSharder(TestDurations.read(new File(args[2])));
+            int shards = Integer.parseInt(args[3]);
+            File out = new File(args[4]);
+            FileUtils.forceMkdir(out);
+
+            List<Shard> plan = sharder.shard(classes, shards);
+            report("By duration", plan);
+            for (Shard shard: plan) {
+                writeIncludes(shard, new File(out, "shard-" + (shard.index + 1) + "-includes.txt"));
+                writeExcludes(plan, shard, new File(out, "shard-" + (shard.index + 1) + "-excludes.txt"));
+            }
+        } else if (args.length == 4 && "simulate".equals(args[0])) {
+            List<String> classes = classes(new File(args[1]));
+            TestDurations history = TestDurations.read(new File(args[2]));
+            DurationSharder sharder = new DurationSharder(history);
+            int shards = Integer.parseInt(args[3]);
+
+            int known = 0;
+            long total = 0;
+            for (String c: classes) {
+                if (history.get(c) != null) known++;
+                total += sharder.duration(c);
+            }
+            System.out.printf("%d classes, %d with history, others estimated at %s, %s in total%n",
+                    classes.size(), known, format(sharder.estimate), format(total)
+            );
+            report("By count", sharder.shardByCount(classes, shards));
+            report("By duration", sharder.shard(classes, shards));
+        } else {
+            System.err.println("Usage: DurationSharder shard <test-classes-dir> <history-file> <shards> <output-dir>");
+            System.err.println("       DurationSharder simulate <test-classes-dir> <history-file> <shards>");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+
+/**
+ * Runs tests in the order given by the plan file from {@link ExecutionPlanner}.
+ *
+ * The plan file is taken from <tt>EXECUTION_PLAN</tt>, nothing is run when not set. Consecutive methods of the same
+ * class are run as one segment so class level fixtures are not set up for every method.
+ *
+ * <pre>
+ * &#64;RunWith(ExecutionPlanRunner.class)
+ * public class PlannedSuite {}
+ * </pre>
+ */
+public class ExecutionPlanRunner extends ParentRunner<Runner> {
+    private final List<Runner> segments;
+
+    public ExecutionPlanRunner(Class<?> suite) throws InitializationError {
+        super(suite);
+
+        String plan = SystemEnvironmentVariables.getPropertyVariableOrEnvironment("EXECUTION_PLAN", null);
+        if (plan == null || plan.trim().isEmpty()) {
+            segments = Collections.emptyList();
+            return;
+        }
+
+        try {
+            segments = segments(ExecutionPlanner.read(new File(plan.trim())));
+        } catch (IOException|ClassNotFoundException e) {
+            throw new InitializationError(e);
+        }
+    }
+
+    private static List<Runner> segments(List<String> ids) throws ClassNotFoundException {
+        List<Runner> segments = new ArrayList<>();
+        String className = null;
+        List<String> methods = new ArrayList<>();
+        for (String id: ids) {
+            int hash = id.indexOf('#');
+            String c = id.substring(0, hash);
+            if (className != null && !className.equals(c)) {
+                segments.add(segment(className, methods));
+                methods = new ArrayList<>();
+            }
+            className = c;
+            methods.add(id.substring(hash + 1));
+        }
+        if (className != null) {
+            segments.add(segment(className, methods));
+        }
+        return segments;
+    }
+
+    private static Runner segment(String className, List<String> methods) throws ClassNotFoundException {
+        final Map<String, Integer> index = new HashMap<>();
+        for (String method: methods) {
+            index.put(method, index.size());
+        }
+
+        Class<?> testClass = Class.forName(className, false, ExecutionPlanRunner.class.getClassLoader());
+        return Request.aClass(testClass).filterWith(new Filter() {
+            @Override public boolean shouldRun(Description description) {
+                if (description.isTest()) return index.containsKey(description.getMethodName());
+                for (Description child: description.getChildren()) {
+                    if (shouldRun(child)) return true;
+                }
+                return false;
+            }
+
+            @Override public String describe() {
+                return "Methods " + index.keySet();
+            }
+        }).sortWith(new Comparator<Description>() {
+            @Override public int compare(Description o1, Description o2) {
+                return Integer.compare(position(o1), position(o2));
+            }
+
+            private int position(Description d) {
+                Integer i = index.get(d.getMethodName());
+                return i == null ? Integer.MAX_VALUE : i;
+            }
+        }).getRunner();
+    }
+
+    @Override
+    protected List<Runner> getChildren() {
+        return segments;
+    }
+
+    @Override
+    protected Description describeChild(Runner child) {
+        return child.getDescription();
+    }
+
+    @Override
+    protected void runChild(Runner child, RunNotifier notifier) {
+        child.run(notifier);
+    }
+}
@@ -0,0 +1,332 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Orders tests so that tests with the same {@link TestRequirements} run back to back, and splits them into forks.
+ *
+ * <p>
+ * Once installed, plugins stay in a reused Jenkins instance, so the cost of a transition is the number of plugins
+ * missing or outdated in the accumulated set. Groups of tests with equal requirements are chained greedily, always
+ * picking the group that requires the fewest new plugins next, and the chain is cut at group boundaries into
+ * contiguous per-fork plans of about equal size. Plan files list one <tt>class#method</tt> per line and are run by
+ * {@link ExecutionPlanRunner}.
+ *
+ * <p>
+ * Run from command line:
+ * <pre>
+ * ExecutionPlanner plan &lt;test-classes-dir> &lt;forks> &lt;output-dir>
+ * ExecutionPlanner simulate &lt;test-classes-dir> [&lt;plan-file>...]
+ * </pre>
+ * The simulation reports transitions the given order would cause, or the default order if no plan is given.
+ */
+public class ExecutionPlanner {
+
+    /**
+     * Order tests to minimise plugin installations and split them into given number of forks.
+     *
+     * Forks get contiguous parts of the chain of groups cut at group boundaries, so tests with equal requirements
+     * never end up in different forks. Forks are as close to equal size as the groups permit, some of them are empty
+     * when there are fewer groups than forks.
+     */
+    public @Nonnull List<List<PlannedTest>> plan(@Nonnull Collection<PlannedTest> tests, int forks) {
+        if (forks < 1) throw new IllegalArgumentException("At least one fork needed: " + forks);
+
+        List<List<PlannedTest>> groups = groups(tests);
+        List<List<PlannedTest>> plan = new ArrayList<>(forks);
+        int total = tests.size();
+        int assigned = 0;
+        int next = 0;
+        for (int i = 0; i < forks; i++) {
+            long target = (long) total * (i + 1) / forks;
+            List<PlannedTest> fork = new ArrayList<>();
+            while (next < groups.size()) {
+                List<PlannedTest> group = groups.get(next);
+                // Take the next group unless stopping before it gets the fork closer to its share
+                if (i < forks - 1 && assigned + group.size() - target > target - assigned) break;
+                fork.addAll(group);
+                assigned += group.size();
+                next++;
+            }
+            plan.add(fork);
+        }
+        return plan;
+    }
+
+    /**
+     * Order tests to minimise plugin installations in single Jenkins instance.
+     */
+    public @Nonnull List<PlannedTest> order(@Nonnull Collection<PlannedTest> tests) {
+        List<PlannedTest> chain = new ArrayList<>(tests.size());
+        for (List<PlannedTest> group: groups(tests)) {
+            chain.addAll(group);
+        }
+        return chain;
+    }
+
+    /**
+     * Tests grouped by equal requirements, in the order the groups are to be run.
+     */
+    private @Nonnull List<List<PlannedTest>> groups(@Nonnull Collection<PlannedTest> tests) {
+        List<PlannedTest> sorted = new ArrayList<>(tests);
+        sorted.sort(BY_ID);
+        Map<TestRequirements, List<PlannedTest>> groups = new LinkedHashMap<>();
+        for (PlannedTest test: sorted) {
+            List<PlannedTest> group = groups.get(test.getRequirements());
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(test.getRequirements(), group);
+            }
+            group.add(test);
+        }
+
+        List<TestRequirements> remaining = new ArrayList<>(groups.keySet());
+        Map<String, VersionNumber> installed = new HashMap<>();
+        List<List<PlannedTest>> chain = new ArrayList<>(groups.size());
+        while (!remaining.isEmpty()) {
+            TestRequirements best = null;
+            int bestCost = Integer.MAX_VALUE;
+            for (TestRequirements candidate: remaining) {
+                int cost = missing(installed, candidate);
+                if (best == null || cost < bestCost || (cost == bestCost && isPreferred(candidate, best))) {
+                    best = candidate;
+                    bestCost = cost;
+                }
+            }
+            remaining.remove(best);
+            install(installed, best);
+            chain.add(groups.get(best));
+        }
+        return chain;
+    }
+
+    /**
+     * Among equally expensive groups, prefer smaller plugin sets first as they are more likely to be covered by others.
+     */
+    private static boolean isPreferred(TestRequirements candidate, TestRequirements best) {
+        int c = Integer.compare(candidate.getPlugins().size(), best.getPlugins().size());
+        if (c != 0) return c < 0;
+        return candidate.getFingerprint().compareTo(best.getFingerprint()) < 0;
+    }
+
+    /**
+     * Number of plugins to install or upgrade to satisfy the requirements.
+     */
+    private static int missing(Map<String, VersionNumber> installed, TestRequirements requirements) {
+        int missing = 0;
+        for (Map.Entry<String, VersionNumber> e: requirements.getPlugins().entrySet()) {
+            if (!isSatisfied(installed, e.getKey(), e.getValue())) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    private static boolean isSatisfied(Map<String, VersionNumber> installed, String name, @CheckForNull VersionNumber required) {
+        if (!installed.containsKey(name)) return false;
+        if (required == null) return true;
+        VersionNumber actual = installed.get(name);
+        return actual != null && !actual.isOlderThan(required);
+    }
+
+    private static int install(Map<String, VersionNumber> installed, TestRequirements requirements) {
+        int missing = 0;
+        for (Map.Entry<String, VersionNumber> e: requirements.getPlugins().entrySet()) {
+            if (!isSatisfied(installed, e.getKey(), e.getValue())) {
+                missing++;
+                VersionNumber current = installed.get(e.getKey());
+                if (current == null || (e.getValue() != null && current.isOlderThan(e.getValue()))) {
+                    installed.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Predict plugin set transitions of running tests in given order in single reused Jenkins.
+     */
+    public static @Nonnull Simulation simulate(@Nonnull List<PlannedTest> order) {
+        Map<String, VersionNumber> installed = new HashMap<>();
+        int transitions = 0;
+        int installations = 0;
+        int plugins = 0;
+        TestRequirements previous = null;
+        for (PlannedTest test: order) {
+            TestRequirements current = test.getRequirements();
+            if (previous != null && !previous.equals(current)) {
+                transitions++;
+            }
+            int missing = install(installed, current);
+            if (missing > 0) {
+                installations++;
+                plugins += missing;
+            }
+            previous = current;
+        }
+        return new Simulation(order.size(), transitions, installations, plugins);
+    }
+
+    public static final class Simulation {
+        /**
+         * Number of tests.
+         */
+        public final int tests;
+        /**
+         * Number of times the requirements differ from the previous test.
+         */
+        public final int transitions;
+        /**
+         * Number of times plugins need to be installed, each typically followed by a restart.
+         */
+        public final int installations;
+        /**
+         * Number of plugins installed or upgraded in total.
+         */
+        public final int plugins;
+
+        private Simulation(int tests, int transitions, int installations, int plugins) {
+            this.tests = tests;
+            this.transitions = transitions;
+            this.installations = installations;
+            this.plugins = plugins;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d tests, %d transitions, %d installations of %d plugins",
+                    tests, transitions, installations, plugins
+            );
+        }
+    }
+
+    /**
+     * Find test methods in compiled test classes.
+     */
+    public static @Nonnull List<PlannedTest> scan(@Nonnull File classesDir, @Nonnull ClassLoader cl) {
+        List<PlannedTest> tests = new ArrayList<>();
+        String root = classesDir.getAbsolutePath() + File.separator;
+        for (File file: FileUtils.listFiles(classesDir, new String[] {"class"}, true)) {
+            String path = file.getAbsolutePath();
+            if (path.contains("$")) continue;
+            String className = path.substring(root.length(), path.length() - ".class".length()).replace(File.separatorChar, '.');
+
+            Class<?> testClass;
+            try {
+                testClass = Class.forName(className, false, cl);
+            } catch (ClassNotFoundException|LinkageError e) {
+                LOGGER.log(Level.FINE, "Skipping " + className, e);
+                continue;
+            }
+            if (testClass.isInterface() || Modifier.isAbstract(testClass.getModifiers()) || !Modifier.isPublic(testClass.getModifiers())) continue;
+
+            for (Method method: testClass.getMethods()) {
+                if (method.getAnnotation(Test.class) == null) continue;
+                tests.add(new PlannedTest(className, method.getName(), TestRequirements.of(testClass, method)));
+            }
+        }
+        tests.sort(BY_ID);
+        return tests;
+    }
+
+    public static void write(@Nonnull List<PlannedTest> plan, @Nonnull File file) throws IOException {
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            TestRequirements previous = null;
+            for (PlannedTest test: plan) {
+                if (!test.getRequirements().equals(previous)) {
+                    w.println("# " + test.getRequirements().getFingerprint());
+                    previous = test.getRequirements();
+                }
+                w.println(test.getId());
+            }
+        }
+    }
+
+    /**
+     * Test ids listed in a plan file.
+     */
+    public static @Nonnull List<String> read(@Nonnull File file) throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (String line: Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            ids.add(line);
+        }
+        return ids;
+    }
+
+    private static final Comparator<PlannedTest> BY_ID = new Comparator<PlannedTest>() {
+        @Override public int compare(PlannedTest o1, PlannedTest o2) {
+            return o1.getId().compareTo(o2.getId());
+        }
+    };
+
+    public static void main(String... args) throws IOException {
+        if (args.length == 4 && "plan".equals(args[0])) {
+            List<PlannedTest> tests = scan(new File(args[1]), Thread.currentThread().getContextClassLoader());
+            int forks = Integer.parseInt(args[2]);
+            File out = new File(args[3]);
+            FileUtils.forceMkdir(out);
+
+            System.out.println("Default order: " + simulate(tests));
+            List<List<PlannedTest>> plan = new ExecutionPlanner().plan(tests, forks);
+            for (int i = 0; i < plan.size(); i++) {
+                File file = new File(out, "fork-" + (i + 1) + ".txt");
+                write(plan.get(i), file);
+                System.out.println(file + ": " + simulate(plan.get(i)));
+            }
+        } else if (args.length >= 2 && "simulate".equals(args[0])) {
+            List<PlannedTest> tests = scan(new File(args[1]), Thread.currentThread().getContextClassLoader());
+            if (args.length == 2) {
+                System.out.println("Default order: " + simulate(tests));
+                return;
+            }
+
+            Map<String, PlannedTest> byId = new HashMap<>();
+            for (PlannedTest test: tests) {
+                byId.put(test.getId(), test);
+            }
+            for (int i = 2; i < args.length; i++) {
+                List<PlannedTest> order = new ArrayList<>();
+                for (String id: read(new File(args[i]))) {
+                    PlannedTest test = byId.get(id);
+                    if (test == null) {
+                        System.err.println("No such test " + id);
+                        continue;
+                    }
+                    order.add(test);
+                }
+                System.out.println(args[i] + ": " + simulate(order));
+            }
+        } else {
+            System.err.println("Usage: ExecutionPlanner plan <test-classes-dir> <forks> <output-dir>");
+            System.err.println("       ExecutionPlanner simulate <test-classes-dir> [<plan-file>...]");
+            System.exit(1);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ExecutionPlanner.class.getName());
+}
@@ -0,0 +1,42 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Single test method to be scheduled.
+ */
+public final class PlannedTest {
+    private final @Nonnull String className;
+    private final @Nonnull String methodName;
+    private final @Nonnull TestRequirements requirements;
+
+    public PlannedTest(@Nonnull String className, @Nonnull String methodName, @Nonnull TestRequirements requirements) {
+        this.className = className;
+        this.methodName = methodName;
+        this.requirements = requirements;
+    }
+
+    public @Nonnull String getClassName() {
+        return className;
+    }
+
+    public @Nonnull String getMethodName() {
+        return methodName;
+    }
+
+    public @Nonnull TestRequirements getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Test identification as used in plan files, <tt>-Dtest</tt> syntax.
+     */
+    public @Nonnull String getId() {
+        return className + "#" + methodName;
+    }
+
+    @Override
+    public String toString() {
+        return getId();
+    }
+}
@@ -0,0 +1,120 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Durations of test classes observed in past runs.
+ *
+ * <p>
+ * History file lists one <tt>class millis</tt> pair per line. New observations are averaged with the recorded ones
+ * so a single slow run does not move the class between shards. Several forks can record into the same file, updates
+ * are serialised through a lock on <tt>FILE.lock</tt>.
+ */
+public final class TestDurations {
+    private final Map<String, Long> durations = new TreeMap<>();
+
+    public TestDurations() {}
+
+    public TestDurations(@Nonnull Map<String, Long> durations) {
+        this.durations.putAll(durations);
+    }
+
+    /**
+     * @return null if there is no history for the class.
+     */
+    public @CheckForNull Long get(@Nonnull String className) {
+        return durations.get(className);
+    }
+
+    /**
+     * Duration to assume for classes with no history, the median of known durations.
+     */
+    public long estimate(long fallback) {
+        if (durations.isEmpty()) return fallback;
+        List<Long> sorted = new ArrayList<>(durations.values());
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    /**
+     * Duration of the class, estimated when unknown.
+     */
+    public long getOrEstimate(@Nonnull String className, long estimate) {
+        Long known = durations.get(className);
+        return known == null ? estimate : known;
+    }
+
+    public void record(@Nonnull String className, long millis) {
+        Long previous = durations.get(className);
+        durations.put(className, previous == null ? millis : (previous + millis) / 2);
+    }
+
+    public @Nonnull Map<String, Long> asMap() {
+        return Collections.unmodifiableMap(durations);
+    }
+
+    public int size() {
+        return durations.size();
+    }
+
+    public static @Nonnull TestDurations read(@Nonnull File file) throws IOException {
+        TestDurations history = new TestDurations();
+        if (!file.exists()) return history;
+
+        for (String line: Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            if (parts.length != 2) throw new IOException("Malformed line in " + file + ": " + line);
+            try {
+                history.durations.put(parts[0], Long.parseLong(parts[1]));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed line in " + file + ": " + line, e);
+            }
+        }
+        return history;
+    }
+
+    public void write(@Nonnull File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (PrintWriter w = new PrintWriter(tmp, "UTF-8")) {
+            for (Map.Entry<String, Long> e: durations.entrySet()) {
+                w.println(e.getKey() + " " + e.getValue());
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Record observed durations into the history file.
+     */
+    public static void update(@Nonnull File file, @Nonnull Map<String, Long> observed) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) {
+            Files.createDirectories(dir.toPath());
+        }
+        try (RandomAccessFile lockFile = new RandomAccessFile(file.getPath() + ".lock", "rw");
+             FileLock lock = lockFile.getChannel().lock()) {
+            TestDurations history = read(file);
+            for (Map.Entry<String, Long> e: observed.entrySet()) {
+                history.record(e.getKey(), e.getValue());
+            }
+            history.write(file);
+        }
+    }
+}
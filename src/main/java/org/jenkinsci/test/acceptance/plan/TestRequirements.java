@@ -0,0 +1,133 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.junit.Native;
+import org.jenkinsci.test.acceptance.junit.Since;
+import org.jenkinsci.test.acceptance.junit.WithDocker;
+import org.jenkinsci.test.acceptance.junit.WithPlugins;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+
+import hudson.util.VersionNumber;
+
+/**
+ * What a test needs from its environment, as declared by {@link WithPlugins}, {@link Native}, {@link WithDocker}
+ * and {@link Since}.
+ *
+ * Tests with equal requirements can share a Jenkins instance with no plugin installation in between.
+ */
+public final class TestRequirements {
+    /**
+     * Plugin name to the minimal version, or null if any version will do.
+     */
+    private final Map<String, VersionNumber> plugins;
+    private final SortedSet<String> commands;
+    private final boolean docker;
+    private final @CheckForNull VersionNumber since;
+
+    /*package*/ TestRequirements(Iterable<PluginSpec> plugins, Iterable<String> commands, boolean docker, @CheckForNull VersionNumber since) {
+        Map<String, VersionNumber> p = new TreeMap<>();
+        for (PluginSpec spec: plugins) {
+            p.put(spec.getName(), spec.getVersionNumber());
+        }
+        this.plugins = Collections.unmodifiableMap(p);
+        SortedSet<String> c = new TreeSet<>();
+        for (String command: commands) {
+            c.add(command);
+        }
+        this.commands = Collections.unmodifiableSortedSet(c);
+        this.docker = docker;
+        this.since = since;
+    }
+
+    /**
+     * Requirements of a test method, merging annotations of the method, its class and superclasses.
+     */
+    public static @Nonnull TestRequirements of(@Nonnull Class<?> testClass, @Nonnull Method method) {
+        SortedSet<String> commands = new TreeSet<>();
+        VersionNumber since = null;
+        for (Since s: Arrays.asList(method.getAnnotation(Since.class), testClass.getAnnotation(Since.class))) {
+            if (s == null) continue;
+            VersionNumber v = new VersionNumber(s.value());
+            if (since == null || v.isNewerThan(since)) {
+                since = v;
+            }
+        }
+        for (Native n: Arrays.asList(method.getAnnotation(Native.class), testClass.getAnnotation(Native.class))) {
+            if (n == null) continue;
+            commands.addAll(Arrays.asList(n.value()));
+        }
+        boolean docker = method.getAnnotation(WithDocker.class) != null || testClass.getAnnotation(WithDocker.class) != null;
+
+        return new TestRequirements(
+                WithPlugins.RuleImpl.requiredPlugins(testClass, method.getAnnotation(WithPlugins.class)),
+                commands, docker, since
+        );
+    }
+
+    /**
+     * Plugin name to the minimal version, or null if any version will do.
+     */
+    public @Nonnull Map<String, VersionNumber> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * Stable textual form, equal for equal requirements.
+     */
+    public @Nonnull String getFingerprint() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("plugins=[");
+        boolean first = true;
+        for (Map.Entry<String, VersionNumber> e: plugins.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append(e.getKey());
+            if (e.getValue() != null) {
+                sb.append('@').append(e.getValue());
+            }
+        }
+        sb.append(']');
+        if (!commands.isEmpty()) {
+            sb.append(" native=").append(commands.toString().replace(" ", ""));
+        }
+        if (docker) {
+            sb.append(" docker");
+        }
+        if (since != null) {
+            sb.append(" since=").append(since);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TestRequirements that = (TestRequirements) o;
+        return docker == that.docker && plugins.equals(that.plugins) && commands.equals(that.commands)
+                && Objects.equals(since, that.since)
+        ;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(plugins, commands, docker, since);
+    }
+
+    @Override
+    public String toString() {
+        return getFingerprint();
+    }
+}
@@ -0,0 +1,28 @@
+package org.jenkinsci.test.acceptance.po;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The list of computers, <tt>/computer/</tt>.
+ */
+public class ComputerSet extends ContainerPageObject {
+    public ComputerSet(Jenkins parent) {
+        super(parent, parent.url("computer/"));
+    }
+
+    /**
+     * Names of all computers that are online, in a single request.
+     */
+    public Set<String> getOnline() {
+        Set<String> online = new HashSet<>();
+        for (JsonNode c : getJson("tree=computer[displayName,offline]").get("computer")) {
+            if (!c.get("offline").asBoolean()) {
+                online.add(c.get("displayName").asText());
+            }
+        }
+        return online;
+    }
+}
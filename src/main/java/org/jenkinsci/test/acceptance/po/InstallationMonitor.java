@@ -0,0 +1,154 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.po.UpdateCenter.InstallationFailedException;
+import org.openqa.selenium.TimeoutException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Watches plugin installation jobs of {@link UpdateCenter} through its JSON API.
+ *
+ * <p>
+ * Each plugin is tracked by its most recent job so retried installations are judged by the last attempt. Progress
+ * is logged as job states change. The first failed job fails the wait with its error, except for plugins that failed
+ * to be deployed dynamically as restarting Jenkins finishes those.
+ *
+ * <p>
+ * The update center keeps the jobs of earlier installations until Jenkins restarts. Jobs up to the id recorded by
+ * {@link UpdateCenter#getLastJobId()} before the installation started are ignored so their outcome does not decide
+ * this one.
+ */
+public class InstallationMonitor {
+    /*package*/ static final String TREE = "tree=restartRequiredForCompletion,jobs[id,type,errorMessage,status[type,success],plugin[name,version]]";
+
+    private static final long POLL_MILLIS = 250;
+
+    private final UpdateCenter updateCenter;
+
+    /**
+     * Jobs with this or lower id belong to earlier installations.
+     */
+    private final int lastJobId;
+
+    /**
+     * Last reported state by plugin name.
+     */
+    private final Map<String, String> states = new HashMap<>();
+
+    private boolean restartRequired;
+
+    public InstallationMonitor(@Nonnull UpdateCenter updateCenter) {
+        this(updateCenter, -1);
+    }
+
+    /**
+     * @param lastJobId Id of the last update center job before the installation started, see {@link UpdateCenter#getLastJobId()}.
+     */
+    public InstallationMonitor(@Nonnull UpdateCenter updateCenter, int lastJobId) {
+        this.updateCenter = updateCenter;
+        this.lastJobId = lastJobId;
+    }
+
+    /**
+     * Wait for all plugin installation jobs to complete.
+     *
+     * @return true if Jenkins needs to be restarted to complete the installation.
+     * @throws InstallationFailedException If some plugin failed to install.
+     */
+    public boolean waitForCompletion(int timeoutSec) throws InstallationFailedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutSec * 1000L;
+        int polls = 0;
+        while (true) {
+            polls++;
+            if (update(updateCenter.getJson(TREE))) {
+                LOGGER.info(String.format("Plugin installation completed in %d ms, %d polls%s",
+                        System.currentTimeMillis() - start, polls, restartRequired ? ", restart required" : ""
+                ));
+                return restartRequired;
+            }
+
+            if (System.currentTimeMillis() > deadline) {
+                throw new TimeoutException("Plugin installation not completed in " + timeoutSec + " seconds: " + states);
+            }
+
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted waiting for plugin installation", e);
+            }
+        }
+    }
+
+    /**
+     * Process the current list of update center jobs.
+     *
+     * @return true if all plugin jobs have completed.
+     */
+    /*package*/ boolean update(@Nonnull JsonNode json) throws InstallationFailedException {
+        Map<String, JsonNode> latest = new HashMap<>();
+        for (JsonNode job: json.get("jobs")) {
+            JsonNode plugin = job.get("plugin");
+            if (plugin == null || plugin.isNull()) continue;
+            if (job.get("id").asInt() <= lastJobId) continue;
+
+            String name = plugin.get("name").asText();
+            JsonNode previous = latest.get(name);
+            if (previous == null || previous.get("id").asInt() < job.get("id").asInt()) {
+                latest.put(name, job);
+            }
+        }
+
+        JsonNode rrfc = json.get("restartRequiredForCompletion");
+        boolean restart = rrfc != null && rrfc.asBoolean();
+        boolean complete = true;
+        for (Map.Entry<String, JsonNode> e: latest.entrySet()) {
+            String name = e.getKey();
+            JsonNode job = e.getValue();
+            String state = job.get("status").get("type").asText();
+            if (!state.equals(states.put(name, state))) {
+                LOGGER.info(String.format("%s %s: %s", name, job.get("plugin").get("version").asText(), state));
+            }
+
+            switch (state) {
+                case "Pending":
+                case "Installing":
+                    complete = false;
+                    break;
+                case "SuccessButRequiresRestart":
+                    restart = true;
+                    break;
+                case "Failure":
+                    JsonNode error = job.get("errorMessage");
+                    String message = error == null || error.isNull() ? "see log" : error.asText();
+                    if (message.contains("Failed to dynamically deploy")) {
+                        // Can be reported when dependency is updated in sibling job, restart should fix that
+                        restart = true;
+                        break;
+                    }
+                    throw new InstallationFailedException("Failed to install " + name + ": " + message);
+                default:
+                    // Success, Skipped and other final states
+            }
+        }
+
+        restartRequired = restart;
+        return complete;
+    }
+
+    /**
+     * Is restart required to complete the installation, as known from the last update.
+     */
+    public boolean isRestartRequired() {
+        return restartRequired;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(InstallationMonitor.class.getName());
+}
@@ -0,0 +1,130 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.update_center.Dependency;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Snapshot of plugins installed in Jenkins, obtained in a single request.
+ *
+ * Shared through {@link Jenkins#getInstalledPlugins()} until plugins are installed or Jenkins is restarted.
+ */
+public class InstalledPlugins {
+    public static final String TREE = "tree=plugins[shortName,version,active,enabled,dependencies[shortName,version,optional]]";
+
+    private final Map<String, InstalledPlugin> plugins = new HashMap<>();
+
+    /**
+     * @param json Plugin manager API response for {@link #TREE}.
+     */
+    public InstalledPlugins(@Nonnull JsonNode json) {
+        for (JsonNode plugin: json.get("plugins")) {
+            List<Dependency> dependencies = new ArrayList<>();
+            JsonNode deps = plugin.get("dependencies");
+            if (deps != null) {
+                for (JsonNode d: deps) {
+                    dependencies.add(new Dependency(d.get("shortName").asText(), d.get("version").asText(), d.get("optional").asBoolean()));
+                }
+            }
+
+            InstalledPlugin p = new InstalledPlugin(
+                    plugin.get("shortName").asText(),
+                    new VersionNumber(plugin.get("version").asText()),
+                    plugin.get("active").asBoolean(),
+                    plugin.get("enabled").asBoolean(),
+                    dependencies
+            );
+            plugins.put(p.getName(), p);
+        }
+    }
+
+    /**
+     * @return null if not installed.
+     */
+    public @CheckForNull InstalledPlugin get(@Nonnull String name) {
+        return plugins.get(name);
+    }
+
+    public boolean contains(@Nonnull String name) {
+        return plugins.containsKey(name);
+    }
+
+    public @Nonnull Collection<InstalledPlugin> getPlugins() {
+        return Collections.unmodifiableCollection(plugins.values());
+    }
+
+    /**
+     * Versions of plugins by name.
+     */
+    public @Nonnull Map<String, VersionNumber> getVersions() {
+        Map<String, VersionNumber> versions = new HashMap<>();
+        for (InstalledPlugin p: plugins.values()) {
+            versions.put(p.getName(), p.getVersion());
+        }
+        return versions;
+    }
+
+    @Override
+    public String toString() {
+        return "InstalledPlugins" + plugins.keySet();
+    }
+
+    public static final class InstalledPlugin {
+        private final @Nonnull String name;
+        private final @Nonnull VersionNumber version;
+        private final boolean active;
+        private final boolean enabled;
+        private final @Nonnull List<Dependency> dependencies;
+
+        private InstalledPlugin(String name, VersionNumber version, boolean active, boolean enabled, List<Dependency> dependencies) {
+            this.name = name;
+            this.version = version;
+            this.active = active;
+            this.enabled = enabled;
+            this.dependencies = Collections.unmodifiableList(dependencies);
+        }
+
+        public @Nonnull String getName() {
+            return name;
+        }
+
+        public @Nonnull VersionNumber getVersion() {
+            return version;
+        }
+
+        /**
+         * Loaded and running.
+         */
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Not disabled, takes effect after restart.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public @Nonnull List<Dependency> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public String toString() {
+            return "InstalledPlugin[" + name + "," + version + "]";
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.guice.TestCleaner;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.junit.SharedInstance;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+
+/**
+ * Prefix of top-level jobs and views created by a test, so tests can share one Jenkins.
+ *
+ * <p>
+ * Inactive unless the test runs on a shared instance, see {@link SharedInstance}. Once active, {@link JobsMixIn} and
+ * {@link ViewsMixIn} of {@link Jenkins} and its views prepend the prefix to names of items they create or look up.
+ * Items nested in folders are left alone, the folder is in the namespace already. All top-level jobs and views in
+ * the namespace are deleted at the end of the test, including those created by other means.
+ */
+@TestScope
+public class ItemNamespace {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    @Inject
+    private TestCleaner cleaner;
+
+    @Inject
+    private Provider<Jenkins> jenkins;
+
+    private String prefix;
+    private boolean cleanupScheduled;
+
+    /**
+     * Start putting items of this test into a namespace of its own.
+     */
+    public synchronized void enter() {
+        if (prefix == null) {
+            prefix = "t" + COUNTER.incrementAndGet() + "_";
+        }
+    }
+
+    public synchronized boolean isActive() {
+        return prefix != null;
+    }
+
+    /**
+     * @return null if not active.
+     */
+    public synchronized @CheckForNull String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Name of the item in this namespace.
+     *
+     * Names already in the namespace are returned as is, so names of page objects can be passed back.
+     */
+    public synchronized @Nonnull String apply(@Nonnull String name) {
+        if (prefix == null || name.startsWith(prefix)) return name;
+
+        if (!cleanupScheduled) {
+            // Scheduled no sooner than browser exists so it runs before the browser is closed
+            cleanupScheduled = true;
+            cleaner.addTask(new Runnable() {
+                @Override public void run() {
+                    deleteItems();
+                }
+
+                @Override public String toString() {
+                    return "Delete items with prefix " + prefix;
+                }
+            });
+        }
+        return prefix + name;
+    }
+
+    private void deleteItems() {
+        try {
+            String deleted = jenkins.get().runScript(
+                    "def prefix = '%s'\n" +
+                    "def j = Jenkins.instance\n" +
+                    "def deleted = 0\n" +
+                    "j.views.findAll { it.viewName.startsWith(prefix) }.each { j.deleteView(it); deleted++ }\n" +
+                    "j.items.findAll { it.name.startsWith(prefix) }.each { it.delete(); deleted++ }\n" +
+                    "println deleted",
+                    prefix
+            );
+            LOGGER.fine("Deleted " + deleted + " items with prefix " + prefix);
+        } catch (RuntimeException e) {
+            // Leftovers cost the shared instance some disk, not worth failing the test for
+            LOGGER.log(Level.WARNING, "Unable to delete items with prefix " + prefix, e);
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ItemNamespace.class.getName());
+}
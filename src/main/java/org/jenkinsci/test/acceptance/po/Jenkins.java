@@ -29,12 +29,23 @@ import hudson.util.VersionNumber;
 public class Jenkins extends Node implements Container {
     private VersionNumber version;
 
+    private final JenkinsController controller;
+
+    private InstalledPlugins installedPlugins;
+    /**
+     * {@link JenkinsController#getStarts()} when the installed plugins were fetched.
+     */
+    private int installedPluginsStarts;
+    private int installedPluginsRequests;
+    private int restarts;
+
     public final JobsMixIn jobs;
     public final ViewsMixIn views;
     public final SlavesMixIn slaves;
 
-    private Jenkins(Injector injector, URL url) {
+    private Jenkins(Injector injector, JenkinsController controller, URL url) {
         super(injector,url);
+        this.controller = controller;
         getVersion();
         jobs = new JobsMixIn(this);
         views = new ViewsMixIn(this);
@@ -47,7 +58,7 @@ public class Jenkins extends Node implements Container {
     }
 
     public Jenkins(Injector injector, JenkinsController controller) {
-        this(injector, startAndGetUrl(controller));
+        this(injector, controller, startAndGetUrl(controller));
     }
 
     private static URL startAndGetUrl(JenkinsController controller) {
@@ -164,6 +175,15 @@ public class Jenkins extends Node implements Container {
                     }
                 })
         ;
+        invalidateInstalledPlugins();
+        restarts++;
+    }
+
+    /**
+     * Number of times this Jenkins was {@linkplain #restart() restarted}.
+     */
+    public int getRestarts() {
+        return restarts;
     }
 
     public JenkinsLogger getLogger(String name) {
@@ -178,6 +198,33 @@ public class Jenkins extends Node implements Container {
         return new Plugin(getPluginManager(), name);
     }
 
+    /**
+     * Plugins installed, fetched once and shared until {@linkplain #invalidateInstalledPlugins() invalidated} or
+     * Jenkins is restarted by its controller.
+     */
+    public InstalledPlugins getInstalledPlugins() {
+        if (installedPlugins == null || installedPluginsStarts != controller.getStarts()) {
+            installedPluginsStarts = controller.getStarts();
+            installedPlugins = new InstalledPlugins(getPluginManager().getJson(InstalledPlugins.TREE));
+            installedPluginsRequests++;
+        }
+        return installedPlugins;
+    }
+
+    /**
+     * Discard the snapshot of installed plugins once they might have changed.
+     */
+    public void invalidateInstalledPlugins() {
+        installedPlugins = null;
+    }
+
+    /**
+     * Number of times installed plugins were fetched from this Jenkins.
+     */
+    public int getInstalledPluginsRequests() {
+        return installedPluginsRequests;
+    }
+
     public <T extends PageObject> T getPluginPage(Class<T> type) {
         String urlChunk = type.getAnnotation(PluginPageObject.class).value();
 
@@ -22,6 +22,7 @@ public class JobsMixIn extends MixIn {
     }
 
     public <T extends TopLevelItem> T create(Class<T> type, String name) {
+        name = qualify(name);
         visit("newJob");
         fillIn("name", name);
 
@@ -63,6 +64,7 @@ public class JobsMixIn extends MixIn {
     }
 
     public <T extends TopLevelItem> T get(Class<T> type, String name) {
+        name = qualify(name);
         if (contextAvailable() && typeAcceptsContext(type)) {
             return newInstance(type, getContext(), url("job/%s/", name), name);
         }
@@ -78,6 +80,15 @@ public class JobsMixIn extends MixIn {
         }
     }
 
+    /**
+     * Name of the item in the {@link ItemNamespace} of the test, unless nested in a folder.
+     */
+    private String qualify(String name) {
+        if (!(getContext() instanceof Jenkins || getContext() instanceof View)) return name;
+        ItemNamespace namespace = injector.getInstance(ItemNamespace.class);
+        return namespace == null ? name : namespace.apply(name);
+    }
+
     private boolean contextAvailable() {
         return getContext() != null;
     }
@@ -95,6 +106,8 @@ public class JobsMixIn extends MixIn {
     }
 
     public void copy(String from, String to) {
+        from = qualify(from);
+        to = qualify(to);
         visit("newJob");
         fillIn("name",to);
         fillIn("from",from);
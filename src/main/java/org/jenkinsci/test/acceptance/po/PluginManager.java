@@ -1,5 +1,6 @@
 package org.jenkinsci.test.acceptance.po;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import javax.inject.Named;
 import java.io.File;
@@ -10,11 +11,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.google.common.base.Predicate;
 import org.apache.commons.lang3.StringUtils;
 import org.jenkinsci.test.acceptance.junit.WithPlugins;
+import org.jenkinsci.test.acceptance.update_center.InstallationPlanner;
 import org.jenkinsci.test.acceptance.update_center.PluginMetadata;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
@@ -126,21 +129,28 @@ public class PluginManager extends ContainerPageObject {
     public InstallationStatus installationStatus(PluginSpec spec) {
         String name = spec.getName();
         String version = spec.getVersion();
-        Plugin plugin;
-        try {
-            plugin = jenkins.getPlugin(name);
-            if (version != null) {
-                VersionNumber actualVersion = plugin.getVersion();
-                // check if installed version >= required version
-                if (actualVersion.compareTo(new VersionNumber(version)) < 0) {
-                    LOGGER.info(name + " has version " + actualVersion + " but " + version + " was requested");
-                    return InstallationStatus.OUTDATED;
-                }
-            }
-            return InstallationStatus.UP_TO_DATE;
-        } catch (IllegalArgumentException ex) {
+        InstalledPlugins.InstalledPlugin plugin = jenkins.getInstalledPlugins().get(name);
+        if (plugin == null) {
             return InstallationStatus.NOT_INSTALLED;
         }
+        if (version != null) {
+            VersionNumber actualVersion = plugin.getVersion();
+            // check if installed version >= required version
+            if (actualVersion.compareTo(new VersionNumber(version)) < 0) {
+                LOGGER.info(name + " has version " + actualVersion + " but " + version + " was requested");
+                return InstallationStatus.OUTDATED;
+            }
+        }
+        return InstallationStatus.UP_TO_DATE;
+    }
+
+    /**
+     * Versions of all installed plugins by name.
+     *
+     * @see Jenkins#getInstalledPlugins()
+     */
+    public Map<String, VersionNumber> installedPlugins() {
+        return jenkins.getInstalledPlugins().getVersions();
     }
 
     @Deprecated
@@ -185,6 +195,10 @@ public class PluginManager extends ContainerPageObject {
             checkForUpdates();
         }
 
+        // Jobs of earlier installations stay listed until restart
+        int lastJobId = new UpdateCenter(jenkins).getLastJobId();
+
+        InstallationPlanner.Plan plan = null;
         if (uploadPlugins) {
             LOGGER.warning("Installing plugins by direct upload. Better to use the default MockUpdateCenter.");
             // First check to see whether we need to do anything.
@@ -227,6 +241,13 @@ public class PluginManager extends ContainerPageObject {
                 }
             }
         } else {
+            plan = plan(specs);
+            // Plugins that can not be loaded dynamically are installed together after one restart
+            String install = plan != null && plan.isRestartRequired()
+                    ? "Download now and install after restart"
+                    : "Install"
+            ;
+
             visit("available");
 
             final ArrayList<PluginSpec> update = new ArrayList<>();
@@ -245,7 +266,7 @@ public class PluginManager extends ContainerPageObject {
                 }
             }
 
-            clickButton("Install");
+            clickButton(install);
 
             // Plugins that are already installed in older version will be updated
             System.out.println("Plugins to be updated: " + update);
@@ -259,11 +280,28 @@ public class PluginManager extends ContainerPageObject {
         }
 
         // Jenkins will be restarted if necessary
-        new UpdateCenter(jenkins).waitForInstallationToComplete(specs);
+        jenkins.invalidateInstalledPlugins();
+        new UpdateCenter(jenkins).waitForInstallationToComplete(lastJobId, specs);
 
         return false;
     }
 
+    /**
+     * @return null if the installation can not be planned, leaving it up to Jenkins.
+     */
+    private @CheckForNull InstallationPlanner.Plan plan(PluginSpec... specs) {
+        try {
+            InstallationPlanner.Plan plan = new InstallationPlanner(ucmd.get(jenkins))
+                    .plan(Arrays.asList(specs), jenkins.getVersion(), jenkins.getInstalledPlugins())
+            ;
+            LOGGER.info("Installation plan: " + plan);
+            return plan;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Unable to plan installation of " + Arrays.toString(specs), ex);
+            return null;
+        }
+    }
+
     private void tickPluginToInstall(PluginSpec spec) {
         String name = spec.getName();
         check(find(by.xpath("//input[starts-with(@name,'plugin.%s.')]", name)));
@@ -300,6 +338,7 @@ public class PluginManager extends ContainerPageObject {
         post.setEntity(e);
 
         HttpResponse response = httpclient.execute(post);
+        jenkins.invalidateInstalledPlugins();
         if (response.getStatusLine().getStatusCode() >= 400) {
             throw new IOException("Failed to upload plugin: " + response.getStatusLine() + "\n" +
                     IOUtils.toString(response.getEntity().getContent()));
@@ -331,5 +370,6 @@ public class PluginManager extends ContainerPageObject {
     public void enablePlugin(String pluginName, boolean state) {
         visit("installed");
         check(find(by.url("plugin/" + pluginName)), state);
+        jenkins.invalidateInstalledPlugins();
     }
 }
@@ -0,0 +1,151 @@
+package org.jenkinsci.test.acceptance.po;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.test.acceptance.junit.Wait;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+
+/**
+ * Defines many {@link DumbSlave}s at once, without the UI.
+ *
+ * <p>
+ * All the agents are added by a single script run on Jenkins and start connecting concurrently. By default, they are
+ * launched as local processes of the Jenkins host, running the remoting jar of Jenkins itself. Waiting for them checks
+ * all at once, with a single query of the computer list per poll.
+ *
+ * <pre>
+ *     List&lt;DumbSlave&gt; agents = jenkins.slaves.batch(20).labels("linux").createAndWait();
+ * </pre>
+ */
+public class SlaveBatch {
+    private static final String MISSING_COMMAND_LAUNCHER = "command-launcher missing";
+
+    private final Jenkins jenkins;
+    private final int count;
+    private int executors = 1;
+    private String labels = "";
+    private String launcher;
+
+    /*package*/ SlaveBatch(Jenkins jenkins, int count) {
+        if (count < 1) throw new IllegalArgumentException("No agents to create: " + count);
+        this.jenkins = jenkins;
+        this.count = count;
+    }
+
+    public SlaveBatch executors(int executors) {
+        this.executors = executors;
+        return this;
+    }
+
+    public SlaveBatch labels(String labels) {
+        this.labels = labels;
+        return this;
+    }
+
+    /**
+     * Groovy expression evaluating to the <tt>ComputerLauncher</tt> of each agent.
+     *
+     * It can refer to <tt>name</tt> and <tt>fs</tt> of the agent being defined. Local launcher by default.
+     */
+    public SlaveBatch launcher(String groovy) {
+        this.launcher = groovy;
+        return this;
+    }
+
+    /**
+     * Define the agents and let them start connecting.
+     */
+    public List<DumbSlave> create() {
+        List<DumbSlave> slaves = new ArrayList<>();
+        StringBuilder agents = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String name = PageObject.createRandomName();
+            slaves.add(new DumbSlave(jenkins, name));
+            agents.append(agents.length() == 0 ? "" : ", ")
+                    .append(literal(name)).append(": ").append(literal(jenkins.slaves.remoteFs(name)));
+        }
+
+        String script = script(agents.toString());
+        String result = jenkins.runScript("%s", script);
+        if (MISSING_COMMAND_LAUNCHER.equals(result)) {
+            // Split from core
+            try {
+                jenkins.getPluginManager().installPlugins(new PluginSpec("command-launcher", null));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            result = jenkins.runScript("%s", script);
+        }
+        if (!String.valueOf(count).equals(result)) {
+            throw new AssertionError("Failed to create agents: " + result);
+        }
+        return slaves;
+    }
+
+    /**
+     * Define the agents and wait for all of them to come online.
+     */
+    public List<DumbSlave> createAndWait() {
+        return waitUntilOnline(jenkins, create());
+    }
+
+    /**
+     * Wait for all the slaves to come online, checking them all at once.
+     */
+    public static <S extends Slave> List<S> waitUntilOnline(Jenkins jenkins, final List<S> slaves) {
+        final ComputerSet computers = new ComputerSet(jenkins);
+        final Set<String> pending = new TreeSet<>();
+        for (Slave s : slaves) {
+            pending.add(s.getName());
+        }
+        jenkins.waitFor().withTimeout(slaves.size() * 10 + 120, TimeUnit.SECONDS)
+                .until(new Wait.Predicate<Boolean>() {
+                    @Override public Boolean apply() {
+                        pending.removeAll(computers.getOnline());
+                        return pending.isEmpty();
+                    }
+
+                    @Override public String diagnose(Throwable lastException, String message) {
+                        return "Agents still offline: " + pending;
+                    }
+                });
+        return slaves;
+    }
+
+    private String script(String agents) {
+        String launcherExpression = launcher != null
+                ? launcher
+                : "commandLauncher.newInstance('\"' + javaBin + '\" -jar \"' + jar + '\"')"
+        ;
+        return "import hudson.model.Node\n" +
+                "import hudson.slaves.*\n" +
+                "def j = jenkins.model.Jenkins.instance\n" +
+                "def jar = hudson.remoting.Which.jarFile(hudson.remoting.Launcher).absolutePath\n" +
+                "def javaBin = new File(System.getProperty('java.home'), 'bin/java').absolutePath\n" +
+                "def commandLauncher\n" +
+                "try {\n" +
+                "  commandLauncher = j.pluginManager.uberClassLoader.loadClass('hudson.slaves.CommandLauncher')\n" +
+                "} catch (ClassNotFoundException e) {\n" +
+                "  if (" + (launcher == null) + ") return " + literal(MISSING_COMMAND_LAUNCHER) + "\n" +
+                "}\n" +
+                "def nodes = [" + agents + "].collect { name, fs ->\n" +
+                "  new DumbSlave(name, '', fs, '" + executors + "', Node.Mode.NORMAL, " + literal(labels) + ", " + launcherExpression + ", RetentionStrategy.INSTANCE, [])\n" +
+                "}\n" +
+                "j.setNodes(j.nodes + nodes)\n" +
+                "nodes.each { j.getComputer(it.nodeName)?.connect(false) }\n" +
+                "return nodes.size()\n"
+        ;
+    }
+
+    /**
+     * Single quoted groovy string.
+     */
+    /*package*/ static String literal(String s) {
+        return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+}
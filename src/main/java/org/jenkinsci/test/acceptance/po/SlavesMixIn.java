@@ -43,7 +43,14 @@ public class SlavesMixIn extends MixIn {
         return s;
     }
 
-    private String remoteFs(String name) {
+    /**
+     * Defines given number of agents at once, without the UI.
+     */
+    public SlaveBatch batch(int count) {
+        return new SlaveBatch(jenkins, count);
+    }
+
+    /*package*/ String remoteFs(String name) {
         String base = System.getProperty("java.io.tmpdir");
         if (System.getenv("SLAVE_FS_BASE") != null) {
             base = System.getenv("SLAVE_FS_BASE");
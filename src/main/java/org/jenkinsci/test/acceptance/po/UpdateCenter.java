@@ -3,11 +3,9 @@ package org.jenkinsci.test.acceptance.po;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.Iterables;
 import org.apache.commons.lang3.ArrayUtils;
-import org.jenkinsci.test.acceptance.Matchers;
 import org.jenkinsci.test.acceptance.update_center.PluginSpec;
 
 import static java.util.Arrays.*;
-import static org.hamcrest.Matchers.not;
 import static org.junit.Assume.assumeTrue;
 
 /**
@@ -59,24 +57,43 @@ public class UpdateCenter extends ContainerPageObject {
         throw new AssertionError("No record of installation being attempted for "+pluginShortName+"\n"+ asList(jobs));
     }
 
+    /**
+     * Id of the most recent UC job, or -1 if there is none.
+     *
+     * Recorded before installing plugins so the jobs of earlier installations can be told apart.
+     */
+    public int getLastJobId() {
+        int last = -1;
+        for (JsonNode job : getJson("tree=jobs[id]").get("jobs")) {
+            last = Math.max(last, job.get("id").asInt());
+        }
+        return last;
+    }
+
     /**
      * Wait for the plugin installation is done.
      *
-     * Wait for all UC jobs are completed. If some of them fail or require restart, Jenkins is restarted.
+     * Wait for all UC jobs are completed. If some of them require restart, Jenkins is restarted.
      * If some of the plugins is not installed after that or the version is older than expected, the waiting is considered failed.
      *
      * @return true if Jenkins ware restarted to install plugins.
      * @throws InstallationFailedException If the installation has failed.
+     * @see InstallationMonitor
+     * @see #waitForInstallationToComplete(int, PluginSpec...)
      */
     public boolean waitForInstallationToComplete(final PluginSpec... specs) throws InstallationFailedException {
-        open();
-        // Wait for all plugins to get installed
-        waitFor(driver, not(Matchers.hasElement(by.xpath("//*[@id='log']//*[contains(.,'Pending') or contains(.,'Installing')]"))), 300);
+        return waitForInstallationToComplete(-1, specs);
+    }
 
-        String uc = getPageContent(driver);
-        // "IOException: Failed to dynamically deploy this plugin" can be reported (by at least some Jenkins versions)
-        // in case update of plugin dependency is needed (and is in fact performed in sibling UC job). Restart should fix that.
-        boolean restartRequired = uc.contains("restarted") || uc.contains("Failure");
+    /**
+     * Wait for the plugin installation is done, ignoring UC jobs of earlier installations.
+     *
+     * @param lastJobId Id of the last UC job before the installation started, see {@link #getLastJobId()}.
+     * @return true if Jenkins ware restarted to install plugins.
+     * @throws InstallationFailedException If the installation has failed.
+     */
+    public boolean waitForInstallationToComplete(int lastJobId, final PluginSpec... specs) throws InstallationFailedException {
+        boolean restartRequired = new InstallationMonitor(this, lastJobId).waitForCompletion(300);
 
         Jenkins jenkins = getJenkins();
         if (restartRequired) {
@@ -85,8 +102,10 @@ public class UpdateCenter extends ContainerPageObject {
             jenkins.restart();
         }
 
+        jenkins.invalidateInstalledPlugins();
+        InstalledPlugins installed = jenkins.getInstalledPlugins();
         for (PluginSpec spec : specs) {
-            Plugin plugin = jenkins.getPlugin(spec.getName());
+            InstalledPlugins.InstalledPlugin plugin = installed.get(spec.getName());
             if (plugin == null) {
                 throw new InstallationFailedException("Plugin " + spec.getName() + " not installed, restarted " + restartRequired);
             }
@@ -21,6 +21,7 @@ public class ViewsMixIn extends MixIn {
     }
 
     public <T extends View> T create(final Class<T> type, String name) {
+        name = qualify(name);
 
         final Finder<WebElement> finder = new Finder<WebElement>() {
             @Override protected WebElement find(String caption) {
@@ -56,6 +57,16 @@ public class ViewsMixIn extends MixIn {
      * @return page object of a view to the corresponding type and name.
      */
     public <T extends View> T get(Class<T> type, String name) {
+        name = qualify(name);
         return newInstance(type, injector, url("view/%s/", name));
     }
+
+    /**
+     * Name of the view in the {@link ItemNamespace} of the test, unless nested in a folder or another view.
+     */
+    private String qualify(String name) {
+        if (!(getContext() instanceof Jenkins)) return name;
+        ItemNamespace namespace = injector.getInstance(ItemNamespace.class);
+        return namespace == null ? name : namespace.apply(name);
+    }
 }
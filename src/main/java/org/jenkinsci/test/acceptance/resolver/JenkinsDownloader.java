@@ -13,6 +13,9 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *
@@ -20,6 +23,8 @@ import java.net.URL;
  */
 public class JenkinsDownloader implements JenkinsResolver {
 
+    private static final Set<String> VERIFIED = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     private final String jenkinsWarLocation;
 
     @Inject(optional = true)
@@ -45,11 +50,15 @@ public class JenkinsDownloader implements JenkinsResolver {
                 // forget it!
             }
         }
+        // Checksum each remote copy once, it is not modified afterwards
+        String copy = machine.getPublicIpAddress() + ":" + path + ":" + jenkinsMd5Sum;
         try (Ssh ssh = machine.connect()) {
-            if (!remoteFileExists(ssh.getConnection(), path, jenkinsMd5Sum)) {
+            if (!remoteFileExists(ssh.getConnection(), path, VERIFIED.contains(copy) ? null : jenkinsMd5Sum)) {
                 ssh.executeRemoteCommand("mkdir -p " + Ssh.escape(FileUtils.dirname(path)));
                 ssh.executeRemoteCommand(
                         String.format("wget -q -O %s %s", Ssh.escape(path), Ssh.escape(jenkinsWarLocation)));
+            } else if (jenkinsMd5Sum != null) {
+                VERIFIED.add(copy);
             }
         }
     }
@@ -3,13 +3,13 @@ package org.jenkinsci.test.acceptance.resolver;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import org.jenkinsci.test.acceptance.machine.Machine;
-import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshKeyPair;
 
 import java.io.File;
 import java.io.IOException;
 
 /**
- * Uploads war from local to remote
+ * Uploads war from local to remote, through {@link RemoteArtifactCache}
  *
  * @author Vivek Pandey
  * @author Kohsuke Kawaguchi
@@ -17,9 +17,8 @@ import java.io.IOException;
 public class JenkinsUploader implements JenkinsResolver {
     File war;
 
-    @Inject
-    @Named("jenkins_md5_sum")
-    private String jenkinsMd5Sum;
+    @Inject(optional = true)
+    private SshKeyPair keyPair;
 
 
     @Inject
@@ -32,11 +31,8 @@ public class JenkinsUploader implements JenkinsResolver {
 
     @Override
     public void materialize(Machine machine, String path) {
-        try (Ssh ssh = machine.connect()){
-            File target = new File(path);
-            if(!JenkinsDownloader.remoteFileExists(ssh.getConnection(),path,jenkinsMd5Sum)){
-                ssh.copyTo(war.getPath(), target.getName(), target.getParent());
-            }
+        try {
+            new RemoteArtifactCache(machine, keyPair == null ? null : keyPair.privateKey).materialize(war, "jenkins.war", path);
         } catch (IOException e) {
             throw new AssertionError("Failed to copy "+war+" into "+path,e);
         }
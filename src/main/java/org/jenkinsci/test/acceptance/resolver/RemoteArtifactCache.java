@@ -0,0 +1,218 @@
+package org.jenkinsci.test.acceptance.resolver;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.machine.Machine;
+import org.jenkinsci.test.acceptance.utils.FileDigest;
+import org.jenkinsci.utils.process.CommandBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content addressed cache of local files on a {@link Machine}.
+ *
+ * <p>
+ * Files are stored as <tt>kind-sha256</tt>, so a file the machine already holds is found by a single <tt>stat</tt>,
+ * using the {@linkplain FileDigest locally cached digest} instead of checksumming the remote copy. A missing file is
+ * transferred by <tt>rsync</tt>, compressed, using the latest file of the same kind as a basis so only changed blocks
+ * are sent, and falls back to SCP when <tt>rsync</tt> or the private key is not available. The transferred file is
+ * verified against the local digest before it is admitted to the cache. The {@link #KEEP} most recently used files of
+ * each kind are kept.
+ *
+ * <p>
+ * Several tenants of a machine can share the cache. Admitting a file, pruning and {@linkplain #materialize linking}
+ * an entry take a lock per kind with <tt>flock</tt>, so an entry is never pruned while it is being linked.
+ */
+public class RemoteArtifactCache {
+    /*package*/ static final String DIR = JenkinsResolver.JENKINS_TEMP_DIR + "cache/";
+    private static final int KEEP = 3;
+    private static final Pattern BYTES_SENT = Pattern.compile("Total bytes sent: ([\\d,.]+)");
+
+    private static volatile Boolean localRsync;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong transfers = new AtomicLong();
+    private static final AtomicLong bytesTotal = new AtomicLong();
+    private static final AtomicLong bytesSent = new AtomicLong();
+
+    private final Machine machine;
+    private final File privateKey;
+
+    /**
+     * @param privateKey Key to run <tt>rsync</tt> over ssh with, SCP is used without it.
+     */
+    public RemoteArtifactCache(Machine machine, @CheckForNull File privateKey) {
+        this.machine = machine;
+        this.privateKey = privateKey;
+    }
+
+    /**
+     * Make sure the machine holds the file.
+     *
+     * @param kind Files of the same kind are used as a basis for delta transfers, like <tt>jenkins.war</tt>.
+     * @return Remote path of the cached copy, relative to the home directory. Not to be modified.
+     */
+    public String put(File local, String kind) throws IOException {
+        String digest = FileDigest.of(local).getSha256Hex();
+        String entry = DIR + kind + "-" + digest;
+        try (Ssh ssh = machine.connect()) {
+            // Touched so pruning keeps the most reused files
+            if (ssh.getConnection().exec("test -f " + Ssh.escape(entry) + " && touch -c " + Ssh.escape(entry), System.out) == 0) {
+                hits.incrementAndGet();
+                logger.info("{} already cached on {} as {}", local, machine.getPublicIpAddress(), entry);
+                return entry;
+            }
+
+            // Unique, in case more tenants of the machine cache the same file at once
+            String incoming = DIR + ".incoming-" + kind + "-" + digest + "-" + UUID.randomUUID();
+            String latest = DIR + kind + ".latest";
+            // Seed the transfer with the previous version, if any
+            ssh.executeRemoteCommand(String.format("mkdir -p %s && (cp -f %s %s 2>/dev/null || true)",
+                    Ssh.escape(DIR), Ssh.escape(latest), Ssh.escape(incoming)));
+
+            long start = System.nanoTime();
+            long sent = privateKey != null && hasRsync(ssh) ? rsync(local, incoming) : -1;
+            String method = "rsync";
+            if (sent < 0) {
+                ssh.copyTo(local.getPath(), FileUtils.filename(incoming), FileUtils.dirname(incoming));
+                sent = local.length();
+                method = "scp";
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ssh.getConnection().exec("sha256sum " + Ssh.escape(incoming), out);
+            if (!out.toString("UTF-8").startsWith(digest)) {
+                ssh.getConnection().exec("rm -f " + Ssh.escape(incoming), System.out);
+                throw new IOException(String.format("Checksum of %s on %s does not match %s", incoming, machine.getPublicIpAddress(), local));
+            }
+            ssh.executeRemoteCommand(locked(kind, String.format(
+                    "mv -f %1$s %2$s && ln -sfn %3$s %4$s && (ls -t %5$s | tail -n +%6$d | xargs rm -f)",
+                    Ssh.escape(incoming), Ssh.escape(entry), Ssh.escape(FileUtils.filename(entry)), Ssh.escape(latest),
+                    Ssh.escape(DIR) + Ssh.escape(kind) + "-*", KEEP + 1
+            )));
+
+            transfers.incrementAndGet();
+            bytesTotal.addAndGet(local.length());
+            bytesSent.addAndGet(sent);
+            logger.info(String.format("Cached %s on %s by %s, sent %d of %d bytes in %d ms; %s",
+                    local, machine.getPublicIpAddress(), method, sent, local.length(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), stats()
+            ));
+            return entry;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted caching " + local, e);
+        }
+    }
+
+    /**
+     * Place the file at given remote path, through the cache.
+     *
+     * The file at the path stays intact even when the cache entry is pruned later.
+     */
+    public void materialize(File local, String kind, String path) throws IOException {
+        for (int attempt = 0;; attempt++) {
+            String entry = put(local, kind);
+            try (Ssh ssh = machine.connect()) {
+                // Hard link when possible, files in cache are never modified in place
+                int exit = ssh.getConnection().exec(locked(kind, String.format(
+                        "test -f %3$s && mkdir -p %1$s && rm -f %2$s && (ln %3$s %2$s || cp %3$s %2$s)",
+                        Ssh.escape(FileUtils.dirname(path)), Ssh.escape(path), Ssh.escape(entry)
+                )), System.out);
+                if (exit == 0) return;
+                if (attempt > 0) {
+                    throw new IOException(String.format("Failed to place %s at %s on %s", entry, path, machine.getPublicIpAddress()));
+                }
+                // Pruned by another tenant since it was put
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted placing " + local, e);
+            }
+        }
+    }
+
+    /**
+     * Run the command holding the lock of given kind of files.
+     */
+    private static String locked(String kind, String command) {
+        return String.format("mkdir -p %s && flock %s sh -c %s",
+                Ssh.escape(DIR), Ssh.escape(DIR + "." + kind + ".lock"), Ssh.escape(command)
+        );
+    }
+
+    private static boolean hasRsync(Ssh ssh) throws IOException, InterruptedException {
+        if (ssh.getConnection().exec("command -v rsync > /dev/null", System.out) != 0) {
+            return false;
+        }
+        Boolean local = localRsync;
+        if (local == null) {
+            localRsync = local = new CommandBuilder("which", "rsync").system() == 0;
+        }
+        return local;
+    }
+
+    /**
+     * @return Bytes sent, or -1 if rsync failed.
+     */
+    private long rsync(File local, String remote) throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(
+                "rsync", "--compress", "--inplace", "--no-whole-file", "--stats",
+                "-e", "ssh -i " + privateKey.getAbsolutePath() + " -oStrictHostKeyChecking=no -oBatchMode=yes",
+                local.getAbsolutePath(),
+                String.format("%s@%s:%s", machine.getUser(), machine.getPublicIpAddress(), remote)
+        ).redirectErrorStream(true);
+        Process p = pb.start();
+        p.getOutputStream().close();
+
+        long sent = 0;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                output.append(line).append('\n');
+                Matcher m = BYTES_SENT.matcher(line);
+                if (m.find()) {
+                    sent = Long.parseLong(m.group(1).replaceAll("[,.]", ""));
+                }
+            }
+        }
+        if (p.waitFor() != 0) {
+            logger.warn("rsync of {} failed, falling back to scp:\n{}", local, output);
+            return -1;
+        }
+        return sent;
+    }
+
+    /**
+     * Cache hits and how much transfers saved.
+     */
+    public static String stats() {
+        long total = bytesTotal.get();
+        return String.format("remote artifact cache: %d hits, %d transfers sending %d of %d bytes (%d%%)",
+                hits.get(), transfers.get(), bytesSent.get(), total, total == 0 ? 0 : bytesSent.get() * 100 / total
+        );
+    }
+
+    /*package*/ static long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /*package*/ static long getHits() {
+        return hits.get();
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteArtifactCache.class);
+}
@@ -0,0 +1,270 @@
+package org.jenkinsci.test.acceptance.selenium;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.ClassUtils;
+import org.jenkinsci.test.acceptance.guice.TestScope;
+import org.jenkinsci.test.acceptance.utils.SystemEnvironmentVariables;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.AbstractWebDriverEventListener;
+
+/**
+ * Records every WebDriver command issued by a test together with its duration and the page object method that
+ * issued it.
+ *
+ * <p>
+ * Driver level commands (<tt>findElement(s)</tt>, <tt>executeScript</tt>, <tt>getPageSource</tt>, navigation) are
+ * captured by {@link #wrap(WebDriver) wrapping} the driver, element level ones (click, sendKeys, nested finds)
+ * through the {@link org.openqa.selenium.support.events.WebDriverEventListener} callbacks. Commands sent by other
+ * listeners, such as the page checks of {@link SanityChecker}, are attributed to the listener.
+ *
+ * <p>
+ * Tracing is off by default, set <tt>WEBDRIVER_TRACE=true</tt> to turn it on.
+ *
+ * @see CommandTracerRule
+ */
+@TestScope
+public class CommandTracer extends AbstractWebDriverEventListener {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(
+            SystemEnvironmentVariables.getPropertyVariableOrEnvironment("WEBDRIVER_TRACE", "false").trim()
+    );
+
+    /**
+     * Frames that are never reported as the caller as they are only passing the command through.
+     *
+     * Other listeners of the driver, like {@link SanityChecker}, are not among them so the commands they issue are
+     * reported on their own rather than added to the cost of the page object method that triggered them.
+     */
+    private static final String[] TRANSPARENT_FRAMES = {
+            "java.", "javax.", "sun.", "com.sun.", "jdk.", "com.google.", "org.openqa.", "org.junit.",
+            CommandTracer.class.getName() + "$",
+            "org.jenkinsci.test.acceptance.po.CapybaraPortingLayerImpl",
+            "org.jenkinsci.test.acceptance.po.Control",
+            "org.jenkinsci.test.acceptance.junit.Wait",
+    };
+
+    private final Map<String, Cost> costs = new HashMap<>();
+
+    private long clickStarted, changeStarted, findStarted;
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Decorate driver so its commands are recorded.
+     */
+    public WebDriver wrap(final WebDriver driver) {
+        List<Class<?>> interfaces = ClassUtils.getAllInterfaces(driver.getClass());
+        return (WebDriver) Proxy.newProxyInstance(
+                WebDriver.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[interfaces.size()]),
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        long start = System.nanoTime();
+                        try {
+                            return method.invoke(driver, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            String command = commandName(method);
+                            if (command != null) {
+                                record(command, System.nanoTime() - start);
+                            }
+                        }
+                    }
+                }
+        );
+    }
+
+    private static String commandName(Method method) {
+        switch (method.getName()) {
+            case "findElement":
+            case "findElements":
+                return "find";
+            case "executeScript":
+            case "executeAsyncScript":
+                return "executeScript";
+            case "getPageSource":
+                return "getPageSource";
+            case "get":
+                return "navigate";
+            default:
+                return null; // Cheap or bookkeeping calls, not worth reporting
+        }
+    }
+
+    @Override
+    public void beforeClickOn(WebElement element, WebDriver driver) {
+        clickStarted = System.nanoTime();
+    }
+
+    @Override
+    public void afterClickOn(WebElement element, WebDriver driver) {
+        record("click", System.nanoTime() - clickStarted);
+    }
+
+    @Override
+    public void beforeChangeValueOf(WebElement element, WebDriver driver) {
+        changeStarted = System.nanoTime();
+    }
+
+    @Override
+    public void afterChangeValueOf(WebElement element, WebDriver driver) {
+        record("sendKeys", System.nanoTime() - changeStarted);
+    }
+
+    @Override
+    public void beforeFindBy(By by, WebElement element, WebDriver driver) {
+        findStarted = System.nanoTime();
+    }
+
+    @Override
+    public void afterFindBy(By by, WebElement element, WebDriver driver) {
+        // Searches from driver are recorded by the wrapper already
+        if (element != null) {
+            record("find", System.nanoTime() - findStarted);
+        }
+    }
+
+    /*package*/ synchronized void record(String command, long nanos) {
+        String key = caller() + " " + command;
+        Cost cost = costs.get(key);
+        if (cost == null) {
+            costs.put(key, cost = new Cost(key));
+        }
+        cost.add(nanos);
+    }
+
+    /**
+     * Identify the harness method on whose behalf the command was sent.
+     */
+    private static String caller() {
+        for (StackTraceElement frame: new Throwable().getStackTrace()) {
+            if (!isTransparent(frame.getClassName())) {
+                return frame.getClassName() + "." + frame.getMethodName();
+            }
+        }
+        return "<unknown>";
+    }
+
+    private static boolean isTransparent(String className) {
+        if (className.equals(CommandTracer.class.getName())) return true;
+        for (String prefix: TRANSPARENT_FRAMES) {
+            if (className.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Costs recorded so far, most expensive first.
+     */
+    public synchronized List<Cost> getCosts() {
+        List<Cost> ret = new ArrayList<>(costs.size());
+        for (Cost c: costs.values()) {
+            ret.add(c.copy());
+        }
+        Collections.sort(ret, Cost.BY_TOTAL_TIME);
+        return ret;
+    }
+
+    /**
+     * Render the profile of the test.
+     */
+    public String report() {
+        List<Cost> costs = getCosts();
+        long count = 0, nanos = 0;
+        for (Cost c: costs) {
+            count += c.count;
+            nanos += c.nanos;
+        }
+
+        StringWriter out = new StringWriter();
+        PrintWriter pw = new PrintWriter(out);
+        pw.printf("%d WebDriver commands taking %d ms%n%n", count, TimeUnit.NANOSECONDS.toMillis(nanos));
+        Cost.printTable(pw, costs);
+        pw.flush();
+        return out.toString();
+    }
+
+    /**
+     * Accumulated cost of one command kind issued from one place.
+     */
+    public static final class Cost {
+        /*package*/ static final Comparator<Cost> BY_TOTAL_TIME = new Comparator<Cost>() {
+            @Override
+            public int compare(Cost o1, Cost o2) {
+                return Long.compare(o2.nanos, o1.nanos);
+            }
+        };
+
+        private final String key;
+        private long count;
+        private long nanos;
+        private long maxNanos;
+
+        /*package*/ Cost(String key) {
+            this.key = key;
+        }
+
+        /*package*/ void add(long nanos) {
+            count++;
+            this.nanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        /*package*/ void add(Cost other) {
+            count += other.count;
+            nanos += other.nanos;
+            maxNanos = Math.max(maxNanos, other.maxNanos);
+        }
+
+        /*package*/ Cost copy() {
+            Cost c = new Cost(key);
+            c.add(this);
+            return c;
+        }
+
+        /**
+         * Calling method and command name separated by space.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        }
+
+        /*package*/ static void printTable(PrintWriter pw, List<Cost> costs) {
+            pw.printf("%10s %8s %8s  %s%n", "total[ms]", "count", "max[ms]", "caller command");
+            for (Cost c: costs) {
+                pw.printf("%10d %8d %8d  %s%n", c.getTotalMillis(), c.count, c.getMaxMillis(), c.key);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jenkinsci.test.acceptance.selenium;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.junit.FailureDiagnostics;
+import org.jenkinsci.test.acceptance.junit.GlobalRule;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores WebDriver command profile collected by {@link CommandTracer} when test completes.
+ *
+ * Per-test profile is written to diagnostics as <tt>webdriver-trace.txt</tt>, costs of all tests executed by the JVM
+ * are aggregated in <tt>target/webdriver-trace-summary.txt</tt>.
+ */
+@GlobalRule
+public class CommandTracerRule extends TestWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CommandTracerRule.class);
+
+    /*package*/ static File SUMMARY = new File("target/webdriver-trace-summary.txt");
+
+    private static final Map<String, CommandTracer.Cost> suite = new HashMap<>();
+
+    private final CommandTracer tracer;
+    private final FailureDiagnostics diagnostics;
+
+    @Inject
+    public CommandTracerRule(CommandTracer tracer, FailureDiagnostics diagnostics) {
+        this.tracer = tracer;
+        this.diagnostics = diagnostics;
+    }
+
+    @Override
+    protected void finished(Description description) {
+        if (!CommandTracer.isEnabled()) return;
+
+        List<CommandTracer.Cost> costs = tracer.getCosts();
+        if (costs.isEmpty()) return;
+
+        diagnostics.write("webdriver-trace.txt", tracer.report());
+        updateSummary(costs);
+    }
+
+    private static void updateSummary(List<CommandTracer.Cost> costs) {
+        List<CommandTracer.Cost> total;
+        synchronized (suite) {
+            for (CommandTracer.Cost c: costs) {
+                CommandTracer.Cost sum = suite.get(c.getKey());
+                if (sum == null) {
+                    suite.put(c.getKey(), c.copy());
+                } else {
+                    sum.add(c);
+                }
+            }
+
+            total = new ArrayList<>(suite.size());
+            for (CommandTracer.Cost c: suite.values()) {
+                total.add(c.copy());
+            }
+        }
+        Collections.sort(total, CommandTracer.Cost.BY_TOTAL_TIME);
+
+        // Rewritten after every test so the summary survives VM being killed
+        try (PrintWriter pw = new PrintWriter(SUMMARY, "UTF-8")) {
+            CommandTracer.Cost.printTable(pw, total);
+        } catch (IOException e) {
+            logger.warn("Unable to write WebDriver trace summary {}", SUMMARY, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.jenkinsci.test.acceptance.server;
+
+import hudson.remoting.Asynchronous;
+
+import java.io.IOException;
+
+import org.jenkinsci.test.acceptance.log.LogListener;
+
+/**
+ * Remote counterpart of {@link LogListener} receiving log lines in frames produced by {@link LogBatcher}.
+ *
+ * @see LogBatchReceiver
+ */
+public interface LogBatchListener {
+    /**
+     * Receives a frame of log lines encoded by {@link LogFrame}.
+     *
+     * Intentionally synchronous so the sender can not get ahead of the receiver by more than its window.
+     */
+    void processFrame(byte[] frame) throws IOException;
+
+    /**
+     * @see LogListener#processClose(Exception)
+     */
+    @Asynchronous
+    void processClose(Exception t);
+}
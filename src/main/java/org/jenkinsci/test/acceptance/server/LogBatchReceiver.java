@@ -0,0 +1,28 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.IOException;
+
+import org.jenkinsci.test.acceptance.log.LogListener;
+
+/**
+ * Unpacks frames sent by {@link LogBatcher} and feeds the lines to a {@link LogListener}.
+ */
+public class LogBatchReceiver implements LogBatchListener {
+    private final LogListener target;
+
+    public LogBatchReceiver(LogListener target) {
+        this.target = target;
+    }
+
+    @Override
+    public void processFrame(byte[] frame) throws IOException {
+        for (String line: LogFrame.decode(frame)) {
+            target.processLine(line);
+        }
+    }
+
+    @Override
+    public void processClose(Exception t) {
+        target.processClose(t);
+    }
+}
@@ -0,0 +1,227 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jenkinsci.test.acceptance.log.LogListener;
+
+/**
+ * {@link LogListener} that coalesces log lines into frames sent to a remote {@link LogBatchListener}.
+ *
+ * <p>
+ * A frame is sent once it holds {@code maxLines} lines or {@code maxBytes} characters, or when its oldest line is
+ * {@code maxDelay} milliseconds old, whatever comes first. Frames are sent by a dedicated thread one synchronous call
+ * at a time and at most {@code window} frames are queued, after that the producer waits. This is the flow control
+ * that prevents the log from flooding the channel on behalf of controller commands.
+ *
+ * @see LogBatchReceiver
+ */
+public class LogBatcher implements LogListener {
+    public static final int DEFAULT_MAX_LINES = 1000;
+    public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+    public static final long DEFAULT_MAX_DELAY = 100;
+    public static final int DEFAULT_WINDOW = 4;
+
+    private final LogBatchListener target;
+    private final int maxLines;
+    private final int maxBytes;
+    private final long maxDelay;
+    private final boolean compress;
+
+    /**
+     * Guards {@link #pending}, held while enqueueing so frames are queued in order.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<String> pending = new ArrayList<>();
+    private int pendingBytes;
+    private long pendingSince;
+
+    private final BlockingQueue<Object> frames;
+    private final Thread sender;
+
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong frameCount = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+
+    public LogBatcher(LogBatchListener target, int maxLines, int maxBytes, long maxDelay, int window, boolean compress) {
+        this.target = target;
+        this.maxLines = maxLines;
+        this.maxBytes = maxBytes;
+        this.maxDelay = maxDelay;
+        this.compress = compress;
+        this.frames = new ArrayBlockingQueue<>(window);
+
+        sender = new Thread(new Runnable() {
+            @Override public void run() {
+                send();
+            }
+        }, "Log batch sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    public LogBatcher(LogBatchListener target, boolean compress) {
+        this(target, DEFAULT_MAX_LINES, DEFAULT_MAX_BYTES, DEFAULT_MAX_DELAY, DEFAULT_WINDOW, compress);
+    }
+
+    @Override
+    public void processLine(String line) throws IOException {
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                pendingSince = System.nanoTime();
+            }
+            pending.add(line);
+            pendingBytes += line.length();
+            if (pending.size() >= maxLines || pendingBytes >= maxBytes) {
+                enqueuePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void processClose(Exception t) {
+        lock.lock();
+        try {
+            enqueuePending();
+            enqueue(new Close(t));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to send the last log frame", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called with {@link #lock} held.
+     */
+    private void enqueuePending() throws IOException {
+        if (pending.isEmpty()) return;
+
+        byte[] frame = LogFrame.encode(pending, compress);
+        lines.addAndGet(pending.size());
+        pending = new ArrayList<>();
+        pendingBytes = 0;
+        enqueue(frame);
+    }
+
+    private void enqueue(Object item) {
+        if (frames.offer(item)) return;
+
+        long start = System.nanoTime();
+        try {
+            frames.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Send frames that are too old, unless the producer is busy adding lines and will do it itself.
+     */
+    private void flushStale() {
+        if (!lock.tryLock()) return;
+        try {
+            if (!pending.isEmpty() && System.nanoTime() - pendingSince >= TimeUnit.MILLISECONDS.toNanos(maxDelay)) {
+                enqueuePending();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to encode log frame", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send() {
+        boolean failed = false;
+        while (true) {
+            Object item;
+            try {
+                item = frames.poll(maxDelay, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (item == null) {
+                flushStale();
+                continue;
+            }
+
+            if (item instanceof Close) {
+                if (!failed) {
+                    target.processClose(((Close) item).cause);
+                }
+                return;
+            }
+
+            if (failed) continue; // Keep draining not to block the producer
+
+            byte[] frame = (byte[]) item;
+            try {
+                target.processFrame(frame);
+                frameCount.incrementAndGet();
+                wireBytes.addAndGet(frame.length);
+            } catch (IOException|RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to forward log, discarding the rest", e);
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Lines encoded into frames.
+     */
+    public long getLines() {
+        return lines.get();
+    }
+
+    /**
+     * Frames delivered.
+     */
+    public long getFrames() {
+        return frameCount.get();
+    }
+
+    /**
+     * Size of frames delivered.
+     */
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    /**
+     * Time producer waited for the window to open.
+     */
+    public long getBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedNanos.get());
+    }
+
+    public String getStats() {
+        return String.format("lines=%d, frames=%d, wireBytes=%d, blocked=%dms",
+                getLines(), getFrames(), getWireBytes(), getBlockedMillis()
+        );
+    }
+
+    private static final class Close {
+        private final Exception cause;
+
+        private Close(Exception cause) {
+            this.cause = cause;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(LogBatcher.class.getName());
+}
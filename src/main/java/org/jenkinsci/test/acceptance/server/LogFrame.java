@@ -0,0 +1,84 @@
+package org.jenkinsci.test.acceptance.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Wire format of log line frames sent from {@link LogBatcher} to {@link LogBatchReceiver}.
+ *
+ * <p>
+ * Single flag byte followed by the number of lines and length-prefixed UTF-8 lines. The part after the flag is
+ * deflated when the flag says so.
+ */
+/*package*/ final class LogFrame {
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    /**
+     * Frames smaller than this do not benefit from compression.
+     */
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    private LogFrame() {}
+
+    /*package*/ static byte[] encode(List<String> lines, boolean compress) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeInt(lines.size());
+        for (String line: lines) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.flush();
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.size() + 1);
+        if (compress && payload.size() >= COMPRESSION_THRESHOLD) {
+            frame.write(DEFLATED);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(frame, deflater)) {
+                payload.writeTo(dos);
+            } finally {
+                deflater.end();
+            }
+        } else {
+            frame.write(PLAIN);
+            payload.writeTo(frame);
+        }
+        return frame.toByteArray();
+    }
+
+    /*package*/ static List<String> decode(byte[] frame) throws IOException {
+        InputStream payload = new ByteArrayInputStream(frame, 1, frame.length - 1);
+        switch (frame[0]) {
+            case PLAIN:
+                break;
+            case DEFLATED:
+                payload = new InflaterInputStream(payload);
+                break;
+            default:
+                throw new IOException("Unknown log frame type " + frame[0]);
+        }
+
+        try (DataInputStream in = new DataInputStream(payload)) {
+            int count = in.readInt();
+            List<String> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                lines.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return lines;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.jenkinsci.remoting.RoleChecker;
 import org.jenkinsci.test.acceptance.controller.IJenkinsController;
 import org.jenkinsci.test.acceptance.controller.JenkinsController;
 import org.jenkinsci.test.acceptance.controller.LocalController.LocalFactoryImpl;
+import org.jenkinsci.test.acceptance.log.JenkinsLogStore;
 import org.jenkinsci.test.acceptance.log.LogListenable;
 import org.jenkinsci.test.acceptance.log.LogListener;
 import org.jenkinsci.test.acceptance.log.LogSplitter;
@@ -37,6 +38,7 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
     private final File socket;
     private UnixSocketChannel conn;
     private final LogSplitter splitter = new LogSplitter();
+    private JenkinsLogStore store;
     private Channel channel;
     private IJenkinsController controller;
     private final List<byte[]> toUnpack = new LinkedList<>();
@@ -75,9 +77,16 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
             if (!isQuite) {
                 splitter.addLogListener(getLogPrinter());
             }
-
-            final LogListener l = channel.export(LogListener.class, splitter);
-            channel.call(new InstallLogger(controller,l));
+            store = new JenkinsLogStore(File.createTempFile("jenkins-pooled", ".log", new File(WORKSPACE)));
+            splitter.addLogListener(store);
+
+            if (LOG_BATCHING) {
+                final LogBatchListener l = channel.export(LogBatchListener.class, new LogBatchReceiver(splitter));
+                channel.call(new InstallBatchingLogger(controller, l, LOG_COMPRESSION));
+            } else {
+                final LogListener l = channel.export(LogListener.class, splitter);
+                channel.call(new InstallLogger(controller,l));
+            }
 
             for (byte[] content : toUnpack) {
                 controller.populateJenkinsHome(content, false);
@@ -112,6 +121,11 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
         }
     }
 
+    @Override
+    public JenkinsLogStore getLogStore() {
+        return store;
+    }
+
     @Override
     public URL getUrl() {
         if (url==null)
@@ -130,6 +144,13 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
             if (conn !=null)
                 conn.close();
             conn = null;
+            if (store != null) {
+                store.close();
+                if (!store.getFile().delete()) {
+                    store.getFile().deleteOnExit();
+                }
+                store = null;
+            }
         }
     }
 
@@ -148,6 +169,16 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
         }
     }
 
+    /**
+     * Forward Jenkins log from pool process in frames rather than line by line.
+     */
+    private static final boolean LOG_BATCHING = !"false".equals(getenv("JUT_LOG_BATCHING"));
+
+    /**
+     * Compress forwarded log frames.
+     */
+    private static final boolean LOG_COMPRESSION = "true".equals(getenv("JUT_LOG_COMPRESSION"));
+
     @Extension
     public static class FactoryImpl extends LocalFactoryImpl {
         @Inject Injector i;
@@ -190,4 +221,34 @@ public class PooledJenkinsController extends JenkinsController implements LogLis
 
         private static final long serialVersionUID = 1L;
     }
+
+    /**
+     * Runs on the pool server to install logger forwarding the log in frames.
+     */
+    private static class InstallBatchingLogger implements Callable<Void, IOException> {
+        private final IJenkinsController controller;
+        private final LogBatchListener l;
+        private final boolean compress;
+
+        private InstallBatchingLogger(IJenkinsController controller, LogBatchListener l, boolean compress) {
+            this.controller = controller;
+            this.l = l;
+            this.compress = compress;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            if (controller instanceof LogListenable) {
+                LogListenable ll = (LogListenable) controller;
+                ll.addLogListener(new LogBatcher(l, compress));
+            }
+            return null;
+        }
+
+        @Override
+        public void checkRoles(RoleChecker checker) throws SecurityException {
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
 }
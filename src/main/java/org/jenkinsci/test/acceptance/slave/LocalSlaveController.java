@@ -16,14 +16,7 @@ import java.util.concurrent.Future;
 public class LocalSlaveController extends SlaveController {
     @Override
     public Future<Slave> install(Jenkins jenkins) {
-        // Just to make sure the dumb slave is set up properly, we should seed it
-        // with a FS root and executors
-        final DumbSlave s = jenkins.slaves.create(DumbSlave.class);
-
-        s.asLocal();
-        s.save();
-
-        s.waitUntilOnline();
+        final DumbSlave s = jenkins.slaves.batch(1).createAndWait().get(0);
 
         BasicFuture<Slave> b = new BasicFuture<>(null);
         b.completed(s);
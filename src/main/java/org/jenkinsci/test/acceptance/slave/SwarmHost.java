@@ -0,0 +1,129 @@
+package org.jenkinsci.test.acceptance.slave;
+
+import hudson.remoting.Engine;
+import hudson.remoting.EngineListener;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM hosting several inbound agents of a {@link SwarmSlaveController}, one remoting {@link Engine} each.
+ *
+ * <p>
+ * Runs with the remoting jar served by Jenkins first on the classpath. Reports to the controller on standard output,
+ * one event per line:
+ *
+ * <pre>
+ *     connected &lt;name&gt; &lt;millis since engine start&gt;
+ *     failed &lt;name&gt; &lt;message&gt;
+ *     memory &lt;agents&gt; &lt;heap used&gt; &lt;resident set size or -1&gt;
+ * </pre>
+ *
+ * Usage: <tt>SwarmHost &lt;jenkins url&gt; &lt;file with a "name secret" line per agent&gt;</tt>
+ */
+public final class SwarmHost {
+    private static final PrintStream out = System.out;
+
+    public static void main(String[] args) throws Exception {
+        List<URL> urls = Collections.singletonList(new URL(args[0]));
+        List<String[]> agents = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(args[1]), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    agents.add(line.trim().split(" ", 2));
+                }
+            }
+        }
+
+        // Remoting logs to stderr, keep stdout for the events
+        System.setOut(System.err);
+
+        CountDownLatch connected = new CountDownLatch(agents.size());
+        for (String[] agent : agents) {
+            Engine engine = new Engine(new Listener(agent[0], connected), urls, agent[1], agent[0]);
+            engine.start();
+        }
+
+        connected.await(10, TimeUnit.MINUTES);
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime rt = Runtime.getRuntime();
+        report("memory %d %d %d", agents.size() - connected.getCount(), rt.totalMemory() - rt.freeMemory(), residentSetSize());
+        // The engine threads keep running until the controller destroys the process
+    }
+
+    private static synchronized void report(String format, Object... args) {
+        out.println(String.format(format, args));
+        out.flush();
+    }
+
+    /**
+     * @return Bytes, or -1 when not on Linux.
+     */
+    private static long residentSetSize() {
+        File status = new File("/proc/self/status");
+        if (!status.exists()) return -1;
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(status), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not reported
+        }
+        return -1;
+    }
+
+    private static final class Listener implements EngineListener {
+        private final String name;
+        private final CountDownLatch connected;
+        private final long start = System.nanoTime();
+        private boolean reported;
+
+        Listener(String name, CountDownLatch connected) {
+            this.name = name;
+            this.connected = connected;
+        }
+
+        @Override public void status(String msg) {
+            if (msg.equals("Connected") && !reported) {
+                reported = true;
+                report("connected %s %d", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                connected.countDown();
+            }
+        }
+
+        @Override public void status(String msg, Throwable t) {
+            status(msg);
+        }
+
+        @Override public void error(Throwable t) {
+            report("failed %s %s", name, String.valueOf(t).replace('\n', ' '));
+            if (!reported) {
+                reported = true;
+                connected.countDown();
+            }
+        }
+
+        @Override public void onDisconnect() {
+        }
+
+        @Override public void onReconnect() {
+        }
+    }
+}
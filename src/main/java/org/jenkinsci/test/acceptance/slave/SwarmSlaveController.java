@@ -0,0 +1,264 @@
+package org.jenkinsci.test.acceptance.slave;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.http.concurrent.BasicFuture;
+import org.jenkinsci.test.acceptance.po.DumbSlave;
+import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.Slave;
+import org.jenkinsci.test.acceptance.po.SlaveBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Brings up a swarm of lightweight inbound agents on the local box, for tests exercising Jenkins with many agents.
+ *
+ * <p>
+ * All the agents are defined by a single script, and several of them share a JVM: each {@link SwarmHost} process runs
+ * one remoting engine per agent, with the remoting jar served by Jenkins. Once the swarm is online, the connect
+ * latency of each agent, the memory of the agent JVMs per agent and the growth of the Jenkins heap per connected agent
+ * are logged, and available from {@link #getReport()}.
+ *
+ * <p>
+ * {@link #install(Jenkins)} brings up the whole swarm and returns its first agent, the rest are in {@link #getAgents()}.
+ *
+ * @see SwarmSlaveProvider
+ */
+public class SwarmSlaveController extends SlaveController {
+    private final int size;
+    private final int executors;
+    private final String labels;
+    private final int agentsPerJvm;
+
+    private final List<Process> hosts = new ArrayList<>();
+    private final List<Thread> readers = new ArrayList<>();
+    private final Map<String, Long> latencies = new ConcurrentHashMap<>();
+    private final AtomicLong hostHeap = new AtomicLong();
+    private final AtomicLong hostRss = new AtomicLong();
+    private final AtomicLong hostAgents = new AtomicLong();
+
+    private File dir;
+    private Jenkins jenkins;
+    private List<DumbSlave> agents = Collections.emptyList();
+    private String report;
+
+    public SwarmSlaveController(int size, int executors, String labels, int agentsPerJvm) {
+        if (agentsPerJvm < 1) throw new IllegalArgumentException("No agents per JVM: " + agentsPerJvm);
+        this.size = size;
+        this.executors = executors;
+        this.labels = labels;
+        this.agentsPerJvm = agentsPerJvm;
+    }
+
+    @Override
+    public synchronized Future<Slave> install(Jenkins jenkins) {
+        if (this.jenkins != null) throw new IllegalStateException("Swarm already installed on " + this.jenkins.url);
+        this.jenkins = jenkins;
+        try {
+            dir = Files.createTempDirectory("swarm").toFile();
+            File agentJar = new File(dir, "agent.jar");
+            FileUtils.copyURLToFile(jenkins.url("jnlpJars/slave.jar"), agentJar);
+
+            // Inbound agents need the TCP port
+            jenkins.runScript("def j = jenkins.model.Jenkins.instance; if (j.slaveAgentPort < 0) j.slaveAgentPort = 0");
+            long sutHeapBefore = sutHeap();
+
+            agents = jenkins.slaves.batch(size).executors(executors).labels(labels)
+                    .launcher("new JNLPLauncher(null, null)").create();
+            List<String> secrets = secrets();
+
+            long start = System.nanoTime();
+            for (int from = 0; from < secrets.size(); from += agentsPerJvm) {
+                launchHost(agentJar, secrets.subList(from, Math.min(from + agentsPerJvm, secrets.size())), from / agentsPerJvm);
+            }
+            SlaveBatch.waitUntilOnline(jenkins, agents);
+            long online = System.nanoTime() - start;
+
+            // Until the hosts report memory, a stuck one does not hold the rest up
+            long deadline = System.currentTimeMillis() + 60000;
+            for (Thread reader : readers) {
+                reader.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+            report = report(online, sutHeap() - sutHeapBefore);
+            logger.info(report);
+        } catch (IOException | URISyntaxException e) {
+            throw new AssertionError("Failed to start the swarm", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted starting the swarm", e);
+        }
+
+        BasicFuture<Slave> b = new BasicFuture<>(null);
+        b.completed(agents.get(0));
+        return b;
+    }
+
+    public synchronized List<DumbSlave> getAgents() {
+        return Collections.unmodifiableList(agents);
+    }
+
+    /**
+     * Connect latency and memory overhead of the swarm, null before it is installed.
+     */
+    public synchronized String getReport() {
+        return report;
+    }
+
+    /**
+     * Connect latency of each agent, in milliseconds from the start of its engine.
+     */
+    public Map<String, Long> getLatencies() {
+        return new TreeMap<>(latencies);
+    }
+
+    private List<String> secrets() {
+        StringBuilder names = new StringBuilder();
+        for (DumbSlave a : agents) {
+            names.append(names.length() == 0 ? "" : ",").append(a.getName());
+        }
+        String secrets = jenkins.runScript(
+                "def j = jenkins.model.Jenkins.instance\n" +
+                "'%s'.split(',').collect { it + ' ' + j.getComputer(it).jnlpMac }.join('\\n')",
+                names
+        );
+        List<String> lines = new ArrayList<>();
+        for (String line : secrets.split("\n")) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line.trim());
+            }
+        }
+        if (lines.size() != agents.size()) {
+            throw new AssertionError("Failed to obtain agent secrets: " + secrets);
+        }
+        return lines;
+    }
+
+    private void launchHost(File agentJar, List<String> secrets, int index) throws IOException, URISyntaxException {
+        File list = new File(dir, "agents-" + index);
+        FileUtils.writeLines(list, "UTF-8", secrets);
+        File classes = new File(SwarmHost.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        ProcessBuilder pb = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getAbsolutePath(),
+                // Small footprint, the agents are mostly idle
+                "-Xmx" + (64 + 2 * secrets.size()) + "m", "-XX:+UseSerialGC", "-XX:TieredStopAtLevel=1",
+                "-cp", agentJar.getAbsolutePath() + File.pathSeparator + classes.getAbsolutePath(),
+                SwarmHost.class.getName(), jenkins.url.toExternalForm(), list.getAbsolutePath()
+        ).redirectError(new File(dir, "host-" + index + ".log"));
+        final Process p = pb.start();
+        p.getOutputStream().close();
+        hosts.add(p);
+
+        Thread reader = new Thread("Swarm host " + index + " reader") {
+            @Override public void run() {
+                try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = r.readLine()) != null) {
+                        String[] event = line.split(" ", 3);
+                        switch (event[0]) {
+                        case "connected":
+                            latencies.put(event[1], Long.parseLong(event[2]));
+                            break;
+                        case "failed":
+                            logger.warn("Agent {} failed: {}", event[1], event[2]);
+                            break;
+                        case "memory":
+                            String[] memory = line.split(" ");
+                            hostAgents.addAndGet(Long.parseLong(memory[1]));
+                            hostHeap.addAndGet(Long.parseLong(memory[2]));
+                            hostRss.addAndGet(Math.max(0, Long.parseLong(memory[3])));
+                            return;
+                        default:
+                            logger.debug("Swarm host: {}", line);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to read from swarm host", e);
+                }
+            }
+        };
+        reader.setDaemon(true);
+        reader.start();
+        readers.add(reader);
+    }
+
+    /**
+     * Heap used by Jenkins after a full collection.
+     */
+    private long sutHeap() {
+        return Long.parseLong(jenkins.runScript(
+                "3.times { System.gc() }; def r = Runtime.runtime; r.totalMemory() - r.freeMemory()"
+        ).trim());
+    }
+
+    private String report(long onlineNanos, long sutHeapGrowth) {
+        List<Long> sorted = new ArrayList<>(latencies.values());
+        Collections.sort(sorted);
+        long agentsReported = Math.max(1, hostAgents.get());
+        return String.format(
+                "swarm of %d agents in %d JVMs online in %d ms; connect latency p50 %d ms, p90 %d ms, max %d ms; " +
+                "agent heap %d KB, RSS %d KB per agent; Jenkins heap +%d KB per connected agent",
+                agents.size(), hosts.size(), onlineNanos / 1000000,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 100),
+                hostHeap.get() / agentsReported / 1024, hostRss.get() / agentsReported / 1024,
+                sutHeapGrowth / agents.size() / 1024
+        );
+    }
+
+    /*package*/ static long percentile(List<Long> sorted, int percent) {
+        if (sorted.isEmpty()) return -1;
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Process p : hosts) {
+            p.destroy();
+        }
+        for (Process p : hosts) {
+            try {
+                p.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        hosts.clear();
+        if (jenkins != null && !agents.isEmpty()) {
+            StringBuilder names = new StringBuilder();
+            for (DumbSlave a : agents) {
+                names.append(names.length() == 0 ? "" : ",").append(a.getName());
+            }
+            try {
+                jenkins.runScript(
+                        "def j = jenkins.model.Jenkins.instance; def names = '%s'.split(',') as Set\n" +
+                        "j.setNodes(j.nodes.findAll { !names.contains(it.nodeName) })",
+                        names
+                );
+            } catch (RuntimeException e) {
+                logger.warn("Failed to remove the swarm agents, Jenkins might be gone already", e);
+            }
+        }
+        if (dir != null) {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SwarmSlaveController.class);
+}
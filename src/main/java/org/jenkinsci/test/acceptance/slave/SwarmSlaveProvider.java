@@ -0,0 +1,32 @@
+package org.jenkinsci.test.acceptance.slave;
+
+import com.google.inject.name.Named;
+
+import javax.inject.Singleton;
+
+/**
+ * Provides {@link SwarmSlaveController}s, each bringing up many lightweight agents on the local box.
+ */
+@Singleton
+public class SwarmSlaveProvider extends SlaveProvider {
+    @com.google.inject.Inject(optional = true)
+    @Named("swarmSize")
+    private int size = 100;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("swarmExecutors")
+    private int executors = 1;
+
+    @com.google.inject.Inject(optional = true)
+    @Named("swarmLabels")
+    private String labels = "swarm";
+
+    @com.google.inject.Inject(optional = true)
+    @Named("swarmAgentsPerJvm")
+    private int agentsPerJvm = 50;
+
+    @Override
+    public SlaveController create() {
+        return new SwarmSlaveController(size, executors, labels, agentsPerJvm);
+    }
+}
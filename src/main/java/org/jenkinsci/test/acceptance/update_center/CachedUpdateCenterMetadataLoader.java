@@ -2,15 +2,19 @@ package org.jenkinsci.test.acceptance.update_center;
 
 import com.cloudbees.sdk.extensibility.ExtensionList;
 import com.google.inject.Inject;
+import hudson.util.VersionNumber;
 import org.apache.commons.io.FileUtils;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 
+import javax.annotation.CheckForNull;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 /**
  * Parses update-center.json.html possibly from a cache and determine plugins to install.
@@ -20,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 @Singleton
 public class CachedUpdateCenterMetadataLoader implements UpdateCenterMetadataProvider {
     UpdateCenterMetadata metadata;
+    private VersionNumber metadataVersion;
 
     @Inject(optional=true) @Named("update_center_url_cache")
     File cacheBase = new File(System.getProperty("java.io.tmpdir"), "update-center");
@@ -32,8 +37,28 @@ public class CachedUpdateCenterMetadataLoader implements UpdateCenterMetadataPro
 
     @Override
     public UpdateCenterMetadata get(Jenkins jenkins) throws IOException {
-        if (metadata==null) {
-            String version = jenkins.getVersion().toString();
+        return get(jenkins.getVersion());
+    }
+
+    /**
+     * Core version of given <tt>jenkins.war</tt>, to get metadata before Jenkins is running.
+     *
+     * @return null if the version is not declared.
+     */
+    public static @CheckForNull VersionNumber getCoreVersion(File war) throws IOException {
+        try (JarFile jar = new JarFile(war)) {
+            Manifest manifest = jar.getManifest();
+            String version = manifest == null ? null : manifest.getMainAttributes().getValue("Jenkins-Version");
+            return version == null ? null : new VersionNumber(version);
+        }
+    }
+
+    /**
+     * Get metadata for given core version before Jenkins is running.
+     */
+    public synchronized UpdateCenterMetadata get(VersionNumber jenkinsVersion) throws IOException {
+        if (metadata==null || !jenkinsVersion.equals(metadataVersion)) {
+            String version = jenkinsVersion.toString();
             File cache = new File(cacheBase + "-" + version + ".jsonp");
             if (!cache.exists() || System.currentTimeMillis()-cache.lastModified() > TimeUnit.DAYS.toMillis(1)) {
                 // load cache
@@ -43,10 +68,11 @@ public class CachedUpdateCenterMetadataLoader implements UpdateCenterMetadataPro
             } else {
                 System.err.println("Using cached " + cache);
             }
-            metadata = UpdateCenterMetadata.parse(cache);
+            metadata = UpdateCenterIndex.load(cache);
             for (UpdateCenterMetadataDecorator decorator : decorators) {
                 decorator.decorate(metadata);
             }
+            metadataVersion = jenkinsVersion;
         }
         return metadata;
     }
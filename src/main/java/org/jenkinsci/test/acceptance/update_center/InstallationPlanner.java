@@ -0,0 +1,113 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.po.InstalledPlugins;
+import org.jenkinsci.test.acceptance.po.InstalledPlugins.InstalledPlugin;
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Splits plugin installation into plugins Jenkins can load dynamically and plugins that take effect after restart.
+ *
+ * <p>
+ * Jenkins can load a plugin without restart only if no version of it is installed and all its dependencies are
+ * active in sufficient version or loaded dynamically as well. Upgrades, and plugins depending on upgraded or inactive
+ * plugins, need a restart. Jenkins older than 1.442 can not load plugins dynamically at all. Once anything needs a
+ * restart, the whole installation should be done after a single restart rather than loading part of it dynamically.
+ */
+public class InstallationPlanner {
+    /*package*/ static final VersionNumber DYNAMIC_LOADING = new VersionNumber("1.442");
+
+    private final UpdateCenterMetadata ucm;
+
+    public InstallationPlanner(@Nonnull UpdateCenterMetadata ucm) {
+        this.ucm = ucm;
+    }
+
+    /**
+     * @throws UnableToResolveDependencies When the requested plugins can not be installed.
+     */
+    public @Nonnull Plan plan(
+            @Nonnull Collection<PluginSpec> specs, @Nonnull VersionNumber core, @Nonnull InstalledPlugins installed
+    ) throws UnableToResolveDependencies {
+        Map<String, PluginSpec> requested = new HashMap<>();
+        for (PluginSpec spec: specs) {
+            requested.put(spec.getName(), spec);
+        }
+
+        boolean supported = !core.isOlderThan(DYNAMIC_LOADING);
+        List<PluginMetadata> dynamic = new ArrayList<>();
+        List<PluginMetadata> restart = new ArrayList<>();
+        Set<String> afterRestart = new HashSet<>();
+        // Dependencies first
+        for (PluginMetadata p: new PluginResolver(ucm).resolve(specs, core, installed.getVersions())) {
+            InstalledPlugin current = installed.get(p.getName());
+            PluginSpec spec = requested.get(p.getName());
+            if (current != null && spec != null && (spec.getVersionNumber() == null || !current.getVersion().isOlderThan(spec.getVersionNumber()))) {
+                continue; // Requested and installed already
+            }
+
+            boolean needsRestart = !supported || current != null;
+            for (Dependency d: p.getDependencies()) {
+                InstalledPlugin dependency = installed.get(d.name);
+                if (afterRestart.contains(d.name) || (!d.optional && dependency != null && !dependency.isActive())) {
+                    needsRestart = true;
+                }
+            }
+
+            if (needsRestart) {
+                afterRestart.add(p.getName());
+                restart.add(p);
+            } else {
+                dynamic.add(p);
+            }
+        }
+        return new Plan(dynamic, restart);
+    }
+
+    public static final class Plan {
+        private final List<PluginMetadata> dynamic;
+        private final List<PluginMetadata> restart;
+
+        private Plan(List<PluginMetadata> dynamic, List<PluginMetadata> restart) {
+            this.dynamic = Collections.unmodifiableList(dynamic);
+            this.restart = Collections.unmodifiableList(restart);
+        }
+
+        /**
+         * Plugins that can be loaded without restart, in the order of installation.
+         */
+        public @Nonnull List<PluginMetadata> getDynamic() {
+            return dynamic;
+        }
+
+        /**
+         * Plugins that take effect after restart, in the order of installation.
+         */
+        public @Nonnull List<PluginMetadata> getRestartRequiring() {
+            return restart;
+        }
+
+        public boolean isRestartRequired() {
+            return !restart.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d plugins loaded dynamically %s, %d after restart %s",
+                    dynamic.size(), dynamic, restart.size(), restart
+            );
+        }
+    }
+}
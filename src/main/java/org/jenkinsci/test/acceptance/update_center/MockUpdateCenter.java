@@ -30,7 +30,9 @@ import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -57,6 +59,7 @@ import org.jenkinsci.test.acceptance.guice.AutoCleaned;
 import org.jenkinsci.test.acceptance.guice.TestScope;
 import org.jenkinsci.test.acceptance.po.Jenkins;
 import org.jenkinsci.test.acceptance.po.UpdateCenter;
+import org.jenkinsci.test.acceptance.utils.FileDigest;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -100,8 +103,10 @@ public class MockUpdateCenter implements AutoCleaned {
             return;
         }
         JSONObject all;
+        // Checksums advertised to Jenkins by plugin name, Jenkins refuses to install plugins not matching these
+        Map<String, String> sha1s = new HashMap<>();
         try {
-            all = new JSONObject(ucm.originalJSON);
+            all = new JSONObject(ucm.originalJSON());
             all.remove("signature");
             JSONObject plugins = all.getJSONObject("plugins");
             LOGGER.info(() -> "editing JSON with " + plugins.length() + " plugins to reflect " + ucm.plugins.size() + " possible overrides");
@@ -109,6 +114,8 @@ public class MockUpdateCenter implements AutoCleaned {
                 String name = meta.getName();
                 String version = meta.getVersion();
                 JSONObject plugin = plugins.optJSONObject(name);
+                // Served from the same release as upstream update center does so the checksums hold
+                boolean upstream = plugin != null && !(meta instanceof PluginMetadata.LocalOverride) && plugin.optString("version").equals(version);
                 if (plugin == null) {
                     LOGGER.log(Level.INFO, "adding plugin {0}", name);
                     plugin = new JSONObject().accumulate("name", name);
@@ -125,9 +132,25 @@ public class MockUpdateCenter implements AutoCleaned {
                         throw new AssertionError(x);
                     }
                 }).collect(Collectors.toList())));
-                plugin.remove("sha1");
+                if (meta instanceof PluginMetadata.LocalOverride) {
+                    // Local files are cheap to hash, the digests are cached for other tests
+                    FileDigest digest = FileDigest.of(meta.resolve(injector, version));
+                    plugin.put("sha1", digest.getSha1Base64());
+                    plugin.put("sha256", digest.getSha256Base64());
+                    plugin.remove("sha512");
+                } else if (!upstream) {
+                    // Not resolved yet, nor worth downloading just to hash it
+                    plugin.remove("sha1");
+                    plugin.remove("sha256");
+                    plugin.remove("sha512");
+                }
+                String sha1 = plugin.optString("sha1", null);
+                if (sha1 != null) {
+                    sha1s.put(name, sha1);
+                }
             }
-        } catch (JSONException x) {
+            LOGGER.info(() -> "serving checksums for " + sha1s.size() + " of " + ucm.plugins.size() + " plugins");
+        } catch (JSONException | IOException x) {
             LOGGER.log(Level.WARNING, "cannot prepare mock update center", x);
             return;
         }
@@ -152,6 +175,10 @@ public class MockUpdateCenter implements AutoCleaned {
             }
             File local = meta.resolve(injector, meta.getVersion());
             LOGGER.log(Level.INFO, "serving {0}", local);
+            String sha1 = sha1s.get(plugin);
+            if (sha1 != null && !sha1.equals(FileDigest.of(local).getSha1Base64())) {
+                LOGGER.log(Level.WARNING, "{0} does not match the checksum advertised for {1}, Jenkins will reject it", new Object[] {local, plugin});
+            }
             response.setStatusCode(HttpStatus.SC_OK);
             response.setEntity(new FileEntity(local));
         });
@@ -0,0 +1,151 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Injector;
+
+/**
+ * Resolves plugins into the local Maven repository ahead of time.
+ *
+ * <p>
+ * {@link MockUpdateCenter} resolves plugin files one by one as Jenkins asks for them, so the first test needing a
+ * plugin pays for the download inside its own timeout. This resolves the same files, transitive dependencies
+ * included, concurrently so later resolutions hit the local repository.
+ */
+public class PluginPrefetcher {
+    private final UpdateCenterMetadata ucm;
+    private final Injector injector;
+    private final int threads;
+
+    public PluginPrefetcher(UpdateCenterMetadata ucm, Injector injector, int threads) {
+        this.ucm = ucm;
+        this.injector = injector;
+        this.threads = threads;
+    }
+
+    /**
+     * Requested plugins and their mandatory dependencies as served by {@link MockUpdateCenter}.
+     *
+     * Plugins requested in a particular version are included in that version as well, as it is installed when the
+     * version in update center is too new for Jenkins. Plugins missing in update center are skipped, tests requiring
+     * them will be skipped anyway.
+     */
+    public Set<PluginMetadata> closure(Collection<PluginSpec> specs) {
+        Map<String, PluginMetadata> closure = new LinkedHashMap<>();
+        List<PluginMetadata> pinned = new ArrayList<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (PluginSpec spec: specs) {
+            queue.add(spec.getName());
+
+            PluginMetadata pm = ucm.plugins.get(spec.getName());
+            if (spec.getVersion() != null && pm != null && !(pm instanceof PluginMetadata.LocalOverride)
+                    && !spec.getVersion().equals(pm.getVersion())) {
+                pinned.add(pm.withVersion(spec.getVersion()));
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (closure.containsKey(name)) continue;
+
+            PluginMetadata pm = ucm.plugins.get(name);
+            if (pm == null) {
+                LOGGER.info("Not prefetching " + name + ", no such plugin in update center");
+                continue;
+            }
+            closure.put(name, pm);
+            for (Dependency d: pm.getDependencies()) {
+                if (!d.optional) {
+                    queue.add(d.name);
+                }
+            }
+        }
+        Set<PluginMetadata> ret = new LinkedHashSet<>(closure.values());
+        ret.addAll(pinned);
+        return ret;
+    }
+
+    /**
+     * Resolve plugins and wait for the resolution to complete.
+     */
+    public Result prefetch(Collection<PluginSpec> specs) throws InterruptedException {
+        Set<PluginMetadata> plugins = closure(specs);
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+                threads, new ThreadFactoryBuilder().setNameFormat("Plugin prefetch %d").setDaemon(true).build()
+        );
+        try {
+            List<Future<File>> futures = new ArrayList<>(plugins.size());
+            for (final PluginMetadata pm: plugins) {
+                futures.add(pool.submit(new Callable<File>() {
+                    @Override public File call() {
+                        return pm.resolve(injector, pm.getVersion());
+                    }
+                }));
+            }
+
+            int resolved = 0;
+            int failed = 0;
+            long bytes = 0;
+            int i = 0;
+            for (PluginMetadata pm: plugins) {
+                try {
+                    File file = futures.get(i++).get();
+                    bytes += file.length();
+                    resolved++;
+                } catch (ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Unable to prefetch " + pm, e.getCause());
+                    failed++;
+                }
+            }
+
+            return new Result(resolved, failed, bytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public static final class Result {
+        public final int plugins;
+        public final int failed;
+        public final long bytes;
+        public final long millis;
+
+        private Result(int plugins, int failed, long bytes, long millis) {
+            this.plugins = plugins;
+            this.failed = failed;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Prefetched %d plugins (%s) in %d ms, %d failed",
+                    plugins, FileUtils.byteCountToDisplaySize(bytes), millis, failed
+            );
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(PluginPrefetcher.class.getName());
+}
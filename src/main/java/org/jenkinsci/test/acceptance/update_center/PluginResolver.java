@@ -0,0 +1,161 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+import org.junit.internal.AssumptionViolatedException;
+
+import hudson.util.VersionNumber;
+
+/**
+ * Resolves plugins to install, dependencies included, from {@link UpdateCenterMetadata}.
+ *
+ * <p>
+ * The dependency graph is walked once, visiting every plugin at most once. Requested plugins are always included,
+ * dependencies only when not installed in sufficient version. When several plugins depend on the same plugin, the
+ * highest version required wins. Optional dependencies are followed only when installed in a version older than
+ * required, as Jenkins refuses to load the dependent plugin in such case. Resulting plan is topologically ordered,
+ * dependencies first, otherwise in the order of request and dependency declaration. Dependency cycles are broken
+ * at the first edge leading back.
+ *
+ * <p>
+ * Plugins from {@link PluginMetadata.LocalOverride local files} take part in the graph the same way as they replace
+ * the update center entries in {@link UpdateCenterMetadata#plugins}.
+ */
+public class PluginResolver {
+    private final UpdateCenterMetadata ucm;
+
+    public PluginResolver(@Nonnull UpdateCenterMetadata ucm) {
+        this.ucm = ucm;
+    }
+
+    /**
+     * Plugins to install in the order of installation.
+     *
+     * @param plugins Plugins requested.
+     * @param core Version of Jenkins to install to.
+     * @param installed Versions of plugins installed by name.
+     * @throws UnableToResolveDependencies When the requested plugins can not be installed.
+     */
+    public @Nonnull List<PluginMetadata> resolve(
+            @Nonnull Collection<PluginSpec> plugins, @Nonnull VersionNumber core, @Nonnull Map<String, VersionNumber> installed
+    ) throws UnableToResolveDependencies {
+        Map<String, String> required = new HashMap<>();
+        Set<String> included = new LinkedHashSet<>();
+        List<PluginMetadata> requested = new ArrayList<>();
+        Deque<PluginMetadata> queue = new ArrayDeque<>();
+
+        for (PluginSpec spec: plugins) {
+            PluginMetadata p = ucm.plugins.get(spec.getName());
+            if (p == null) {
+                // The plugin explicitly requested is not available in the configured update center
+                // Skipping the test since it can happen for both upstream and downstream update centers
+                throw new AssumptionViolatedException("No such plugin " + spec.getName());
+            }
+            if (p.requiredCore().isNewerThan(core)) {
+                throw new UnableToResolveDependencies(String.format(
+                        "Unable to install %s plugin because of core dependency. Required: %s Used: %s",
+                        p, p.requiredCore(), core
+                ));
+            }
+
+            require(required, p.getName(), spec.getVersion());
+            if (included.add(p.getName())) {
+                requested.add(p);
+                queue.add(p);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            PluginMetadata p = queue.poll();
+            for (Dependency d: p.getDependencies()) {
+                VersionNumber current = installed.get(d.name);
+                boolean outdated = current != null && current.isOlderThan(new VersionNumber(d.version));
+                if (d.optional && !outdated) continue; // Not needed unless installed in incompatible version
+                if (current != null && !outdated) continue; // Installed already
+
+                require(required, d.name, d.version);
+                if (!included.contains(d.name)) {
+                    PluginMetadata dep = ucm.plugins.get(d.name);
+                    if (dep == null) {
+                        throw new UnableToResolveDependencies(
+                                String.format("Unable to install dependency '%s' for '%s': plugin not found", d, p)
+                        );
+                    }
+                    included.add(d.name);
+                    queue.add(dep);
+                }
+            }
+        }
+
+        List<PluginMetadata> order = new ArrayList<>(included.size());
+        Set<String> visited = new HashSet<>();
+        for (PluginMetadata p: requested) {
+            visit(p, included, visited, order);
+        }
+
+        List<PluginMetadata> plan = new ArrayList<>(order.size());
+        for (PluginMetadata p: order) {
+            String version = required.get(p.getName());
+            if (version != null && p.requiredCore().isNewerThan(core) && !(p instanceof PluginMetadata.LocalOverride)) {
+                // If latest version is too new for current Jenkins, use the declared one
+                plan.add(p.withVersion(version));
+            } else {
+                plan.add(p);
+            }
+        }
+        return plan;
+    }
+
+    private static void require(Map<String, String> required, String name, String version) {
+        if (version == null) return;
+        String current = required.get(name);
+        if (current == null || new VersionNumber(current).isOlderThan(new VersionNumber(version))) {
+            required.put(name, version);
+        }
+    }
+
+    /**
+     * Depth-first post-order traversal, iterative as dependency chains can be long.
+     */
+    private void visit(PluginMetadata root, Set<String> included, Set<String> visited, List<PluginMetadata> order) {
+        if (!visited.add(root.getName())) return;
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.dependencies.hasNext()) {
+                Dependency d = frame.dependencies.next();
+                if (included.contains(d.name) && visited.add(d.name)) {
+                    stack.push(new Frame(ucm.plugins.get(d.name)));
+                }
+            } else {
+                stack.pop();
+                order.add(frame.plugin);
+            }
+        }
+    }
+
+    private static final class Frame {
+        private final PluginMetadata plugin;
+        private final Iterator<Dependency> dependencies;
+
+        private Frame(PluginMetadata plugin) {
+            this.plugin = plugin;
+            this.dependencies = plugin.getDependencies().iterator();
+        }
+    }
+}
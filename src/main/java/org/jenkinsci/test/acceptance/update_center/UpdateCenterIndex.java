@@ -0,0 +1,250 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Compact binary form of {@link UpdateCenterMetadata}, stored next to the cached update center JSON.
+ *
+ * <p>
+ * Update center JSON is several megabytes, most of it being fields the harness does not care about (labels,
+ * excerpts, developers, signature...). {@link #parse(File)} streams through it extracting plugin names, GAVs,
+ * versions, required core and dependencies only. The result is written to <tt>$JSON.idx</tt> that later forks
+ * read in one go and decode instead of parsing the JSON again. The index records the size and timestamp of the JSON it
+ * was created from so it is recreated once the JSON is refreshed.
+ *
+ * @see CachedUpdateCenterMetadataLoader
+ */
+public final class UpdateCenterIndex {
+    private static final int MAGIC = 0x55434958; // "UCIX"
+    private static final int FORMAT = 1;
+
+    private UpdateCenterIndex() {}
+
+    /**
+     * Get metadata from the index of the JSON, (re)creating the index when missing or stale.
+     */
+    public static @Nonnull UpdateCenterMetadata load(@Nonnull File json) throws IOException {
+        File index = indexOf(json);
+        UpdateCenterMetadata ucm = read(index, json);
+        if (ucm != null) return ucm;
+
+        ucm = parse(json);
+        try {
+            write(ucm, json, index);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write update center index " + index, e);
+        }
+        return ucm;
+    }
+
+    /*package*/ static File indexOf(File json) {
+        return new File(json.getPath() + ".idx");
+    }
+
+    /**
+     * Extract fields harness uses from update center JSON without building the whole tree.
+     *
+     * @param json
+     *      .json or .json.html file served from update center.
+     */
+    public static @Nonnull UpdateCenterMetadata parse(@Nonnull File json) throws IOException {
+        Map<String, PluginMetadata> plugins = new HashMap<>();
+        String id = null;
+
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(json), StandardCharsets.UTF_8), 64 * 1024)) {
+            r.readLine(); // the first line is preamble
+            JsonParser p = new JsonFactory().createParser(r);
+            // Postamble follows the root object so stop reading right after it
+            p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+            expect(p.nextToken(), JsonToken.START_OBJECT, json);
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                if ("id".equals(field)) {
+                    id = p.getValueAsString();
+                } else if ("plugins".equals(field)) {
+                    expect(value, JsonToken.START_OBJECT, json);
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        p.nextToken();
+                        PluginMetadata pm = parsePlugin(p, json);
+                        plugins.put(pm.getName(), pm);
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+
+        return UpdateCenterMetadata.get(id, plugins, json);
+    }
+
+    private static PluginMetadata parsePlugin(JsonParser p, File json) throws IOException {
+        expect(p.getCurrentToken(), JsonToken.START_OBJECT, json);
+        String name = null, gav = null, version = null, requiredCore = null;
+        List<Dependency> dependencies = new ArrayList<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "name": name = p.getValueAsString(); break;
+                case "gav": gav = p.getValueAsString(); break;
+                case "version": version = p.getValueAsString(); break;
+                case "requiredCore": requiredCore = p.getValueAsString(); break;
+                case "dependencies":
+                    expect(value, JsonToken.START_ARRAY, json);
+                    while (p.nextToken() == JsonToken.START_OBJECT) {
+                        dependencies.add(parseDependency(p));
+                    }
+                    break;
+                default:
+                    p.skipChildren();
+            }
+        }
+        return new PluginMetadata(name, gav, version, requiredCore, dependencies);
+    }
+
+    private static Dependency parseDependency(JsonParser p) throws IOException {
+        String name = null, version = null;
+        boolean optional = false;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.getCurrentName();
+            p.nextToken();
+            switch (field) {
+                case "name": name = p.getValueAsString(); break;
+                case "version": version = p.getValueAsString(); break;
+                case "optional": optional = p.getValueAsBoolean(); break;
+                default:
+                    p.skipChildren();
+            }
+        }
+        return new Dependency(name, version, optional);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, File json) throws IOException {
+        if (actual != expected) throw new IOException(
+                "Malformed update center " + json + ": expected " + expected + " but got " + actual
+        );
+    }
+
+    /**
+     * Write the index atomically so concurrent forks never see it half written.
+     */
+    /*package*/ static void write(UpdateCenterMetadata ucm, File json, File index) throws IOException {
+        File tmp = File.createTempFile(index.getName(), ".tmp", index.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(json.length());
+                out.writeLong(json.lastModified());
+                writeString(out, ucm.id);
+                out.writeInt(ucm.plugins.size());
+                for (PluginMetadata pm: ucm.plugins.values()) {
+                    writeString(out, pm.getName());
+                    writeString(out, pm.gav);
+                    writeString(out, pm.getVersion());
+                    writeString(out, pm.requiredCore);
+                    List<Dependency> deps = pm.getDependencies();
+                    out.writeInt(deps.size());
+                    for (Dependency d: deps) {
+                        writeString(out, d.name);
+                        writeString(out, d.version);
+                        out.writeBoolean(d.optional);
+                    }
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, @CheckForNull String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read the index, provided it exists and was created from the given JSON.
+     *
+     * @return null if there is no usable index.
+     */
+    /*package*/ static @CheckForNull UpdateCenterMetadata read(File index, File json) {
+        if (!index.isFile()) return null;
+
+        try {
+            // Read at once rather than mapped, a mapping would keep the file locked until garbage collected
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(index.toPath()));
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT) return null;
+            if (buf.getLong() != json.length() || buf.getLong() != json.lastModified()) return null;
+
+            String id = readString(buf);
+            int count = buf.getInt();
+            Map<String, PluginMetadata> plugins = new HashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String name = readString(buf);
+                String gav = readString(buf);
+                String version = readString(buf);
+                String requiredCore = readString(buf);
+                int depCount = buf.getInt();
+                List<Dependency> dependencies = new ArrayList<>(depCount);
+                for (int j = 0; j < depCount; j++) {
+                    String depName = readString(buf);
+                    String depVersion = readString(buf);
+                    dependencies.add(new Dependency(depName, depVersion, buf.get() != 0));
+                }
+                plugins.put(name, new PluginMetadata(name, gav, version, requiredCore, dependencies));
+            }
+            return UpdateCenterMetadata.get(id, plugins, json);
+        } catch (IOException|BufferUnderflowException|IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring corrupted update center index " + index, e);
+            return null;
+        }
+    }
+
+    private static @CheckForNull String readString(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(UpdateCenterIndex.class.getName());
+}
@@ -0,0 +1,127 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * SHA-1 and SHA-256 digests of a file, computed in a single pass.
+ *
+ * <p>
+ * Digests are cached for the lifetime of the JVM by path so plugins and wars used by many tests are read once. The
+ * entry is replaced once the size or modification time of the file changes. The file is streamed through a large buffer rather than memory mapped as mapped files
+ * can not be deleted on Windows until the mapping is garbage collected.
+ */
+public final class FileDigest {
+    private static final int BUFFER = 1024 * 1024;
+
+    /*package*/ static final Map<String, FileDigest> CACHE = new ConcurrentHashMap<>();
+
+    private final byte[] sha1;
+    private final byte[] sha256;
+
+    /**
+     * Size and modification time of the file before it was read.
+     */
+    private final long length;
+    private final long lastModified;
+
+    private FileDigest(byte[] sha1, byte[] sha256, long length, long lastModified) {
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+        this.length = length;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Digest of a file, reusing the one computed earlier unless the file changed since.
+     */
+    public static @Nonnull FileDigest of(@Nonnull File file) throws IOException {
+        String path = file.getAbsolutePath();
+        FileDigest digest = CACHE.get(path);
+        if (digest == null || digest.length != file.length() || digest.lastModified != file.lastModified()) {
+            digest = compute(file);
+            CACHE.put(path, digest);
+        }
+        return digest;
+    }
+
+    /*package*/ static @Nonnull FileDigest compute(@Nonnull File file) throws IOException {
+        // Taken first so a change while reading is noticed next time
+        long length = file.length();
+        long lastModified = file.lastModified();
+        MessageDigest sha1 = messageDigest("SHA-1");
+        MessageDigest sha256 = messageDigest("SHA-256");
+        byte[] buffer = new byte[BUFFER];
+        ByteBuffer bb = ByteBuffer.wrap(buffer);
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            int n;
+            while ((n = channel.read(bb)) != -1) {
+                sha1.update(buffer, 0, n);
+                sha256.update(buffer, 0, n);
+                bb.clear();
+            }
+        }
+        return new FileDigest(sha1.digest(), sha256.digest(), length, lastModified);
+    }
+
+    private static MessageDigest messageDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(algorithm + " is required to be supported", e);
+        }
+    }
+
+    public @Nonnull byte[] getSha1() {
+        return sha1.clone();
+    }
+
+    public @Nonnull byte[] getSha256() {
+        return sha256.clone();
+    }
+
+    /**
+     * Lowercase hex, as printed by <tt>sha1sum</tt>.
+     */
+    public @Nonnull String getSha1Hex() {
+        return hex(sha1);
+    }
+
+    public @Nonnull String getSha256Hex() {
+        return hex(sha256);
+    }
+
+    /**
+     * Base64, as used by update center metadata.
+     */
+    public @Nonnull String getSha1Base64() {
+        return Base64.getEncoder().encodeToString(sha1);
+    }
+
+    public @Nonnull String getSha256Base64() {
+        return Base64.getEncoder().encodeToString(sha256);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b: bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "FileDigest[sha1=" + getSha1Hex() + ",sha256=" + getSha256Hex() + "]";
+    }
+}
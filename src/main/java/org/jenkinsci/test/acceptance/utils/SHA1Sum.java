@@ -1,12 +1,11 @@
 package org.jenkinsci.test.acceptance.utils;
 
 import java.io.*;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Formatter;
 
 /**
  * Creates SHA1 sums of a file
+ *
+ * @see FileDigest
  */
 public class SHA1Sum {
     private byte[] sha1 = null;
@@ -18,11 +17,12 @@ public class SHA1Sum {
             if (inFile.canRead()) {
                 this.inFile = inFile;
                 try {
-                    this.sha1 = this.createSha1(this.inFile);
-                } catch (NoSuchAlgorithmException | IOException e) {
+                    FileDigest digest = FileDigest.of(this.inFile);
+                    this.sha1 = digest.getSha1();
+                    this.sha1String = digest.getSha1Hex();
+                } catch (IOException e) {
                     throw new IllegalStateException(e);
                 }
-                this.sha1String = this.convertByteToString(this.sha1);
             } else {
                 throw new RuntimeException("You are trying to make a sha1sum of a read protected file!");
             }
@@ -38,31 +38,4 @@ public class SHA1Sum {
     public byte[] getSha1ByteArray() {
         return this.sha1;
     }
-
-
-    private String convertByteToString(byte[] inByte) {
-        Formatter formatter = new Formatter();
-        for (final byte b : inByte) {
-            formatter.format("%02x", b);
-        }
-        return formatter.toString();
-    }
-
-    private byte[] createSha1(File file) throws NoSuchAlgorithmException, IOException {
-        int n = 0;
-        byte[] buffer = new byte[8192];
-
-        MessageDigest digest = MessageDigest.getInstance("SHA-1");
-        try (InputStream fis = new FileInputStream(file)) {
-            while (n != -1) {
-                n = fis.read(buffer);
-                if (n > 0) {
-                    digest.update(buffer, 0, n);
-                }
-            }
-            return digest.digest();
-        }
-
-    }
-
 }
@@ -1,6 +1,7 @@
 package core;
 
 import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
+import org.jenkinsci.test.acceptance.junit.SharedInstance;
 import org.jenkinsci.test.acceptance.po.Build;
 import org.jenkinsci.test.acceptance.po.BuildHistory;
 import org.jenkinsci.test.acceptance.po.FreeStyleJob;
@@ -29,7 +30,7 @@ public class BuildHistoryTest extends AbstractJUnitTest {
         assertThat(history.getBuildsOf(job), contains(build));
     }
 
-    @Test
+    @Test @SharedInstance
     public void view_build_history() {
         ListView view = jenkins.views.create(ListView.class, "a_view");
 
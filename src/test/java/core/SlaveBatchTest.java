@@ -0,0 +1,66 @@
+package core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
+import org.jenkinsci.test.acceptance.po.Build;
+import org.jenkinsci.test.acceptance.po.DumbSlave;
+import org.jenkinsci.test.acceptance.po.FreeStyleJob;
+import org.jenkinsci.test.acceptance.po.Node;
+import org.jenkinsci.test.acceptance.po.Slave;
+import org.jenkinsci.test.acceptance.slave.LocalSlaveController;
+import org.junit.Test;
+
+/**
+ * Agents defined by {@link org.jenkinsci.test.acceptance.po.SlaveBatch}, launched locally through the command launcher.
+ */
+public class SlaveBatchTest extends AbstractJUnitTest {
+
+    @Test
+    public void create_agents_and_build_on_them() {
+        List<DumbSlave> agents = jenkins.slaves.batch(3).executors(2).labels("batch fast").createAndWait();
+
+        assertThat(agents.size(), equalTo(3));
+        List<String> names = new ArrayList<>();
+        for (DumbSlave agent: agents) {
+            names.add(agent.getName());
+            assertThat(agent.isOnline(), is(true));
+            assertThat(agent.getExecutorCount(), equalTo(2));
+            assertThat(jenkins.runScript("jenkins.model.Jenkins.instance.getNode('%s').labelString", agent.getName()), equalTo("batch fast"));
+        }
+
+        FreeStyleJob j = jenkins.jobs.create();
+        j.configure();
+        j.setLabelExpression("batch&&fast");
+        j.save();
+
+        Build b = j.startBuild().shouldSucceed();
+        assertThat(names, hasItem(b.getNode().getName()));
+    }
+
+    @Test
+    public void local_slave_controller() throws Exception {
+        try (LocalSlaveController controller = new LocalSlaveController()) {
+            Slave agent = controller.install(jenkins).get();
+            assertThat(agent.isOnline(), is(true));
+
+            agent.configure();
+            agent.setLabels("local");
+            agent.save();
+
+            FreeStyleJob j = jenkins.jobs.create();
+            j.configure();
+            j.setLabelExpression("local");
+            j.save();
+
+            Build b = j.startBuild().shouldSucceed();
+            assertThat(b.getNode(), is((Node) agent));
+        }
+    }
+}
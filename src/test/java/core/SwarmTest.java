@@ -0,0 +1,63 @@
+package core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jenkinsci.test.acceptance.junit.AbstractJUnitTest;
+import org.jenkinsci.test.acceptance.po.Build;
+import org.jenkinsci.test.acceptance.po.ComputerSet;
+import org.jenkinsci.test.acceptance.po.DumbSlave;
+import org.jenkinsci.test.acceptance.po.FreeStyleJob;
+import org.jenkinsci.test.acceptance.po.Slave;
+import org.jenkinsci.test.acceptance.slave.SwarmSlaveController;
+import org.junit.Test;
+
+/**
+ * Small swarm of inbound agents brought up by {@link SwarmSlaveController}, two per agent JVM.
+ */
+public class SwarmTest extends AbstractJUnitTest {
+
+    @Test
+    public void bring_up_swarm_and_build_on_it() throws Exception {
+        SwarmSlaveController swarm = new SwarmSlaveController(4, 1, "swarm", 2);
+        Set<String> names = new TreeSet<>();
+        try {
+            Slave first = swarm.install(jenkins).get();
+            List<DumbSlave> agents = swarm.getAgents();
+            assertThat(agents.size(), equalTo(4));
+            assertThat(first.getName(), equalTo(agents.get(0).getName()));
+            for (DumbSlave agent: agents) {
+                names.add(agent.getName());
+            }
+
+            Set<String> online = new ComputerSet(jenkins).getOnline();
+            for (String name: names) {
+                assertThat(online, hasItem(name));
+            }
+            // Every engine reported it connected
+            assertThat(swarm.getLatencies().keySet(), equalTo(names));
+            assertThat(swarm.getReport(), containsString("swarm of 4 agents in 2 JVMs online in "));
+
+            FreeStyleJob j = jenkins.jobs.create();
+            j.configure();
+            j.setLabelExpression("swarm");
+            j.save();
+
+            Build b = j.startBuild().shouldSucceed();
+            assertThat(names, hasItem(b.getNode().getName()));
+        } finally {
+            swarm.close();
+        }
+
+        for (String name: names) {
+            assertThat(name + " removed", jenkins.runScript("jenkins.model.Jenkins.instance.getNode('%s') == null", name), is("true"));
+        }
+    }
+}
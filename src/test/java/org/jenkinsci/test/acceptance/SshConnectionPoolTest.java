@@ -0,0 +1,164 @@
+package org.jenkinsci.test.acceptance;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jenkinsci.test.acceptance.docker.Docker;
+import org.jenkinsci.test.acceptance.docker.DockerModule;
+import org.jenkinsci.test.acceptance.docker.fixtures.SshdContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.inject.Guice;
+import com.trilead.ssh2.Connection;
+
+/**
+ * Runs against sshd in a local container, skipped when docker is not available.
+ */
+public class SshConnectionPoolTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private SshdContainer sshd;
+    private String host;
+    private final SshConnectionPool pool = new SshConnectionPool();
+
+    private final Authenticator password = new Authenticator() {
+        @Override public void authenticate(Connection connection) throws IOException {
+            if (!connection.authenticateWithPassword("test", "test")) {
+                throw new IOException("Password authentication failed");
+            }
+        }
+    };
+
+    @Before
+    public void startSshd() throws Exception {
+        Docker docker = Guice.createInjector(new DockerModule()).getInstance(Docker.class);
+        assumeTrue("Needs docker", docker.isAvailable());
+        sshd = docker.build(SshdContainer.class, tmp.newFile("build.log"))
+                .start(SshdContainer.class).withLog(tmp.newFile("run.log")).start();
+        host = sshd.getIpAddress();
+    }
+
+    @After
+    public void stopSshd() throws IOException {
+        if (sshd != null) {
+            pool.evict(host);
+            sshd.close();
+        }
+    }
+
+    @Test
+    public void reuseConnection() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            try (Ssh ssh = pool.lease(host, password)) {
+                ssh.executeRemoteCommand("true");
+            }
+        }
+        assertThat(pool.getOpened(), equalTo(1L));
+    }
+
+    @Test
+    public void limitSessionsPerConnection() throws Exception {
+        List<Ssh> leases = new ArrayList<>();
+        for (int i = 0; i < SshConnectionPool.MAX_SESSIONS; i++) {
+            leases.add(pool.lease(host, password));
+        }
+        assertThat(pool.getOpened(), equalTo(1L));
+
+        try (Ssh ssh = pool.lease(host, password)) {
+            ssh.executeRemoteCommand("true");
+        }
+        assertThat(pool.getOpened(), equalTo(2L));
+
+        for (Ssh ssh : leases) {
+            ssh.close();
+        }
+    }
+
+    @Test
+    public void concurrentCommands() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override public Integer call() throws Exception {
+                    try (Ssh ssh = pool.lease(host, password)) {
+                        return ssh.executeRemoteCommand("sleep 0.1");
+                    }
+                }
+            }));
+        }
+        for (Future<Integer> f : results) {
+            assertThat(f.get(), equalTo(0));
+        }
+        executor.shutdown();
+        assertThat(pool.getOpened(), lessThanOrEqualTo(16L)); // At most one per thread, not one per command
+    }
+
+    @Test
+    public void evictAndSweep() throws Exception {
+        try (Ssh ssh = pool.lease(host, password)) {
+            ssh.executeRemoteCommand("true");
+        }
+        pool.sweep(); // Keeps the healthy connection
+        try (Ssh ssh = pool.lease(host, password)) {
+            ssh.executeRemoteCommand("true");
+        }
+        assertThat(pool.getOpened(), equalTo(1L));
+
+        pool.evict(host);
+        try (Ssh ssh = pool.lease(host, password)) {
+            ssh.executeRemoteCommand("true");
+        }
+        assertThat(pool.getOpened(), equalTo(2L));
+    }
+
+    @Test
+    public void replaceBrokenConnection() throws Exception {
+        try (Ssh ssh = pool.lease(host, password)) {
+            ssh.getConnection().close(); // As when sshd went away
+        }
+        try (Ssh ssh = pool.lease(host, password)) {
+            assertThat(ssh.executeRemoteCommand("true"), equalTo(0));
+        }
+        assertThat(pool.getOpened(), equalTo(2L));
+    }
+
+    @Test
+    public void evictConnectionInUse() throws Exception {
+        Ssh busy = pool.lease(host, password);
+        pool.evict(host);
+
+        try (Ssh ssh = pool.lease(host, password)) {
+            assertThat(ssh.getConnection(), not(sameInstance(busy.getConnection())));
+        }
+        assertThat(pool.getOpened(), equalTo(2L));
+
+        busy.executeRemoteCommand("true"); // Still usable until released
+        busy.close();
+        try {
+            busy.getConnection().openSession();
+            fail("Evicted connection should be closed once released");
+        } catch (IOException | IllegalStateException expected) {
+            // Closed
+        }
+    }
+}
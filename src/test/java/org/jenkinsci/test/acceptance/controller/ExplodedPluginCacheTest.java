@@ -0,0 +1,167 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExplodedPluginCacheTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void harvestAndPopulate() throws Exception {
+        ExplodedPluginCache cache = new ExplodedPluginCache(tmp.newFolder("cache"));
+        File archive = archive(tmp.newFile("git.jpi"), 10);
+
+        File used = plugins("used", archive);
+        assertThat(cache.harvest(used), equalTo(0)); // Not exploded by Jenkins yet
+        explode(new File(used, "git.jpi"));
+        assertThat(cache.harvest(used), equalTo(1));
+        assertThat(cache.harvest(used), equalTo(0));
+
+        File fresh = plugins("fresh", archive);
+        File freshArchive = new File(fresh, "git.jpi");
+        freshArchive.setLastModified(archive.lastModified() + 60000); // Installed at different time
+        assertThat(cache.populate(fresh), equalTo(1));
+        assertThat(ExplodedPluginCache.isExploded(freshArchive, new File(fresh, "git")), equalTo(true));
+        assertThat(Files.isSameFile(new File(used, "git/file-0.txt").toPath(), new File(fresh, "git/file-0.txt").toPath()), equalTo(true));
+        assertThat(FileUtils.readFileToString(new File(fresh, "git/META-INF/MANIFEST.MF")), equalTo("Short-Name: git"));
+
+        // Timestamp is not shared
+        assertThat(ExplodedPluginCache.isExploded(new File(used, "git.jpi"), new File(used, "git")), equalTo(true));
+
+        assertThat(cache.populate(fresh), equalTo(0)); // Exploded already
+    }
+
+    @Test
+    public void differentArchive() throws Exception {
+        ExplodedPluginCache cache = new ExplodedPluginCache(tmp.newFolder("cache"));
+        File used = plugins("used", archive(tmp.newFile("v1.jpi"), 10));
+        explode(new File(used, "v1.jpi"));
+        cache.harvest(used);
+
+        File fresh = plugins("fresh", archive(tmp.newFile("v2.jpi"), 11));
+        assertThat(cache.populate(fresh), equalTo(0));
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        ExplodedPluginCache cache = new ExplodedPluginCache(null);
+        File used = plugins("used", archive(tmp.newFile("git.jpi"), 10));
+        explode(new File(used, "git.jpi"));
+        assertThat(cache.harvest(used), equalTo(0));
+        assertThat(cache.populate(plugins("fresh", archive(tmp.newFile("other.jpi"), 10))), equalTo(0));
+    }
+
+    /**
+     * Materialised plugins are the same as if Jenkins exploded them.
+     */
+    @Test
+    public void populateManyPlugins() throws Exception {
+        ExplodedPluginCache cache = new ExplodedPluginCache(tmp.newFolder("cache"));
+        File used = tmp.newFolder("used");
+        File exploded = tmp.newFolder("exploded");
+        for (int i = 0; i < 30; i++) {
+            File archive = archive(new File(used, "plugin-" + i + ".jpi"), 20);
+            FileUtils.copyFileToDirectory(archive, exploded);
+            explode(archive);
+            explode(new File(exploded, archive.getName())); // Independently of the cache
+        }
+        assertThat(cache.harvest(used), equalTo(30));
+
+        File fresh = tmp.newFolder("fresh");
+        for (File archive: used.listFiles()) {
+            if (archive.isFile()) {
+                FileUtils.copyFileToDirectory(archive, fresh);
+            }
+        }
+        assertThat(cache.populate(fresh), equalTo(30));
+
+        for (int i = 0; i < 30; i++) {
+            File expected = new File(exploded, "plugin-" + i);
+            File actual = new File(fresh, "plugin-" + i);
+            assertThat(ExplodedPluginCache.isExploded(new File(fresh, "plugin-" + i + ".jpi"), actual), equalTo(true));
+            assertThat(new TreeSet<>(Arrays.asList(actual.list())), equalTo(new TreeSet<>(Arrays.asList(expected.list()))));
+            for (int f = 0; f < 20; f++) {
+                String file = "file-" + f + ".txt";
+                assertThat(FileUtils.contentEquals(new File(expected, file), new File(actual, file)), equalTo(true));
+            }
+        }
+    }
+
+    /**
+     * Plugins not staged before Jenkins starts are not populated.
+     */
+    @Test
+    public void onlyStagedPlugins() throws Exception {
+        ExplodedPluginCache cache = new ExplodedPluginCache(tmp.newFolder("cache"));
+        File used = plugins("used", archive(tmp.newFile("git.jpi"), 10));
+        explode(new File(used, "git.jpi"));
+        assertThat(cache.harvest(used), equalTo(1));
+
+        File fresh = tmp.newFolder("fresh");
+        assertThat(cache.populate(fresh), equalTo(0));
+        assertThat(fresh.list().length, equalTo(0));
+    }
+
+    private File plugins(String name, File... archives) throws IOException {
+        File dir = tmp.newFolder(name);
+        for (File archive: archives) {
+            FileUtils.copyFileToDirectory(archive, dir);
+        }
+        return dir;
+    }
+
+    private static File archive(File file, int entries) throws IOException {
+        Random random = new Random(entries);
+        String name = file.getName().substring(0, file.getName().length() - 4);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            zip.write(("Short-Name: " + name).getBytes("UTF-8"));
+            for (int i = 0; i < entries; i++) {
+                zip.putNextEntry(new ZipEntry("file-" + i + ".txt"));
+                byte[] content = new byte[4096];
+                random.nextBytes(content);
+                zip.write(content);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Explode the archive the way Jenkins does.
+     */
+    private static void explode(File archive) throws IOException {
+        String name = archive.getName();
+        File dir = new File(archive.getParentFile(), name.substring(0, name.length() - 4));
+        try (ZipFile zip = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                File target = new File(dir, entry.getName());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    FileUtils.copyInputStreamToFile(in, target);
+                }
+            }
+        }
+        File timestamp = new File(dir, ExplodedPluginCache.TIMESTAMP);
+        FileUtils.touch(timestamp);
+        timestamp.setLastModified(archive.lastModified());
+    }
+}
@@ -0,0 +1,50 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JenkinsHomeSnapshotsTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void key() {
+        String key = JenkinsHomeSnapshots.key("war", Arrays.asList("git:2.0", "ant:1.2"));
+        assertThat(JenkinsHomeSnapshots.key("war", Arrays.asList("ant:1.2", "git:2.0")), equalTo(key));
+        assertThat(JenkinsHomeSnapshots.key("war", Arrays.asList("ant:1.3", "git:2.0")), not(equalTo(key)));
+        assertThat(JenkinsHomeSnapshots.key("other", Arrays.asList("ant:1.2", "git:2.0")), not(equalTo(key)));
+    }
+
+    @Test
+    public void captureAndRestore() throws Exception {
+        JenkinsHomeSnapshots snapshots = new JenkinsHomeSnapshots(tmp.newFolder("store"));
+
+        File installed = tmp.newFolder("installed");
+        File plugin = new File(installed, "plugins/git.jpi");
+        FileUtils.writeStringToFile(plugin, "content");
+        FileUtils.writeStringToFile(new File(installed, "config.xml"), "<hudson/>");
+        plugin.setLastModified(1000000000000L);
+
+        File fresh = tmp.newFolder("fresh");
+        assertThat(snapshots.restore("key", fresh), equalTo(false));
+
+        snapshots.capture("key", installed);
+        snapshots.capture("key", installed); // Captured already
+
+        assertThat(snapshots.restore("key", fresh), equalTo(true));
+        File restored = new File(fresh, "plugins/git.jpi");
+        assertThat(FileUtils.readFileToString(restored), equalTo("content"));
+        assertThat(restored.lastModified(), equalTo(plugin.lastModified()));
+        assertThat(new File(fresh, "config.xml").exists(), equalTo(false));
+
+        assertThat(snapshots.restore("other", tmp.newFolder("another")), equalTo(false));
+    }
+}
@@ -0,0 +1,59 @@
+package org.jenkinsci.test.acceptance.controller;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.test.acceptance.log.NullPrinter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JenkinsLogWatcherTest {
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    /**
+     * Log file is readable while Jenkins runs, not only once it terminates.
+     */
+    @Test
+    public void logFileUpToDateWhileRunning() throws Exception {
+        File logFile = tmp.newFile("jenkins_log.log");
+        PipedOutputStream jenkins = new PipedOutputStream();
+        JenkinsLogWatcher watcher = new JenkinsLogWatcher("test", new PipedInputStream(jenkins, 64 * 1024), logFile, new NullPrinter());
+        watcher.start();
+        try {
+            jenkins.write("Running from: /tmp/jenkins.war\nJenkins is fully up and running\n".getBytes(StandardCharsets.UTF_8));
+            jenkins.flush();
+            watcher.ready.get(10, TimeUnit.SECONDS);
+
+            assertThat(waitForContent(logFile, "Jenkins is fully up and running"), containsString("Running from: /tmp/jenkins.war\n"));
+
+            jenkins.write("INFO: Still running\n".getBytes(StandardCharsets.UTF_8));
+            jenkins.flush();
+            waitForContent(logFile, "INFO: Still running");
+            assertThat("Still reading", watcher.reader.isAlive(), equalTo(true));
+        } finally {
+            jenkins.close();
+            watcher.close();
+        }
+    }
+
+    private static String waitForContent(File file, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        String content;
+        do {
+            content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            if (content.contains(expected)) return content;
+            Thread.sleep(10);
+        } while (System.currentTimeMillis() < deadline);
+        throw new AssertionError("'" + expected + "' not written to " + file + ", got: " + content);
+    }
+}
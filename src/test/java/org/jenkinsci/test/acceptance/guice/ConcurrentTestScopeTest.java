@@ -0,0 +1,225 @@
+package org.jenkinsci.test.acceptance.guice;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+
+/**
+ * Runs many trivial tests concurrently in one JVM the way {@link World} does, checking no test scoped object leaks
+ * from one test to another.
+ */
+public class ConcurrentTestScopeTest {
+    private static final int TESTS = 64;
+    private static final int THREADS = 16;
+
+    private final Injector injector = Guice.createInjector(new TestScopeModule());
+    private final TestLifecycle lifecycle = injector.getInstance(TestLifecycle.class);
+
+    @Test
+    public void isolatedScopes() throws Exception {
+        int created = Resource.CREATED.get();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Resource>> futures = new ArrayList<>();
+            for (int i = 0; i < TESTS; i++) {
+                final String name = "test" + i;
+                futures.add(pool.submit(new Callable<Resource>() {
+                    @Override public Resource call() throws Exception {
+                        start.await();
+                        return runTest(name);
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<Resource> seen = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+            for (Future<Resource> f: futures) {
+                Resource r = f.get(1, TimeUnit.MINUTES);
+                assertThat("Resource shared by tests", seen.add(r), equalTo(true));
+                assertThat(r.closed.get(), equalTo(1));
+                assertThat(r.cleaned.get(), equalTo(1));
+            }
+            assertThat(Resource.CREATED.get() - created, equalTo(TESTS));
+            assertThat(lifecycle.getActiveScopes(), equalTo(0));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        WorldCleaner worldCleaner = injector.getInstance(WorldCleaner.class);
+        final AtomicInteger cleaned = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            worldCleaner.addTask(new Runnable() {
+                @Override public void run() {
+                    cleaned.incrementAndGet();
+                }
+            });
+        }
+        worldCleaner.performCleanUp();
+        worldCleaner.performCleanUp();
+        assertThat(cleaned.get(), equalTo(10));
+    }
+
+    @Test
+    public void slowCreationDoesNotBlockOthers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        lifecycle.startTestScope();
+        try {
+            Slow.release = new CountDownLatch(1);
+            Future<Slow> first = pool.submit(new Callable<Slow>() {
+                @Override public Slow call() {
+                    return injector.getInstance(Slow.class);
+                }
+            });
+            Future<Slow> second = pool.submit(new Callable<Slow>() {
+                @Override public Slow call() {
+                    return injector.getInstance(Slow.class);
+                }
+            });
+
+            // Resolved while the other is being created
+            assertThat(injector.getInstance(Dependent.class).resource, sameInstance(injector.getInstance(Resource.class)));
+            assertThat(first.isDone() || second.isDone(), equalTo(false));
+
+            Slow.release.countDown();
+            assertThat(first.get(1, TimeUnit.MINUTES), sameInstance(second.get(1, TimeUnit.MINUTES)));
+            assertThat(injector.getInstance(Slow.class), sameInstance(first.get()));
+        } finally {
+            Slow.release.countDown();
+            lifecycle.endTestScope();
+            pool.shutdownNow();
+        }
+    }
+
+    private Resource runTest(String name) throws Exception {
+        // Its thread is created within the test and outlives it
+        ExecutorService outliving = Executors.newSingleThreadExecutor();
+        try {
+            return runTest(name, outliving);
+        } finally {
+            outliving.shutdownNow();
+        }
+    }
+
+    private Resource runTest(final String name, ExecutorService outliving) throws Exception {
+        lifecycle.startTestScope();
+        injector.getInstance(TestName.class).testName = name;
+        final Resource resource;
+        try {
+            resource = injector.getInstance(Resource.class);
+            assertThat(resource.testName.get(), equalTo(name));
+            assertThat(outliving.submit(new Callable<Resource>() {
+                @Override public Resource call() {
+                    return injector.getInstance(Resource.class);
+                }
+            }).get(), sameInstance(resource));
+
+            // Threads started by the test see its scope, concurrently with the test thread
+            List<Thread> threads = new ArrayList<>();
+            final List<Throwable> problems = Collections.synchronizedList(new ArrayList<Throwable>());
+            for (int i = 0; i < 4; i++) {
+                Thread t = new Thread() {
+                    @Override public void run() {
+                        try {
+                            for (int j = 0; j < 50; j++) {
+                                Dependent d = injector.getInstance(Dependent.class);
+                                assertThat(d.resource, sameInstance(resource));
+                                assertThat(injector.getInstance(TestName.class).get(), equalTo(name));
+                                injector.getInstance(WorldCleaner.class).addTask(new Runnable() {
+                                    @Override public void run() {}
+                                });
+                            }
+                        } catch (Throwable e) {
+                            problems.add(e);
+                        }
+                    }
+                };
+                t.start();
+                threads.add(t);
+            }
+            for (Thread t: threads) {
+                t.join();
+            }
+            assertThat(problems.toString(), problems.isEmpty(), equalTo(true));
+
+            injector.getInstance(TestCleaner.class).addTask(new Runnable() {
+                @Override public void run() {
+                    resource.cleaned.incrementAndGet();
+                }
+            });
+            Thread.sleep(5);
+        } finally {
+            injector.getInstance(TestCleaner.class).performCleanUp();
+            lifecycle.endTestScope();
+        }
+
+        // Nothing is visible out of the scope, not even to pooled threads created while it was active
+        assertThat(injector.getInstance(Resource.class), nullValue());
+        assertThat(outliving.submit(new Callable<Resource>() {
+            @Override public Resource call() {
+                return injector.getInstance(Resource.class);
+            }
+        }).get(), nullValue());
+        return resource;
+    }
+
+    @TestScope
+    public static class Resource implements AutoCleaned {
+        private static final AtomicInteger CREATED = new AtomicInteger();
+
+        private final AtomicInteger closed = new AtomicInteger();
+        private final AtomicInteger cleaned = new AtomicInteger();
+        private final TestName testName;
+
+        @Inject
+        public Resource(TestName testName) {
+            this.testName = testName;
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+
+    @TestScope
+    public static class Slow {
+        private static CountDownLatch release;
+
+        @Inject
+        public Slow() throws InterruptedException {
+            release.await(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @TestScope
+    public static class Dependent {
+        private final Resource resource;
+
+        @Inject
+        public Dependent(Resource resource) {
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.lang.annotation.Retention;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+public class RuleDiscoveryTest {
+
+    @Test
+    public void discover() throws Exception {
+        Method method = Annotated.class.getMethod("test");
+        SortedMap<Integer, List<Class<? extends TestRule>>> rules = RuleDiscovery.rules(Annotated.class, method);
+
+        assertThat(rules, equalTo(RuleDiscovery.discover(Annotated.class, method)));
+        assertThat(RuleDiscovery.rules(Annotated.class, method), sameInstance(rules));
+
+        List<Integer> priorities = new ArrayList<>(rules.keySet());
+        assertThat(priorities.indexOf(20) < priorities.indexOf(-20), equalTo(true)); // Outermost last
+        assertThat(rules.get(-20), contains(OnClass.class));
+        assertThat(rules.get(20), contains(OnMethod.class));
+        assertThat(rules.get(5), hasItem(OnBoth.class));
+        assertThat(rules.get(Integer.MIN_VALUE), hasItem(FailureDiagnostics.class));
+
+        Method plain = Annotated.class.getMethod("plain");
+        assertThat(RuleDiscovery.rules(Annotated.class, plain).get(20), equalTo(null));
+        assertThat(RuleDiscovery.rules(Annotated.class, plain).get(-20), contains(OnClass.class));
+    }
+
+    @Test
+    public void cachePerClassAndMethod() throws Exception {
+        Method test = Annotated.class.getMethod("test");
+        Method plain = Annotated.class.getMethod("plain");
+
+        assertThat(RuleDiscovery.rules(Annotated.class, test), not(sameInstance(RuleDiscovery.rules(Annotated.class, plain))));
+        assertThat(RuleDiscovery.rules(Subclass.class, test), sameInstance(RuleDiscovery.rules(Subclass.class, test)));
+
+        // Inherited method of a subclass sees the annotations of the subclass
+        assertThat(RuleDiscovery.rules(Subclass.class, test), equalTo(RuleDiscovery.discover(Subclass.class, test)));
+        assertThat(RuleDiscovery.rules(Subclass.class, test).get(30), contains(OnSubclass.class));
+        assertThat(RuleDiscovery.rules(Annotated.class, test).get(30), equalTo(null));
+    }
+
+    @Retention(RUNTIME) @RuleAnnotation(value = OnClass.class, priority = -20) @interface ClassLevel {}
+    @Retention(RUNTIME) @RuleAnnotation(value = OnMethod.class, priority = 20) @interface MethodLevel {}
+    @Retention(RUNTIME) @RuleAnnotation(value = OnBoth.class, priority = 5) @interface Both {}
+    @Retention(RUNTIME) @RuleAnnotation(value = OnBoth.class, priority = 5) @interface Other {}
+    @Retention(RUNTIME) @interface NotRule {}
+    @Retention(RUNTIME) @RuleAnnotation(value = OnSubclass.class, priority = 30) @interface SubclassLevel {}
+
+    @ClassLevel @Both @NotRule
+    public static class Annotated {
+        @Test @MethodLevel @Both @Other @NotRule
+        public void test() {}
+
+        @Test
+        public void plain() {}
+    }
+
+    @SubclassLevel
+    public static class Subclass extends Annotated {}
+
+    public static class OnClass extends NoopRule {}
+    public static class OnSubclass extends NoopRule {}
+    public static class OnMethod extends NoopRule {}
+    public static class OnBoth extends NoopRule {}
+
+    public static class NoopRule implements TestRule {
+        @Override
+        public Statement apply(Statement base, Description description) {
+            return base;
+        }
+    }
+}
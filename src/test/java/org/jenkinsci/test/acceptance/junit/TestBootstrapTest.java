@@ -0,0 +1,35 @@
+package org.jenkinsci.test.acceptance.junit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import javax.inject.Inject;
+
+import org.jenkinsci.test.acceptance.docker.DockerContainerHolder;
+import org.jenkinsci.test.acceptance.docker.fixtures.FtpdContainer;
+import org.jenkinsci.test.acceptance.docker.fixtures.GitContainer;
+import org.junit.Test;
+
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+public class TestBootstrapTest {
+
+    @Test
+    public void fixtures() {
+        assertThat(TestBootstrap.fixtures(Concrete.class), contains(
+                Key.get(new TypeLiteral<DockerContainerHolder<FtpdContainer>>() {}),
+                Key.get(new TypeLiteral<DockerContainerHolder<GitContainer>>() {})
+        ));
+    }
+
+    public static class Base {
+        @Inject DockerContainerHolder<GitContainer> git;
+        DockerContainerHolder<GitContainer> notInjected;
+    }
+
+    public static class Concrete extends Base {
+        @com.google.inject.Inject DockerContainerHolder<FtpdContainer> ftpd;
+        GitContainer container;
+    }
+}
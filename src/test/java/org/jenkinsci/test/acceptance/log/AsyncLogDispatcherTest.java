@@ -0,0 +1,155 @@
+package org.jenkinsci.test.acceptance.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncLogDispatcherTest {
+
+    private static final int LINES = 500000;
+
+    @Test
+    public void deliverAllLinesInOrderUnderLoad() throws Exception {
+        OrderChecker checker = new OrderChecker();
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", checker, 1024, false).start();
+
+        for (int i = 0; i < LINES; i++) {
+            dispatcher.processLine(Integer.toString(i));
+        }
+        dispatcher.processClose(null);
+        assertTrue(checker.closed.await(30, TimeUnit.SECONDS));
+        assertThat(checker.next, equalTo(LINES));
+        assertThat(dispatcher.getDelivered(), equalTo((long) LINES));
+        assertThat(dispatcher.getDropped(), equalTo(0L));
+        assertThat(dispatcher.getBacklog(), equalTo(0L));
+    }
+
+    @Test
+    public void dropWhenConsumerCanNotKeepUp() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", new LogListener() {
+            @Override public void processLine(String line) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+
+            @Override public void processClose(Exception t) {
+                closed.countDown();
+            }
+        }, 16, true).start();
+
+        for (int i = 0; i < 1000; i++) {
+            dispatcher.processLine("line " + i);
+        }
+
+        assertThat(dispatcher.getDropped(), greaterThan(0L));
+        assertThat(dispatcher.getReceived() + dispatcher.getDropped(), equalTo(1000L));
+
+        release.countDown();
+        dispatcher.processClose(null);
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertThat(dispatcher.getDelivered(), equalTo(dispatcher.getReceived()));
+    }
+
+    @Test
+    public void blockingByDefault() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        OrderChecker checker = new OrderChecker() {
+            @Override public void processLine(String line) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                super.processLine(line);
+            }
+        };
+        final AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", checker).start();
+
+        Thread producer = new Thread() {
+            @Override public void run() {
+                for (int i = 0; i < AsyncLogDispatcher.DEFAULT_CAPACITY * 2; i++) {
+                    dispatcher.processLine(Integer.toString(i));
+                }
+                dispatcher.processClose(null);
+            }
+        };
+        producer.start();
+        Thread.sleep(100);
+        release.countDown();
+        producer.join(30000);
+
+        assertTrue(checker.closed.await(30, TimeUnit.SECONDS));
+        assertThat(checker.next, equalTo(AsyncLogDispatcher.DEFAULT_CAPACITY * 2));
+        assertThat(dispatcher.getDropped(), equalTo(0L));
+    }
+
+    @Test
+    public void wakeUpIdleConsumer() throws Exception {
+        OrderChecker checker = new OrderChecker();
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", checker).start();
+        for (int i = 0; i < 100; i++) {
+            Thread.sleep(1); // Let the consumer fall asleep
+            dispatcher.processLine(Integer.toString(i));
+        }
+        assertTrue(dispatcher.drain(10, TimeUnit.SECONDS));
+        assertThat(checker.next, equalTo(100));
+    }
+
+    @Test
+    public void flushWhenIdle() throws Exception {
+        final CountDownLatch flushed = new CountDownLatch(1);
+        final StringBuilder buffer = new StringBuilder();
+        final StringBuilder written = new StringBuilder();
+        class Buffering extends OrderChecker implements Flushable {
+            @Override public synchronized void processLine(String line) throws IOException {
+                super.processLine(line);
+                buffer.append(line).append('\n');
+            }
+
+            @Override public synchronized void flush() {
+                written.append(buffer);
+                buffer.setLength(0);
+                if (written.toString().endsWith("1\n")) {
+                    flushed.countDown();
+                }
+            }
+        }
+        Buffering target = new Buffering();
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", target).start();
+
+        dispatcher.processLine("0");
+        dispatcher.processLine("1");
+        assertTrue(flushed.await(10, TimeUnit.SECONDS));
+        synchronized (target) {
+            assertThat(written.toString(), equalTo("0\n1\n"));
+        }
+        dispatcher.processClose(null);
+    }
+
+    private static class OrderChecker implements LogListener {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile int next = 0;
+
+        @Override public void processLine(String line) throws IOException {
+            assertThat(line, equalTo(Integer.toString(next)));
+            next++;
+        }
+
+        @Override public void processClose(Exception t) {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.jenkinsci.test.acceptance.log;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JenkinsLogStoreTest {
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void parseClassicFormat() throws Exception {
+        JenkinsLogStore store = new JenkinsLogStore(tmp.newFile("jenkins.log"));
+        feed(store,
+                "Running from: /tmp/jenkins.war",
+                "Oct 19, 2016 10:15:32 AM jenkins.InitReactorRunner$1 onAttained",
+                "INFO: Started initialization",
+                "Oct 19, 2016 10:15:33 AM hudson.ExtensionFinder$GuiceFinder$FaultTolerantScope$1 error",
+                "SEVERE: Failed to load extension",
+                "java.lang.IllegalStateException: broken",
+                "\tat hudson.Foo.bar(Foo.java:42)",
+                "Caused by: java.lang.NullPointerException",
+                "\t... 3 more"
+        );
+
+        List<JenkinsLogRecord> all = store.records(null, Level.ALL);
+        assertThat(all, hasSize(3));
+        assertThat(all.get(0).getLogger(), nullValue());
+        assertThat(all.get(0).getMessage(), equalTo("Running from: /tmp/jenkins.war"));
+        assertThat(all.get(1).getLogger(), equalTo("jenkins.InitReactorRunner$1"));
+        assertThat(all.get(1).getMessage(), equalTo("Started initialization"));
+
+        List<JenkinsLogRecord> severe = store.records(null, Level.SEVERE);
+        assertThat(severe, hasSize(1));
+        assertThat(severe.get(0).getMessage(), equalTo("Failed to load extension"));
+        assertThat(severe.get(0).getStackTrace(), equalTo(
+                "java.lang.IllegalStateException: broken\n\tat hudson.Foo.bar(Foo.java:42)\nCaused by: java.lang.NullPointerException\n\t... 3 more"
+        ));
+    }
+
+    @Test
+    public void parseSingleLineFormat() throws Exception {
+        JenkinsLogStore store = new JenkinsLogStore(tmp.newFile("jenkins.log"));
+        feed(store,
+                "2016-10-19 10:15:32.123+0000 [id=1]\tINFO\tjenkins.InitReactorRunner$1#onAttained: Started initialization",
+                "2016-10-19 10:15:33.456+0000 [id=27]\tWARNING\thudson.model.Foo#bar: Something odd"
+        );
+
+        List<JenkinsLogRecord> warnings = store.records(null, Level.WARNING);
+        assertThat(warnings, hasSize(1));
+        assertThat(warnings.get(0).getLogger(), equalTo("hudson.model.Foo"));
+        assertThat(warnings.get(0).getMessage(), equalTo("Something odd"));
+    }
+
+    @Test
+    public void sliceSinceMark() throws Exception {
+        File log = tmp.newFile("jenkins.log");
+        JenkinsLogStore store = new JenkinsLogStore(log);
+        feed(store,
+                "Oct 19, 2016 10:15:32 AM hudson.Foo bar",
+                "SEVERE: Before the test"
+        );
+
+        JenkinsLogStore.Mark mark = store.mark("test");
+        feed(store,
+                "Oct 19, 2016 10:15:33 AM hudson.Foo bar",
+                "SEVERE: During the test",
+                "Oct 19, 2016 10:15:34 AM hudson.Foo bar",
+                "INFO: Still running"
+        );
+
+        List<JenkinsLogRecord> severe = store.records(store.getMark("test"), Level.SEVERE);
+        assertThat(severe, hasSize(1));
+        assertThat(severe.get(0).getMessage(), equalTo("During the test"));
+
+        File slice = tmp.newFile("slice.log");
+        store.copySlice(mark, slice);
+        assertThat(new String(Files.readAllBytes(slice.toPath()), StandardCharsets.UTF_8), equalTo(
+                "Oct 19, 2016 10:15:33 AM hudson.Foo bar\nSEVERE: During the test\nOct 19, 2016 10:15:34 AM hudson.Foo bar\nINFO: Still running\n"
+        ));
+    }
+
+    /**
+     * Lines still queued in the dispatcher when marking belong before the mark.
+     */
+    @Test
+    public void markAfterQueuedLines() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        LogSplitter target = new LogSplitter();
+        target.addLogListener(new NullPrinter() {
+            @Override public void processLine(String line) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        AsyncLogDispatcher dispatcher = new AsyncLogDispatcher("test", target).start();
+        File log = tmp.newFile("jenkins.log");
+        JenkinsLogStore store = new JenkinsLogStore(log, dispatcher);
+        target.addLogListener(store);
+
+        dispatcher.processLine("Before the test");
+        dispatcher.processLine("Still before the test");
+        new Timer(true).schedule(new TimerTask() {
+            @Override public void run() {
+                release.countDown();
+            }
+        }, 200);
+        JenkinsLogStore.Mark mark = store.mark("test");
+        dispatcher.processLine("During the test");
+        dispatcher.drain(10, TimeUnit.SECONDS);
+
+        File slice = tmp.newFile("slice.log");
+        store.copySlice(mark, slice);
+        assertThat(new String(Files.readAllBytes(slice.toPath()), StandardCharsets.UTF_8), equalTo("During the test\n"));
+    }
+
+    private static void feed(JenkinsLogStore store, String... lines) throws Exception {
+        for (String line: lines) {
+            store.processLine(line);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+public class SshProbeTest {
+
+    @Test
+    public void ready() throws Exception {
+        try (final ServerSocket server = new ServerSocket(0)) {
+            Thread sshd = serve(server, "SSH-2.0-OpenSSH_7.4\r\n");
+            assertTrue(SshProbe.isReady("localhost", server.getLocalPort()));
+            SshProbe.await("localhost", server.getLocalPort(), 5000);
+            sshd.interrupt();
+        }
+    }
+
+    @Test
+    public void notSsh() throws Exception {
+        try (final ServerSocket server = new ServerSocket(0)) {
+            serve(server, "HTTP/1.1 400\r\n");
+            assertFalse(SshProbe.isReady("localhost", server.getLocalPort()));
+        }
+    }
+
+    @Test
+    public void notListening() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0)) {
+            port = server.getLocalPort();
+        }
+        assertFalse(SshProbe.isReady("localhost", port));
+        try {
+            SshProbe.await("localhost", port, 200);
+            fail();
+        } catch (TimeoutException expected) {
+            // expected
+        }
+    }
+
+    private static Thread serve(final ServerSocket server, final String banner) {
+        Thread t = new Thread("Fake sshd") {
+            @Override public void run() {
+                while (!server.isClosed()) {
+                    try (Socket s = server.accept()) {
+                        OutputStream out = s.getOutputStream();
+                        out.write(banner.getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
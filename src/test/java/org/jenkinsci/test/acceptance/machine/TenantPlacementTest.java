@@ -0,0 +1,147 @@
+package org.jenkinsci.test.acceptance.machine;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class TenantPlacementTest {
+    private static final MachineResources HOST = new MachineResources(8, 16384, 40);
+
+    @Test
+    public void bestFit() {
+        TenantPlacement<String> placement = new TenantPlacement<>();
+        TenantPlacement.Host<String> roomy = placement.add("roomy", HOST, 10, null);
+        TenantPlacement.Host<String> tight = placement.add("tight", HOST, 10, new MachineResources(6, 12000, 4));
+
+        assertThat(placement.allocate(new MachineResources(2, 4000, 2)), equalTo(tight));
+        // Does not fit the tight one any more
+        assertThat(placement.allocate(new MachineResources(1, 1024, 2)), equalTo(roomy));
+        assertThat(placement.allocate(new MachineResources(8, 1024, 2)), nullValue());
+        assertThat(placement.getUnplaceable(), equalTo(1L));
+    }
+
+    @Test
+    public void tenantLimit() {
+        TenantPlacement<String> placement = new TenantPlacement<>();
+        placement.add("host", HOST, 2, null);
+        MachineResources tiny = new MachineResources(0, 1, 0);
+        assertThat(placement.allocate(tiny).handle(), equalTo("host"));
+        assertThat(placement.allocate(tiny).handle(), equalTo("host"));
+        assertThat(placement.allocate(tiny), nullValue());
+    }
+
+    @Test
+    public void retireEmptyHost() {
+        TenantPlacement<String> placement = new TenantPlacement<>();
+        TenantPlacement.Host<String> host = placement.add("host", HOST, 10, MachineResources.DEFAULT_TENANT);
+        placement.allocate(MachineResources.DEFAULT_TENANT);
+
+        assertThat(placement.release(host, MachineResources.DEFAULT_TENANT), equalTo(false));
+        assertThat(placement.release(host, MachineResources.DEFAULT_TENANT), equalTo(true));
+        assertThat(host.isRetired(), equalTo(true));
+        assertThat(placement.hosts().isEmpty(), equalTo(true));
+        assertThat(placement.allocate(MachineResources.DEFAULT_TENANT), nullValue());
+    }
+
+    /**
+     * Mixed tenants fill a fleet of hundreds of hosts nearly completely.
+     */
+    @Test
+    public void packFleet() {
+        TenantPlacement<Integer> placement = new TenantPlacement<>();
+        for (int i = 0; i < 500; i++) {
+            placement.add(i, HOST, 40, null);
+        }
+
+        Random random = new Random(42);
+        while (placement.allocate(randomTenant(random)) != null) {
+            // Keep filling
+        }
+
+        long cpus = 0;
+        long tenants = 0;
+        for (TenantPlacement.Host<Integer> host : placement.hosts()) {
+            assertWithinCapacity(host);
+            cpus += host.used().cpus;
+            tenants += host.tenants();
+        }
+        assertThat(cpus, greaterThan(500L * HOST.cpus * 9 / 10));
+        assertThat(placement.getPlaced(), equalTo(tenants));
+        assertThat(placement.getUnplaceable(), equalTo(1L));
+        assertThat(placement.getContended(), equalTo(0L));
+    }
+
+    /**
+     * Concurrent allocation and release never overcommit a host and lose no tenants.
+     */
+    @Test
+    public void concurrentChurn() throws Exception {
+        final TenantPlacement<Integer> placement = new TenantPlacement<>();
+        for (int i = 0; i < 300; i++) {
+            // Keep a tenant on each host so none retires under our hands
+            placement.add(i, HOST, 40, MachineResources.DEFAULT_TENANT);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            final int seed = t;
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override public Integer call() {
+                    Random random = new Random(seed);
+                    List<TenantPlacement.Host<Integer>> hosts = new ArrayList<>();
+                    List<MachineResources> requests = new ArrayList<>();
+                    for (int i = 0; i < 20000; i++) {
+                        if (hosts.isEmpty() || random.nextBoolean()) {
+                            MachineResources request = randomTenant(random);
+                            TenantPlacement.Host<Integer> host = placement.allocate(request);
+                            if (host != null) {
+                                hosts.add(host);
+                                requests.add(request);
+                            }
+                        } else {
+                            int index = random.nextInt(hosts.size());
+                            placement.release(hosts.remove(index), requests.remove(index));
+                        }
+                    }
+                    return hosts.size();
+                }
+            }));
+        }
+        int outstanding = 0;
+        for (Future<Integer> f : results) {
+            outstanding += f.get();
+        }
+        executor.shutdown();
+
+        int tenants = 0;
+        for (TenantPlacement.Host<Integer> host : placement.hosts()) {
+            assertWithinCapacity(host);
+            tenants += host.tenants();
+        }
+        assertThat(placement.hosts().size(), equalTo(300));
+        assertThat(tenants, equalTo(300 + outstanding));
+    }
+
+    private static MachineResources randomTenant(Random random) {
+        return new MachineResources(1 + random.nextInt(3), 512 * (1 + random.nextInt(8)), 2);
+    }
+
+    private static void assertWithinCapacity(TenantPlacement.Host<?> host) {
+        assertThat(host.used().cpus, lessThanOrEqualTo(HOST.cpus));
+        assertThat(host.used().memory, lessThanOrEqualTo(HOST.memory));
+        assertThat(host.used().ports, lessThanOrEqualTo(HOST.ports));
+    }
+}
@@ -0,0 +1,147 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DurationSharderTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void longTestsAreSpread() {
+        Map<String, Long> durations = new HashMap<>();
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            durations.put("plugins.Long" + i + "Test", 600000L);
+        }
+        for (int i = 0; i < 40; i++) {
+            durations.put("core.Short" + i + "Test", 30000L);
+        }
+        classes.addAll(durations.keySet());
+        Collections.sort(classes);
+
+        DurationSharder sharder = new DurationSharder(new TestDurations(durations));
+        List<DurationSharder.Shard> byCount = sharder.shardByCount(classes, 4);
+        List<DurationSharder.Shard> byDuration = sharder.shard(classes, 4);
+
+        // Sorted by name, all long tests end up in the last shard
+        assertThat(DurationSharder.makespan(byCount), equalTo(4 * 600000L + 7 * 30000L));
+        assertThat(DurationSharder.makespan(byDuration), equalTo(600000L + 10 * 30000L));
+        for (DurationSharder.Shard shard: byDuration) {
+            assertThat(shard.getMillis(), equalTo(900000L));
+        }
+        assertAllAssignedOnce(classes, byDuration);
+    }
+
+    @Test
+    public void unknownClassesAreEstimated() {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("A", 1000L);
+        durations.put("B", 2000L);
+        durations.put("C", 9000L);
+        DurationSharder sharder = new DurationSharder(new TestDurations(durations));
+
+        assertThat(sharder.duration("C"), equalTo(9000L));
+        assertThat(sharder.duration("New"), equalTo(2000L));
+        assertThat(new DurationSharder(new TestDurations()).duration("New"), equalTo(DurationSharder.DEFAULT_ESTIMATE));
+
+        List<DurationSharder.Shard> shards = sharder.shard(Arrays.asList("A", "B", "C", "New", "Other"), 2);
+        assertThat(shards.get(0).getClasses(), containsInAnyOrder("C"));
+        assertThat(shards.get(1).getMillis(), equalTo(7000L));
+    }
+
+    @Test
+    public void syntheticSuite() {
+        Random random = new Random(42);
+        Map<String, Long> durations = new HashMap<>();
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String c = "plugins.Plugin" + i + "Test";
+            classes.add(c);
+            // Most classes take a minute or two, few take tens of minutes
+            long millis = 30000 + (long) (60000 * Math.pow(random.nextDouble(), 8) * 20) + random.nextInt(60000);
+            if (i % 10 != 0) durations.put(c, millis);
+        }
+
+        DurationSharder sharder = new DurationSharder(new TestDurations(durations));
+        long total = 0;
+        long longest = 0;
+        for (String c: classes) {
+            total += sharder.duration(c);
+            longest = Math.max(longest, sharder.duration(c));
+        }
+
+        List<DurationSharder.Shard> byCount = sharder.shardByCount(classes, 10);
+        List<DurationSharder.Shard> byDuration = sharder.shard(classes, 10);
+        long count = DurationSharder.makespan(byCount);
+        long duration = DurationSharder.makespan(byDuration);
+        assertThat(duration, lessThan(count));
+        assertThat(duration, lessThanOrEqualTo(Math.max(total / 10, longest) * 4 / 3));
+        assertAllAssignedOnce(classes, byDuration);
+    }
+
+    @Test
+    public void history() throws Exception {
+        File file = new File(tmp.getRoot(), "history/durations.txt");
+        Map<String, Long> observed = new HashMap<>();
+        observed.put("plugins.GitPluginTest", 10000L);
+        observed.put("core.FreestyleJobTest", 2000L);
+        TestDurations.update(file, observed);
+
+        observed.put("plugins.GitPluginTest", 20000L);
+        observed.remove("core.FreestyleJobTest");
+        TestDurations.update(file, observed);
+
+        TestDurations history = TestDurations.read(file);
+        assertThat(history.size(), equalTo(2));
+        assertThat(history.get("plugins.GitPluginTest"), equalTo(15000L));
+        assertThat(history.get("core.FreestyleJobTest"), equalTo(2000L));
+        assertThat(FileUtils.readFileToString(file, "UTF-8"), equalTo(String.format("core.FreestyleJobTest 2000%nplugins.GitPluginTest 15000%n")));
+    }
+
+    @Test
+    public void shardFiles() throws Exception {
+        Map<String, Long> durations = new HashMap<>();
+        durations.put("plugins.GitPluginTest", 10000L);
+        durations.put("core.FreestyleJobTest", 2000L);
+        durations.put("core.ViewTest", 3000L);
+        List<DurationSharder.Shard> shards = new DurationSharder(new TestDurations(durations)).shard(durations.keySet(), 2);
+
+        File includes = tmp.newFile("includes.txt");
+        File excludes = tmp.newFile("excludes.txt");
+        DurationSharder.writeIncludes(shards.get(1), includes);
+        DurationSharder.writeExcludes(shards, shards.get(1), excludes);
+
+        assertThat(FileUtils.readLines(includes, "UTF-8").subList(1, 3), equalTo(Arrays.asList("core/FreestyleJobTest.java", "core/ViewTest.java")));
+        assertThat(FileUtils.readLines(excludes, "UTF-8").subList(1, 2), equalTo(Collections.singletonList("plugins/GitPluginTest.java")));
+    }
+
+    private static void assertAllAssignedOnce(List<String> classes, List<DurationSharder.Shard> shards) {
+        Set<String> assigned = new HashSet<>();
+        int count = 0;
+        for (DurationSharder.Shard shard: shards) {
+            assigned.addAll(shard.getClasses());
+            count += shard.getClasses().size();
+        }
+        assertThat(count, equalTo(classes.size()));
+        assertThat(assigned, equalTo((Set<String>) new HashSet<>(classes)));
+    }
+}
@@ -0,0 +1,168 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.jenkinsci.test.acceptance.junit.Native;
+import org.jenkinsci.test.acceptance.junit.WithDocker;
+import org.jenkinsci.test.acceptance.junit.WithPlugins;
+import org.jenkinsci.test.acceptance.update_center.PluginSpec;
+import org.junit.Test;
+
+public class ExecutionPlannerTest {
+
+    @Test
+    public void requirements() throws Exception {
+        TestRequirements r = TestRequirements.of(Fixture.class, Fixture.class.getMethod("test"));
+        assertThat(r.getFingerprint(), equalTo("plugins=[ant,git@2.0] native=[git,mvn] docker"));
+
+        TestRequirements other = TestRequirements.of(Fixture.class, Fixture.class.getMethod("other"));
+        assertThat(other.getFingerprint(), equalTo("plugins=[git] native=[mvn]"));
+    }
+
+    @WithPlugins("git") @Native("mvn")
+    public static class Fixture {
+        @Test @WithPlugins({"git@2.0", "ant"}) @Native("git") @WithDocker
+        public void test() {}
+
+        @Test
+        public void other() {}
+    }
+
+    @Test
+    public void groupEqualRequirements() {
+        List<PlannedTest> tests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tests.add(test("A" + i, "git"));
+            tests.add(test("B" + i, "git", "ant"));
+            tests.add(test("C" + i));
+        }
+
+        List<PlannedTest> order = new ExecutionPlanner().order(tests);
+        ExecutionPlanner.Simulation s = ExecutionPlanner.simulate(order);
+        assertThat(s.tests, equalTo(30));
+        assertThat(s.transitions, equalTo(2));
+        assertThat(s.installations, equalTo(2));
+        assertThat(s.plugins, equalTo(2));
+
+        // Tests with no plugins first, then git, then git and ant
+        assertThat(order.get(0).getRequirements().getPlugins().size(), equalTo(0));
+        assertThat(order.get(29).getRequirements().getPlugins().size(), equalTo(2));
+    }
+
+    @Test
+    public void upgradeIsTransition() {
+        List<PlannedTest> tests = new ArrayList<>();
+        tests.add(test("A", "git@2.0"));
+        tests.add(test("B", "git"));
+        tests.add(test("C", "git@1.0"));
+
+        ExecutionPlanner.Simulation s = ExecutionPlanner.simulate(new ExecutionPlanner().order(tests));
+        // Greedy start with git@1.0 costs an upgrade later, still better than installing for every test
+        assertThat(s.installations, lessThan(3));
+        assertThat(s.transitions, equalTo(2));
+    }
+
+    @Test
+    public void splitIntoForks() {
+        List<PlannedTest> tests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            tests.add(test("T" + i, "p" + (i % 3)));
+        }
+
+        List<List<PlannedTest>> plan = new ExecutionPlanner().plan(tests, 3);
+        assertThat(plan.size(), equalTo(3));
+        int total = 0;
+        for (List<PlannedTest> fork: plan) {
+            assertThat(Math.abs(fork.size() - 11 / 3) <= 1, equalTo(true));
+            total += fork.size();
+        }
+        assertThat(total, equalTo(11));
+        for (List<PlannedTest> fork: plan) {
+            assertThat(requirements(fork).size(), equalTo(1));
+        }
+    }
+
+    @Test
+    public void keepGroupsInOneFork() {
+        List<PlannedTest> tests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tests.add(test("Big" + i, "big"));
+        }
+        for (int i = 0; i < 4; i++) {
+            tests.add(test("Small" + i, "small-" + i));
+        }
+
+        List<List<PlannedTest>> plan = new ExecutionPlanner().plan(tests, 2);
+        Set<TestRequirements> seen = new HashSet<>();
+        int total = 0;
+        for (List<PlannedTest> fork: plan) {
+            for (TestRequirements r: requirements(fork)) {
+                assertThat("In one fork " + r.getFingerprint(), seen.add(r), equalTo(true));
+            }
+            total += fork.size();
+        }
+        assertThat(total, equalTo(10));
+        assertThat(plan.get(0).size() + " and " + plan.get(1).size(), Math.abs(plan.get(0).size() - plan.get(1).size()), lessThanOrEqualTo(2));
+
+        // Fewer groups than forks
+        plan = new ExecutionPlanner().plan(tests.subList(0, 7), 3);
+        assertThat(plan.size(), equalTo(3));
+        assertThat(plan.get(0).size() + plan.get(1).size() + plan.get(2).size(), equalTo(7));
+        for (List<PlannedTest> fork: plan) {
+            assertThat(requirements(fork).size(), lessThanOrEqualTo(1));
+        }
+    }
+
+    /**
+     * Compare planned order with a random one on a synthetic suite resembling the real one.
+     */
+    @Test
+    public void simulation() {
+        Random random = new Random(42);
+        String[] popular = {"git", "workflow-aggregator", "matrix-project", "credentials", "ssh-slaves", "junit"};
+        List<PlannedTest> tests = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            int set = random.nextInt(120);
+            Random r = new Random(set);
+            List<String> plugins = new ArrayList<>();
+            plugins.add("plugin-" + set);
+            for (String p: popular) {
+                if (r.nextInt(4) == 0) plugins.add(p);
+            }
+            tests.add(test("T" + i, plugins.toArray(new String[plugins.size()])));
+        }
+        Collections.shuffle(tests, random);
+
+        ExecutionPlanner.Simulation arbitrary = ExecutionPlanner.simulate(tests);
+        ExecutionPlanner.Simulation planned = ExecutionPlanner.simulate(new ExecutionPlanner().order(tests));
+        assertThat(planned.transitions, lessThan(arbitrary.transitions));
+        assertThat(planned.installations, lessThanOrEqualTo(arbitrary.installations));
+    }
+
+    private static Set<TestRequirements> requirements(List<PlannedTest> fork) {
+        Set<TestRequirements> requirements = new HashSet<>();
+        for (PlannedTest test: fork) {
+            requirements.add(test.getRequirements());
+        }
+        return requirements;
+    }
+
+    private static PlannedTest test(String name, String... plugins) {
+        List<PluginSpec> specs = new ArrayList<>();
+        for (String plugin: plugins) {
+            specs.add(new PluginSpec(plugin));
+        }
+        TestRequirements requirements = new TestRequirements(specs, Collections.<String>emptyList(), false, null);
+        return new PlannedTest("Test" + name, "test", requirements);
+    }
+}
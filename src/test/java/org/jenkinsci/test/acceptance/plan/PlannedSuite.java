@@ -0,0 +1,10 @@
+package org.jenkinsci.test.acceptance.plan;
+
+import org.junit.runner.RunWith;
+
+/**
+ * Runs the execution plan given by <tt>EXECUTION_PLAN</tt>, see <tt>docs/SINGLE-TEST.md</tt>.
+ */
+@RunWith(ExecutionPlanRunner.class)
+public class PlannedSuite {
+}
@@ -0,0 +1,108 @@
+package org.jenkinsci.test.acceptance.po;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.jenkinsci.test.acceptance.po.UpdateCenter.InstallationFailedException;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class InstallationMonitorTest {
+
+    private final UpdateCenter uc = mock(UpdateCenter.class);
+    private final InstallationMonitor monitor = new InstallationMonitor(uc);
+
+    @Test
+    public void inProgress() throws Exception {
+        assertThat(monitor.update(json(false, job(1, "git", "Pending"), job(2, "ant", "Success"))), equalTo(false));
+        assertThat(monitor.update(json(false, job(1, "git", "Installing"), job(2, "ant", "Success"))), equalTo(false));
+        assertThat(monitor.update(json(false, job(1, "git", "Success"), job(2, "ant", "Success"))), equalTo(true));
+        assertThat(monitor.isRestartRequired(), equalTo(false));
+    }
+
+    @Test
+    public void restart() throws Exception {
+        assertThat(monitor.update(json(false, job(1, "git", "SuccessButRequiresRestart"), job(2, "ant", "Success"))), equalTo(true));
+        assertThat(monitor.isRestartRequired(), equalTo(true));
+
+        assertThat(new InstallationMonitor(uc).update(json(true, job(1, "ant", "Success"))), equalTo(true));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        try {
+            monitor.update(json(false, job(1, "git", "Installing"), failure(2, "ant", "java.io.IOException: Failed to download")));
+            fail();
+        } catch (InstallationFailedException ex) {
+            assertThat(ex.getMessage(), containsString("ant: java.io.IOException: Failed to download"));
+        }
+    }
+
+    @Test
+    public void failureToDeployDynamically() throws Exception {
+        JsonNode json = json(false, job(1, "git", "Success"), failure(2, "ant", "java.io.IOException: Failed to dynamically deploy this plugin"));
+        assertThat(monitor.update(json), equalTo(true));
+        assertThat(monitor.isRestartRequired(), equalTo(true));
+    }
+
+    @Test
+    public void retriedJobDecides() throws Exception {
+        assertThat(monitor.update(json(false, failure(1, "git", "Failed to download"), job(2, "git", "Success"))), equalTo(true));
+        assertThat(monitor.isRestartRequired(), equalTo(false));
+    }
+
+    @Test
+    public void ignoreEarlierInstallations() throws Exception {
+        InstallationMonitor scoped = new InstallationMonitor(uc, 2);
+        JsonNode json = json(false, failure(1, "ant", "java.io.IOException: Failed to download"), job(2, "git", "Pending"), job(3, "git", "Success"));
+        assertThat(scoped.update(json), equalTo(true));
+        assertThat(scoped.isRestartRequired(), equalTo(false));
+    }
+
+    @Test
+    public void waitForCompletion() throws Exception {
+        when(uc.getJson(InstallationMonitor.TREE)).thenReturn(
+                json(false, job(1, "git", "Pending")),
+                json(false, job(1, "git", "Installing")),
+                json(false, job(1, "git", "SuccessButRequiresRestart"))
+        );
+
+        long start = System.currentTimeMillis();
+        assertThat(monitor.waitForCompletion(10), equalTo(true));
+        // Completion is noticed within a poll interval
+        assertThat(System.currentTimeMillis() - start, lessThan(2000L));
+    }
+
+    private static JsonNode json(boolean restartRequired, String... jobs) throws IOException {
+        StringBuilder sb = new StringBuilder("{'restartRequiredForCompletion':" + restartRequired + ",'jobs':[");
+        for (int i = 0; i < jobs.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(jobs[i]);
+        }
+        sb.append("]}");
+        return new ObjectMapper().readTree(sb.toString().replace('\'', '"'));
+    }
+
+    private static String job(int id, String plugin, String status) {
+        return String.format(
+                "{'id':%d,'type':'InstallationJob','errorMessage':null,'plugin':{'name':'%s','version':'1.0'},'status':{'type':'%s','success':%s}}",
+                id, plugin, status, status.startsWith("Success")
+        );
+    }
+
+    private static String failure(int id, String plugin, String error) {
+        return String.format(
+                "{'id':%d,'type':'InstallationJob','errorMessage':'%s','plugin':{'name':'%s','version':'1.0'},'status':{'type':'Failure','success':false}}",
+                id, error, plugin
+        );
+    }
+}
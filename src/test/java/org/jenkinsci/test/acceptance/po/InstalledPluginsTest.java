@@ -0,0 +1,40 @@
+package org.jenkinsci.test.acceptance.po;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hudson.util.VersionNumber;
+
+public class InstalledPluginsTest {
+
+    @Test
+    public void parse() throws Exception {
+        String json = "{'plugins':[" +
+                "{'active':true,'enabled':true,'shortName':'git','version':'2.4.0','dependencies':[" +
+                    "{'optional':false,'shortName':'scm-api','version':'0.1'}," +
+                    "{'optional':true,'shortName':'promoted-builds','version':'2.10'}" +
+                "]}," +
+                "{'active':false,'enabled':false,'shortName':'scm-api','version':'0.2','dependencies':[]}" +
+        "]}";
+        InstalledPlugins installed = new InstalledPlugins(new ObjectMapper().readTree(json.replace('\'', '"')));
+
+        InstalledPlugins.InstalledPlugin git = installed.get("git");
+        assertThat(git.getVersion(), equalTo(new VersionNumber("2.4.0")));
+        assertThat(git.isActive(), equalTo(true));
+        assertThat(git.isEnabled(), equalTo(true));
+        assertThat(git.getDependencies().size(), equalTo(2));
+        assertThat(git.getDependencies().get(1).name, equalTo("promoted-builds"));
+        assertThat(git.getDependencies().get(1).optional, equalTo(true));
+
+        assertThat(installed.get("scm-api").isActive(), equalTo(false));
+        assertThat(installed.get("missing"), nullValue());
+        assertThat(installed.contains("missing"), equalTo(false));
+        assertThat(installed.getVersions().get("scm-api"), equalTo(new VersionNumber("0.2")));
+        assertThat(installed.getPlugins().size(), equalTo(2));
+    }
+}
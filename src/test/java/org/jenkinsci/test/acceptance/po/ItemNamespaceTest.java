@@ -0,0 +1,76 @@
+package org.jenkinsci.test.acceptance.po;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.jenkinsci.test.acceptance.guice.TestCleaner;
+import org.jenkinsci.test.acceptance.guice.TestLifecycle;
+import org.jenkinsci.test.acceptance.guice.TestScopeModule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+public class ItemNamespaceTest {
+
+    private final Jenkins jenkins = mock(Jenkins.class);
+    private final Injector injector = Guice.createInjector(new TestScopeModule(), new AbstractModule() {
+        @Override protected void configure() {
+            bind(Jenkins.class).toInstance(jenkins);
+        }
+    });
+    private final TestLifecycle lifecycle = injector.getInstance(TestLifecycle.class);
+
+    @Before
+    public void start() {
+        lifecycle.startTestScope();
+    }
+
+    @After
+    public void end() {
+        lifecycle.endTestScope();
+    }
+
+    @Test
+    public void inactive() {
+        ItemNamespace namespace = injector.getInstance(ItemNamespace.class);
+        assertThat(namespace.isActive(), equalTo(false));
+        assertThat(namespace.getPrefix(), nullValue());
+        assertThat(namespace.apply("job"), equalTo("job"));
+
+        injector.getInstance(TestCleaner.class).performCleanUp();
+        verify(jenkins, never()).runScript(anyString(), anyVararg());
+    }
+
+    @Test
+    public void prefixed() {
+        ItemNamespace namespace = injector.getInstance(ItemNamespace.class);
+        namespace.enter();
+        String prefix = namespace.getPrefix();
+        assertThat(namespace.apply("job"), equalTo(prefix + "job"));
+        assertThat(namespace.apply(prefix + "job"), equalTo(prefix + "job"));
+        assertThat(namespace.apply("view"), equalTo(prefix + "view"));
+
+        injector.getInstance(TestCleaner.class).performCleanUp();
+        verify(jenkins, times(1)).runScript(anyString(), eq(prefix));
+
+        lifecycle.endTestScope();
+        lifecycle.startTestScope();
+        ItemNamespace other = injector.getInstance(ItemNamespace.class);
+        other.enter();
+        assertThat(other.getPrefix(), not(equalTo(prefix)));
+        assertThat(other.apply(prefix + "job").startsWith(other.getPrefix()), equalTo(true));
+    }
+}
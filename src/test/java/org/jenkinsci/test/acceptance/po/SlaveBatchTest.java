@@ -0,0 +1,15 @@
+package org.jenkinsci.test.acceptance.po;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+
+public class SlaveBatchTest {
+
+    @Test
+    public void literal() {
+        assertThat(SlaveBatch.literal("/tmp/agent"), equalTo("'/tmp/agent'"));
+        assertThat(SlaveBatch.literal("C:\\Users\\O'Brien\\agent"), equalTo("'C:\\\\Users\\\\O\\'Brien\\\\agent'"));
+    }
+}
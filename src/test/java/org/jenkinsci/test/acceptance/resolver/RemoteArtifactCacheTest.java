@@ -0,0 +1,120 @@
+package org.jenkinsci.test.acceptance.resolver;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.jenkinsci.test.acceptance.Ssh;
+import org.jenkinsci.test.acceptance.SshKeyPair;
+import org.jenkinsci.test.acceptance.SshKeyPairGenerator;
+import org.jenkinsci.test.acceptance.docker.Docker;
+import org.jenkinsci.test.acceptance.docker.DockerModule;
+import org.jenkinsci.test.acceptance.guice.WorldCleaner;
+import org.jenkinsci.test.acceptance.machine.DockerMachineProvider;
+import org.jenkinsci.test.acceptance.machine.Machine;
+import org.jenkinsci.utils.process.CommandBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.inject.Guice;
+
+/**
+ * Transfers artifacts to a local container, skipped without docker and rsync.
+ *
+ * Container traffic does not leave the host, so the transfers are compared by bytes sent rather than by time.
+ */
+public class RemoteArtifactCacheTest {
+    private static final int SIZE = 32 * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private DockerMachineProvider provider;
+    private Machine machine;
+    private SshKeyPair keyPair;
+
+    @Before
+    public void startMachine() throws Exception {
+        Docker docker = Guice.createInjector(new DockerModule()).getInstance(Docker.class);
+        assumeTrue("Needs docker", docker.isAvailable());
+        assumeTrue("Needs rsync", new CommandBuilder("which", "rsync").system() == 0);
+
+        keyPair = new SshKeyPairGenerator().get();
+        provider = new DockerMachineProvider(docker, keyPair, new WorldCleaner());
+        machine = provider.get();
+        try (Ssh ssh = machine.connect()) {
+            assumeTrue("Needs rsync on the machine", ssh.getConnection().exec("command -v rsync", System.out) == 0);
+        }
+    }
+
+    @After
+    public void stopMachine() throws Exception {
+        if (provider != null) {
+            provider.close();
+        }
+    }
+
+    @Test
+    public void deltaTransfer() throws Exception {
+        File artifact = tmp.newFile("jenkins.war");
+        byte[] content = new byte[SIZE];
+        new Random(42).nextBytes(content); // Incompressible, like a war
+        org.apache.commons.io.FileUtils.writeByteArrayToFile(artifact, content);
+
+        RemoteArtifactCache cache = new RemoteArtifactCache(machine, keyPair.privateKey);
+        long full = transfer(cache, artifact, "initial");
+
+        // A new version with a few changed places
+        try (RandomAccessFile f = new RandomAccessFile(artifact, "rw")) {
+            for (int i = 1; i <= 4; i++) {
+                f.seek(SIZE / 5 * i);
+                f.write("changed".getBytes("UTF-8"));
+            }
+        }
+        artifact.setLastModified(artifact.lastModified() + 2000);
+        long delta = transfer(cache, artifact, "changed");
+        assertThat(delta, lessThan(full / 10));
+
+        long hits = RemoteArtifactCache.getHits();
+        assertThat(transfer(cache, artifact, "unchanged"), equalTo(0L));
+        assertThat(RemoteArtifactCache.getHits(), equalTo(hits + 1));
+    }
+
+    @Test
+    public void keepMostRecentlyUsed() throws Exception {
+        RemoteArtifactCache cache = new RemoteArtifactCache(machine, keyPair.privateKey);
+        String reused = cache.put(version("reused"), "keep.zip");
+        for (String v : new String[] {"second", "third"}) {
+            Thread.sleep(1100); // Distinct modification times
+            cache.put(version(v), "keep.zip");
+        }
+        Thread.sleep(1100);
+        assertThat(cache.put(version("reused"), "keep.zip"), equalTo(reused)); // Hit
+        Thread.sleep(1100);
+        cache.put(version("fourth"), "keep.zip");
+
+        try (Ssh ssh = machine.connect()) {
+            assertThat(ssh.getConnection().exec("test -f " + Ssh.escape(reused), System.out), equalTo(0));
+        }
+    }
+
+    private File version(String content) throws Exception {
+        File f = new File(tmp.getRoot(), content + ".zip");
+        org.apache.commons.io.FileUtils.writeStringToFile(f, content, "UTF-8");
+        return f;
+    }
+
+    private static long transfer(RemoteArtifactCache cache, File artifact, String version) throws Exception {
+        long sent = RemoteArtifactCache.getBytesSent();
+        cache.materialize(artifact, "bench.war", "bench/" + version + "/jenkins.war");
+        return RemoteArtifactCache.getBytesSent() - sent;
+    }
+}
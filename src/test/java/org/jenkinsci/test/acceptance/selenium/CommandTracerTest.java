@@ -0,0 +1,123 @@
+package org.jenkinsci.test.acceptance.selenium;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+public class CommandTracerTest {
+    private static final String TEST = CommandTracerTest.class.getName();
+
+    private final CommandTracer tracer = new CommandTracer();
+
+    @Test
+    public void attributeDriverCommandsToCaller() {
+        WebDriver driver = tracer.wrap(fakeDriver());
+
+        openPage(driver);
+        driver.getCurrentUrl(); // Not reported
+
+        Map<String, CommandTracer.Cost> costs = costs();
+        assertThat(costs.keySet(), equalTo(keys(
+                TEST + ".openPage navigate", TEST + ".openPage find", TEST + ".openPage executeScript"
+        )));
+        assertThat(costs.get(TEST + ".openPage find").getCount(), equalTo(2L));
+        assertThat(costs.get(TEST + ".openPage navigate").getCount(), equalTo(1L));
+    }
+
+    @Test
+    public void reportListenersSeparately() {
+        WebDriver driver = tracer.wrap(fakeDriver());
+
+        tracer.beforeClickOn(null, driver);
+        new SanityChecker().beforeClickOn(null, driver);
+        tracer.afterClickOn(null, driver);
+
+        Map<String, CommandTracer.Cost> costs = costs();
+        assertThat(costs.keySet(), equalTo(keys(
+                TEST + ".reportListenersSeparately click",
+                SanityChecker.class.getName() + ".isFastPath getPageSource"
+        )));
+    }
+
+    @Test
+    public void report() {
+        WebDriver driver = tracer.wrap(fakeDriver());
+        openPage(driver);
+        openPage(driver);
+
+        String report = tracer.report();
+        assertThat(report, containsString("8 WebDriver commands taking "));
+        assertThat(report, containsString("total[ms]    count  max[ms]  caller command"));
+        assertThat(row(report, 4, TEST + ".openPage find"), equalTo(true));
+        assertThat(row(report, 2, TEST + ".openPage navigate"), equalTo(true));
+    }
+
+    /**
+     * Report has a row with the count for the key, times vary.
+     */
+    private static boolean row(String report, int count, String key) {
+        return report.matches("(?s).*\\n\\s+\\d+\\s+" + count + "\\s+\\d+  " + Pattern.quote(key) + "\\n.*");
+    }
+
+    private static void openPage(WebDriver driver) {
+        driver.get("http://localhost/");
+        driver.findElements(By.xpath("//h1"));
+        driver.findElement(By.xpath("//form"));
+        ((JavascriptExecutor) driver).executeScript("return 42");
+    }
+
+    private Map<String, CommandTracer.Cost> costs() {
+        Map<String, CommandTracer.Cost> costs = new HashMap<>();
+        for (CommandTracer.Cost c: tracer.getCosts()) {
+            costs.put(c.getKey(), c);
+        }
+        return costs;
+    }
+
+    private static Set<String> keys(String... keys) {
+        Set<String> set = new HashSet<>();
+        Collections.addAll(set, keys);
+        return set;
+    }
+
+    /**
+     * Driver answering every command with an empty value, as if the page was fine.
+     */
+    private static WebDriver fakeDriver() {
+        return (WebDriver) Proxy.newProxyInstance(
+                CommandTracerTest.class.getClassLoader(),
+                new Class<?>[] {WebDriver.class, JavascriptExecutor.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "findElements":
+                                return Collections.<WebElement>emptyList();
+                            case "getPageSource":
+                                return "<html><body>Fine</body></html>";
+                            case "getCurrentUrl":
+                                return "http://localhost/";
+                            default:
+                                return null;
+                        }
+                    }
+                }
+        );
+    }
+}
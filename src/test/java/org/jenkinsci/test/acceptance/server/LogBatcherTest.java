@@ -0,0 +1,123 @@
+package org.jenkinsci.test.acceptance.server;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jenkinsci.test.acceptance.log.LogListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import hudson.remoting.Channel;
+import hudson.remoting.ChannelBuilder;
+
+public class LogBatcherTest {
+
+    private static final int LINES = 20000;
+
+    private ExecutorService executor;
+    private Channel harness;
+    private Channel pool;
+
+    @Before
+    public void connect() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        try (final ServerSocket ss = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Future<Channel> accepted = executor.submit(() -> {
+                Socket s = ss.accept();
+                return new ChannelBuilder("harness", executor).withMode(Channel.Mode.BINARY).build(s.getInputStream(), s.getOutputStream());
+            });
+            Socket s = new Socket(ss.getInetAddress(), ss.getLocalPort());
+            pool = new ChannelBuilder("pool", executor).withMode(Channel.Mode.BINARY).build(s.getInputStream(), s.getOutputStream());
+            harness = accepted.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void disconnect() throws Exception {
+        pool.close();
+        harness.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void frameRoundtrip() throws Exception {
+        List<String> lines = Arrays.asList("", "plain", "ünïcödé", "\ttab");
+        assertThat(LogFrame.decode(LogFrame.encode(lines, false)), equalTo(lines));
+        assertThat(LogFrame.decode(LogFrame.encode(lines, true)), equalTo(lines));
+
+        List<String> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add("INFO: Line number " + i);
+        }
+        byte[] compressed = LogFrame.encode(many, true);
+        assertThat(compressed.length, lessThan(LogFrame.encode(many, false).length));
+        assertThat(LogFrame.decode(compressed), equalTo(many));
+    }
+
+    @Test
+    public void forwardInFrames() throws Exception {
+        long uncompressed = 0;
+        for (boolean compress: new boolean[] {false, true}) {
+            Recorder batched = new Recorder();
+            harness.setProperty("batched" + compress, harness.export(LogBatchListener.class, new LogBatchReceiver(batched)));
+            LogBatchListener batchedRemote = (LogBatchListener) pool.waitForRemoteProperty("batched" + compress);
+
+            LogBatcher batcher = new LogBatcher(batchedRemote, compress);
+            feed(batcher, batched);
+
+            assertThat(batcher.getLines(), equalTo((long) LINES));
+            // A remote call per frame, not per line
+            assertThat(batcher.getFrames(), lessThanOrEqualTo((long) LINES / 10));
+            if (compress) {
+                assertThat(batcher.getWireBytes(), lessThan(uncompressed));
+            } else {
+                uncompressed = batcher.getWireBytes();
+            }
+        }
+    }
+
+    private void feed(LogListener target, Recorder recorder) throws Exception {
+        for (int i = 0; i < LINES; i++) {
+            target.processLine(Integer.toString(i));
+        }
+        target.processClose(null);
+        assertTrue("Log was not delivered", recorder.closed.await(60, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (recorder.next < LINES && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(recorder.next, equalTo(LINES));
+    }
+
+    private static final class Recorder implements LogListener {
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile int next = 0;
+
+        @Override public synchronized void processLine(String line) throws IOException {
+            if (!line.equals(Integer.toString(next))) throw new IOException("Expected " + next + " got " + line);
+            next++;
+        }
+
+        @Override public void processClose(Exception t) {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.jenkinsci.test.acceptance.slave;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SwarmSlaveControllerTest {
+
+    @Test
+    public void percentile() {
+        List<Long> sorted = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            sorted.add(i * 100);
+        }
+        assertThat(SwarmSlaveController.percentile(sorted, 50), equalTo(500L));
+        assertThat(SwarmSlaveController.percentile(sorted, 90), equalTo(900L));
+        assertThat(SwarmSlaveController.percentile(sorted, 100), equalTo(1000L));
+        assertThat(SwarmSlaveController.percentile(Collections.singletonList(42L), 50), equalTo(42L));
+        assertThat(SwarmSlaveController.percentile(Collections.<Long>emptyList(), 50), equalTo(-1L));
+    }
+}
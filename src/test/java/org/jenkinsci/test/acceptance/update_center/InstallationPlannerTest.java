@@ -0,0 +1,118 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jenkinsci.test.acceptance.po.InstalledPlugins;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import hudson.util.VersionNumber;
+
+public class InstallationPlannerTest {
+    private static final VersionNumber CORE = new VersionNumber("2.0");
+
+    private final Map<String, PluginMetadata> plugins = new HashMap<>();
+    {
+        plugin("credentials", "2.0");
+        plugin("ssh-credentials", "1.5", "credentials:2.0");
+        plugin("git-client", "1.0", "ssh-credentials:1.5");
+        plugin("git", "2.0", "git-client:1.0", "credentials:1.0");
+        plugin("ant", "1.0");
+        plugin("matrix", "1.0", "ant:1.0;resolution:=optional");
+    }
+
+    @Test
+    public void dynamic() throws Exception {
+        InstallationPlanner.Plan plan = plan(installed("credentials:2.0:true"), "git", "ant");
+        assertThat(names(plan.getDynamic()), contains("ssh-credentials", "git-client", "git", "ant"));
+        assertThat(plan.getRestartRequiring(), empty());
+        assertThat(plan.isRestartRequired(), equalTo(false));
+    }
+
+    @Test
+    public void upgradeRequiresRestartOfDependents() throws Exception {
+        InstallationPlanner.Plan plan = plan(installed("credentials:1.0:true", "ant:0.9:true"), "git", "ant@1.0", "matrix");
+        assertThat(names(plan.getDynamic()), empty());
+        assertThat(names(plan.getRestartRequiring()), contains("credentials", "ssh-credentials", "git-client", "git", "ant", "matrix"));
+        assertThat(plan.isRestartRequired(), equalTo(true));
+    }
+
+    @Test
+    public void independentPluginsStayDynamic() throws Exception {
+        InstallationPlanner.Plan plan = plan(installed("credentials:1.0:true"), "git", "ant");
+        assertThat(names(plan.getDynamic()), contains("ant"));
+        assertThat(names(plan.getRestartRequiring()), contains("credentials", "ssh-credentials", "git-client", "git"));
+    }
+
+    @Test
+    public void inactiveDependency() throws Exception {
+        InstallationPlanner.Plan plan = plan(installed("credentials:2.0:false"), "ssh-credentials");
+        assertThat(names(plan.getRestartRequiring()), contains("ssh-credentials"));
+    }
+
+    @Test
+    public void installedAlready() throws Exception {
+        InstallationPlanner.Plan plan = plan(installed("credentials:2.0:true", "ant:1.0:true"), "credentials", "ant@0.5");
+        assertThat(plan.getDynamic(), empty());
+        assertThat(plan.getRestartRequiring(), empty());
+    }
+
+    @Test
+    public void oldCore() throws Exception {
+        InstallationPlanner.Plan plan = new InstallationPlanner(UpdateCenterMetadata.get("test", plugins))
+                .plan(specs("ant"), new VersionNumber("1.400"), installed())
+        ;
+        assertThat(names(plan.getRestartRequiring()), contains("ant"));
+    }
+
+    private InstallationPlanner.Plan plan(InstalledPlugins installed, String... specs) {
+        return new InstallationPlanner(UpdateCenterMetadata.get("test", plugins)).plan(specs(specs), CORE, installed);
+    }
+
+    private void plugin(String name, String version, String... deps) {
+        List<Dependency> dependencies = new ArrayList<>();
+        for (String dep: deps) {
+            dependencies.add(new Dependency(dep));
+        }
+        plugins.put(name, new PluginMetadata(name, "org.jenkins-ci.plugins:" + name + ":" + version, version, "1.0", dependencies));
+    }
+
+    /**
+     * @param plugins name:version:active
+     */
+    private static InstalledPlugins installed(String... plugins) throws Exception {
+        StringBuilder sb = new StringBuilder("{'plugins':[");
+        for (int i = 0; i < plugins.length; i++) {
+            String[] p = plugins[i].split(":");
+            if (i > 0) sb.append(',');
+            sb.append(String.format("{'shortName':'%s','version':'%s','active':%s,'enabled':%<s,'dependencies':[]}", p[0], p[1], p[2]));
+        }
+        sb.append("]}");
+        return new InstalledPlugins(new ObjectMapper().readTree(sb.toString().replace('\'', '"')));
+    }
+
+    private static List<PluginSpec> specs(String... specs) {
+        List<PluginSpec> ret = new ArrayList<>();
+        for (String spec: specs) {
+            ret.add(new PluginSpec(spec));
+        }
+        return ret;
+    }
+
+    private static List<String> names(List<PluginMetadata> plugins) {
+        List<String> names = new ArrayList<>();
+        for (PluginMetadata p: plugins) {
+            names.add(p.getName());
+        }
+        return names;
+    }
+}
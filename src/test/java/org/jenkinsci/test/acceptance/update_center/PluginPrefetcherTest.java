@@ -0,0 +1,92 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PluginPrefetcherTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final Map<String, PluginMetadata> plugins = new HashMap<>();
+
+    @Test
+    public void closure() throws Exception {
+        plugin("consumer", "provider:1", "optional:1;resolution:=optional");
+        plugin("provider", "base:1");
+        plugin("base");
+        plugin("optional");
+        plugin("other", "base:1", "missing:1");
+
+        PluginPrefetcher prefetcher = new PluginPrefetcher(UpdateCenterMetadata.get("id", plugins), null, 2);
+
+        assertThat(names(prefetcher.closure(specs("consumer"))), containsInAnyOrder("consumer", "provider", "base"));
+        assertThat(names(prefetcher.closure(specs("consumer", "other", "nonexistent"))), containsInAnyOrder("consumer", "provider", "base", "other"));
+        assertThat(names(prefetcher.closure(specs("base@2"))), containsInAnyOrder("base"));
+    }
+
+    @Test
+    public void closureIncludesPinnedVersion() throws Exception {
+        plugins.put("base", new PluginMetadata("base", "org.jenkins-ci.plugins:base:3", "3", "1", new ArrayList<Dependency>()));
+
+        PluginPrefetcher prefetcher = new PluginPrefetcher(UpdateCenterMetadata.get("id", plugins), null, 2);
+
+        List<String> versions = new ArrayList<>();
+        for (PluginMetadata pm: prefetcher.closure(specs("base@2"))) {
+            versions.add(pm.getName() + ":" + pm.getVersion());
+        }
+        assertThat(versions, containsInAnyOrder("base:3", "base:2"));
+        assertThat(prefetcher.closure(specs("base@3")).size(), equalTo(1));
+    }
+
+    @Test
+    public void prefetch() throws Exception {
+        plugin("consumer", "provider:1");
+        plugin("provider");
+        plugin("unrelated");
+
+        PluginPrefetcher.Result result = new PluginPrefetcher(UpdateCenterMetadata.get("id", plugins), null, 2).prefetch(specs("consumer"));
+        assertThat(result.plugins, equalTo(2));
+        assertThat(result.failed, equalTo(0));
+        assertThat(result.bytes, equalTo((long) ("consumer".length() + "provider".length())));
+    }
+
+    private void plugin(String name, String... deps) throws IOException {
+        List<Dependency> dependencies = new ArrayList<>();
+        for (String dep: deps) {
+            dependencies.add(new Dependency(dep));
+        }
+        File hpi = tmp.newFile(name + ".hpi");
+        FileUtils.writeStringToFile(hpi, name);
+        plugins.put(name, new PluginMetadata.LocalOverride(name, "org.jenkins-ci.plugins:" + name + ":1", "1", "1", dependencies, hpi));
+    }
+
+    private static List<PluginSpec> specs(String... specs) {
+        List<PluginSpec> ret = new ArrayList<>();
+        for (String spec: specs) {
+            ret.add(new PluginSpec(spec));
+        }
+        return ret;
+    }
+
+    private static List<String> names(Iterable<PluginMetadata> plugins) {
+        List<String> ret = new ArrayList<>();
+        for (PluginMetadata pm: plugins) {
+            ret.add(pm.getName());
+        }
+        return ret;
+    }
+}
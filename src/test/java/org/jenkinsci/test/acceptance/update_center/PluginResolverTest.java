@@ -0,0 +1,254 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.jenkinsci.test.acceptance.update_center.UpdateCenterMetadata.UnableToResolveDependencies;
+import org.junit.Test;
+import org.junit.internal.AssumptionViolatedException;
+
+import hudson.util.VersionNumber;
+
+public class PluginResolverTest {
+    private static final VersionNumber CORE = new VersionNumber("2.0");
+    private static final Map<String, VersionNumber> NONE_INSTALLED = Collections.emptyMap();
+
+    private final Map<String, PluginMetadata> plugins = new HashMap<>();
+
+    @Test
+    public void dependenciesFirst() {
+        plugin("a", "1", "b:1", "c:1");
+        plugin("b", "1", "c:1");
+        plugin("c", "1");
+        plugin("d", "1");
+
+        assertThat(names(resolve("a", "d")), contains("c", "b", "a", "d"));
+        assertThat(names(resolve("d", "c", "a")), contains("d", "c", "b", "a"));
+    }
+
+    @Test
+    public void installedDependenciesAreSkipped() {
+        plugin("a", "1", "b:1", "c:2");
+        plugin("b", "1", "d:1");
+        plugin("c", "2");
+        plugin("d", "1");
+
+        Map<String, VersionNumber> installed = installed("b:1", "c:1", "a:1");
+        // b is sufficient so its dependencies are not needed, c needs an upgrade, a was requested explicitly
+        assertThat(names(new PluginResolver(ucm()).resolve(specs("a"), CORE, installed)), contains("c", "a"));
+    }
+
+    @Test
+    public void optionalDependencies() {
+        plugin("a", "1", "b:2;resolution:=optional", "c:1;resolution:=optional");
+        plugin("b", "2");
+        plugin("c", "1");
+
+        assertThat(names(resolve("a")), contains("a"));
+        // Installed b is too old for a to load
+        assertThat(names(new PluginResolver(ucm()).resolve(specs("a"), CORE, installed("b:1", "c:1"))), contains("b", "a"));
+        // Optional dependency requested explicitly is installed first
+        assertThat(names(resolve("a", "b")), contains("b", "a"));
+    }
+
+    @Test
+    public void highestRequiredVersionWins() {
+        plugin("a", "1", "c:1.5");
+        plugin("b", "1", "c:1.7");
+        pluginForCore("c", "2.0", "3.0"); // Too new for core
+
+        List<PluginMetadata> plan = resolve("a", "b");
+        assertThat(names(plan), contains("c", "a", "b"));
+        assertThat(plan.get(0).getVersion(), equalTo("1.7"));
+    }
+
+    @Test
+    public void cycle() {
+        plugin("a", "1", "b:1");
+        plugin("b", "1", "c:1");
+        plugin("c", "1", "a:1");
+
+        assertThat(names(resolve("a")), contains("c", "b", "a"));
+        assertThat(names(resolve("b")), contains("a", "c", "b"));
+    }
+
+    @Test(expected = UnableToResolveDependencies.class)
+    public void missingDependency() {
+        plugin("a", "1", "missing:1");
+        resolve("a");
+    }
+
+    @Test(expected = AssumptionViolatedException.class)
+    public void missingPlugin() {
+        resolve("missing");
+    }
+
+    @Test(expected = UnableToResolveDependencies.class)
+    public void coreTooOld() {
+        plugins.put("a", new PluginMetadata("a", "org.jenkins-ci.plugins:a:1", "1", "3.0", Collections.<Dependency>emptyList()));
+        resolve("a");
+    }
+
+    /**
+     * Resolve requests over a synthetic update center with thousands of densely connected plugins and compare the
+     * plugins planned with a naive recursive resolution.
+     */
+    @Test
+    public void syntheticGraph() {
+        Random random = new Random(42);
+        int size = 5000;
+        for (int i = 0; i < size; i++) {
+            List<String> deps = new ArrayList<>();
+            int count = i == 0 ? 0 : random.nextInt(Math.min(i, 12));
+            for (int j = 0; j < count; j++) {
+                // Prefer depending on popular plugins with low numbers, like the real update center does
+                int dep = (int) (i * Math.pow(random.nextDouble(), 3));
+                deps.add("p" + dep + ":1." + random.nextInt(10) + (random.nextInt(8) == 0 ? ";resolution:=optional" : ""));
+            }
+            plugin("p" + i, "1.9", deps.toArray(new String[deps.size()]));
+        }
+        UpdateCenterMetadata ucm = ucm();
+
+        Map<String, VersionNumber> installed = new HashMap<>();
+        for (int i = 0; i < size; i += 7) {
+            installed.put("p" + i, new VersionNumber("1." + random.nextInt(10)));
+        }
+
+        for (int i = size - 100; i < size; i++) {
+            List<PluginSpec> request = Arrays.asList(new PluginSpec("p" + i), new PluginSpec("p" + random.nextInt(size)));
+            List<PluginMetadata> plan = new PluginResolver(ucm).resolve(request, CORE, installed);
+            verify(plan, request, installed);
+            assertThat(new HashSet<>(names(plan)), equalTo(expected(request, installed)));
+        }
+
+        // Resolve everything at once
+        List<PluginSpec> all = new ArrayList<>();
+        for (int i = size - 1; i >= 0; i--) {
+            all.add(new PluginSpec("p" + i));
+        }
+        List<PluginMetadata> plan = new PluginResolver(ucm).resolve(all, CORE, NONE_INSTALLED);
+        assertThat(plan.size(), equalTo(size));
+        verify(plan, all, NONE_INSTALLED);
+    }
+
+    @Test
+    public void longChain() {
+        int size = 20000;
+        plugin("p0", "1");
+        for (int i = 1; i < size; i++) {
+            plugin("p" + i, "1", "p" + (i - 1) + ":1");
+        }
+
+        List<PluginMetadata> plan = resolve("p" + (size - 1));
+        assertThat(plan.size(), equalTo(size));
+        assertThat(plan.get(0).getName(), equalTo("p0"));
+        verify(plan, specs("p" + (size - 1)), NONE_INSTALLED);
+    }
+
+    /**
+     * Plugins needed for the request, resolved recursively one dependency at a time.
+     */
+    private Set<String> expected(List<PluginSpec> request, Map<String, VersionNumber> installed) {
+        Set<String> expected = new HashSet<>();
+        for (PluginSpec spec: request) {
+            expected.add(spec.getName());
+        }
+        for (PluginSpec spec: request) {
+            expected(plugins.get(spec.getName()), installed, expected);
+        }
+        return expected;
+    }
+
+    private void expected(PluginMetadata p, Map<String, VersionNumber> installed, Set<String> expected) {
+        for (Dependency d: p.getDependencies()) {
+            VersionNumber current = installed.get(d.name);
+            boolean outdated = current != null && current.isOlderThan(new VersionNumber(d.version));
+            boolean needed = d.optional ? outdated : current == null || outdated;
+            if (needed && expected.add(d.name)) {
+                expected(plugins.get(d.name), installed, expected);
+            }
+        }
+    }
+
+    /**
+     * Every plugin is planned once, after all its planned dependencies, and all needed dependencies are planned.
+     */
+    private void verify(List<PluginMetadata> plan, List<PluginSpec> request, Map<String, VersionNumber> installed) {
+        Map<String, Integer> position = new HashMap<>();
+        for (PluginMetadata p: plan) {
+            assertThat("Planned once " + p, position.put(p.getName(), position.size()), equalTo(null));
+        }
+        for (PluginSpec spec: request) {
+            assertThat("Requested " + spec, position.containsKey(spec.getName()), equalTo(true));
+        }
+
+        for (PluginMetadata p: plan) {
+            for (Dependency d: p.getDependencies()) {
+                VersionNumber current = installed.get(d.name);
+                boolean satisfied = current != null && !current.isOlderThan(new VersionNumber(d.version));
+                if (!d.optional && !satisfied) {
+                    assertThat("Dependency " + d + " of " + p, position.containsKey(d.name), equalTo(true));
+                }
+                if (position.containsKey(d.name)) {
+                    assertThat("Order of " + d + " and " + p, position.get(d.name) < position.get(p.getName()), equalTo(true));
+                }
+            }
+        }
+    }
+
+    private void plugin(String name, String version, String... deps) {
+        pluginForCore(name, version, "1.0", deps);
+    }
+
+    private void pluginForCore(String name, String version, String core, String... deps) {
+        List<Dependency> dependencies = new ArrayList<>();
+        for (String dep: deps) {
+            dependencies.add(new Dependency(dep));
+        }
+        plugins.put(name, new PluginMetadata(name, "org.jenkins-ci.plugins:" + name + ":" + version, version, core, dependencies));
+    }
+
+    private UpdateCenterMetadata ucm() {
+        return UpdateCenterMetadata.get("test", plugins);
+    }
+
+    private List<PluginMetadata> resolve(String... specs) {
+        return new PluginResolver(ucm()).resolve(specs(specs), CORE, NONE_INSTALLED);
+    }
+
+    private static List<PluginSpec> specs(String... specs) {
+        List<PluginSpec> ret = new ArrayList<>();
+        for (String spec: specs) {
+            ret.add(new PluginSpec(spec));
+        }
+        return ret;
+    }
+
+    private static Map<String, VersionNumber> installed(String... coordinates) {
+        Map<String, VersionNumber> installed = new HashMap<>();
+        for (String c: coordinates) {
+            String[] parts = c.split(":");
+            installed.put(parts[0], new VersionNumber(parts[1]));
+        }
+        return installed;
+    }
+
+    private static List<String> names(List<PluginMetadata> plan) {
+        List<String> names = new ArrayList<>();
+        for (PluginMetadata p: plan) {
+            names.add(p.getName());
+        }
+        return names;
+    }
+}
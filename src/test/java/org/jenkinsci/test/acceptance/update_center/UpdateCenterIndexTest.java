@@ -0,0 +1,151 @@
+package org.jenkinsci.test.acceptance.update_center;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UpdateCenterIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void streamingParserAgreesWithDatabinding() throws Exception {
+        File json = updateCenter(500);
+
+        UpdateCenterMetadata expected = UpdateCenterMetadata.parse(json);
+        UpdateCenterMetadata actual = UpdateCenterIndex.parse(json);
+
+        assertSame(expected, actual);
+        assertThat(actual.originalJSON(), equalTo(expected.originalJSON()));
+    }
+
+    @Test
+    public void indexIsCreatedAndReused() throws Exception {
+        File json = updateCenter(50);
+        File index = UpdateCenterIndex.indexOf(json);
+
+        assertNull(UpdateCenterIndex.read(index, json));
+        UpdateCenterMetadata parsed = UpdateCenterIndex.load(json);
+        assertTrue(index.isFile());
+
+        UpdateCenterMetadata read = UpdateCenterIndex.read(index, json);
+        assertNotNull(read);
+        assertSame(parsed, read);
+        assertSame(parsed, UpdateCenterIndex.load(json));
+
+        // Dependencies resolve against the loaded metadata
+        assertThat(read.plugins.get("plugin-10").getDependencies().get(0).get().getName(), equalTo("plugin-9"));
+        assertThat(read.originalJSON(), equalTo(parsed.originalJSON()));
+    }
+
+    @Test
+    public void staleIndexIsIgnored() throws Exception {
+        File json = updateCenter(50);
+        File index = UpdateCenterIndex.indexOf(json);
+        UpdateCenterIndex.load(json);
+
+        json.setLastModified(json.lastModified() - 60000);
+        assertNull(UpdateCenterIndex.read(index, json));
+
+        // Recreated
+        UpdateCenterIndex.load(json);
+        assertNotNull(UpdateCenterIndex.read(index, json));
+    }
+
+    @Test
+    public void corruptedIndexIsIgnored() throws Exception {
+        File json = updateCenter(50);
+        File index = UpdateCenterIndex.indexOf(json);
+        UpdateCenterMetadata parsed = UpdateCenterIndex.load(json);
+
+        try (PrintWriter w = new PrintWriter(index)) {
+            w.print("garbage");
+        }
+        assertNull(UpdateCenterIndex.read(index, json));
+        assertSame(parsed, UpdateCenterIndex.load(json));
+    }
+
+    /**
+     * Realistically sized update center.
+     */
+    @Test
+    public void largeIndexAgreesWithDatabinding() throws Exception {
+        File json = updateCenter(2000);
+        File index = UpdateCenterIndex.indexOf(json);
+        UpdateCenterIndex.load(json);
+
+        // Only what the harness needs is kept
+        assertThat(index.length(), lessThan(json.length()));
+        assertSame(UpdateCenterMetadata.parse(json), UpdateCenterIndex.read(index, json));
+
+        // Not held open, so it can be rebuilt
+        assertTrue(index.delete());
+        UpdateCenterIndex.load(json);
+        assertTrue(index.isFile());
+    }
+
+    private void assertSame(UpdateCenterMetadata expected, UpdateCenterMetadata actual) {
+        assertThat(actual.id, equalTo(expected.id));
+        assertThat(actual.plugins.keySet(), equalTo(expected.plugins.keySet()));
+        for (PluginMetadata e: expected.plugins.values()) {
+            PluginMetadata a = actual.plugins.get(e.getName());
+            assertThat(a.getName(), equalTo(e.getName()));
+            assertThat(a.gav, equalTo(e.gav));
+            assertThat(a.getVersion(), equalTo(e.getVersion()));
+            assertThat(a.requiredCore, equalTo(e.requiredCore));
+
+            List<Dependency> eDeps = e.getDependencies();
+            List<Dependency> aDeps = a.getDependencies();
+            assertThat(aDeps.size(), equalTo(eDeps.size()));
+            for (int i = 0; i < eDeps.size(); i++) {
+                assertThat(aDeps.get(i).name, equalTo(eDeps.get(i).name));
+                assertThat(aDeps.get(i).version, equalTo(eDeps.get(i).version));
+                assertThat(aDeps.get(i).optional, is(eDeps.get(i).optional));
+            }
+        }
+    }
+
+    /**
+     * Synthetic update center in the format served by updates.jenkins-ci.org, including the fields harness ignores.
+     */
+    private File updateCenter(int size) throws IOException {
+        File file = tmp.newFile("update-center.json");
+        try (PrintWriter w = new PrintWriter(file, "UTF-8")) {
+            w.println("updateCenter.post(");
+            w.print("{\"connectionCheckUrl\":\"http://www.google.com/\",\"core\":{\"buildDate\":\"Oct 19, 2016\",\"name\":\"core\",\"sha1\":\"abc=\",\"url\":\"http://updates.jenkins-ci.org/download/war/2.7/jenkins.war\",\"version\":\"2.7\"},");
+            w.print("\"id\":\"default\",\"plugins\":{");
+            for (int i = 0; i < size; i++) {
+                if (i > 0) w.print(',');
+                String name = "plugin-" + i;
+                w.print("\"" + name + "\":{\"buildDate\":\"Oct 19, 2016\",\"dependencies\":[");
+                for (int d = 1; d <= 3 && d <= i; d++) {
+                    if (d > 1) w.print(',');
+                    w.print("{\"name\":\"plugin-" + (i - d) + "\",\"optional\":" + (d == 3) + ",\"version\":\"1." + d + "\"}");
+                }
+                w.print("],\"developers\":[{\"developerId\":\"dev\",\"email\":\"dev@example.com\",\"name\":\"Developer\"}],");
+                w.print("\"excerpt\":\"Plugin \\\"" + name + "\\\" does things \\u2713\",\"gav\":\"org.jenkins-ci.plugins:" + name + ":1." + i + "\",");
+                w.print("\"labels\":[\"misc\",\"builder\"],\"name\":\"" + name + "\",\"previousTimestamp\":\"2016-10-01T00:00:00.00Z\",\"previousVersion\":\"1.0\",");
+                w.print("\"releaseTimestamp\":\"2016-10-19T00:00:00.00Z\"," + (i % 10 == 0 ? "" : "\"requiredCore\":\"1." + (600 + i) + "\",") + "\"scm\":\"github.com\",\"sha1\":\"xyz=\",");
+                w.print("\"title\":\"Plugin " + i + "\",\"url\":\"http://updates.jenkins-ci.org/download/plugins/" + name + "/1." + i + "/" + name + ".hpi\",\"version\":\"1." + i + "\",\"wiki\":\"https://wiki.jenkins-ci.org/display/JENKINS/" + name + "\"}");
+            }
+            w.print("},\"signature\":{\"certificates\":[\"MIIDxxx\"],\"correct_digest\":\"abc\",\"correct_signature\":\"def\"},");
+            w.println("\"updateCenterVersion\":\"1\",\"warnings\":[]}");
+            w.println(");");
+        }
+        return file;
+    }
+}
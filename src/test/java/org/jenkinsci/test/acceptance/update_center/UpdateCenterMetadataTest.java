@@ -1,13 +1,13 @@
 package org.jenkinsci.test.acceptance.update_center;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import hudson.util.VersionNumber;
 import org.hamcrest.Matchers;
 import org.jenkinsci.test.acceptance.po.Jenkins;
+import org.jenkinsci.test.acceptance.po.PluginManager;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -26,7 +26,9 @@ public class UpdateCenterMetadataTest {
     private Jenkins jenkins = mock(Jenkins.class);
     {
         when(jenkins.getVersion()).thenReturn(new VersionNumber("2"));
-        when(jenkins.getPlugin(any(String.class))).thenThrow(new IllegalArgumentException("Not installed"));
+        PluginManager pm = mock(PluginManager.class);
+        when(pm.installedPlugins()).thenReturn(Collections.<String, VersionNumber>emptyMap());
+        when(jenkins.getPluginManager()).thenReturn(pm);
     }
 
     private HashMap<String, PluginMetadata> plugins = new HashMap<>();
@@ -0,0 +1,71 @@
+package org.jenkinsci.test.acceptance.utils;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileDigestTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void knownDigests() throws Exception {
+        File file = tmp.newFile("abc");
+        FileUtils.writeStringToFile(file, "abc", "UTF-8");
+
+        FileDigest digest = FileDigest.of(file);
+        assertThat(digest.getSha1Hex(), equalTo("a9993e364706816aba3e25717850c26c9cd0d89d"));
+        assertThat(digest.getSha256Hex(), equalTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+        assertThat(digest.getSha1Base64(), equalTo("qZk+NkcGgWq6PiVxeFDCbJzQ2J0="));
+        assertThat(new SHA1Sum(file).getSha1String(), equalTo(digest.getSha1Hex()));
+
+        File empty = tmp.newFile("empty");
+        assertThat(FileDigest.of(empty).getSha1Hex(), equalTo("da39a3ee5e6b4b0d3255bfef95601890afd80709"));
+    }
+
+    @Test
+    public void spanningBuffers() throws Exception {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(data);
+        File file = tmp.newFile("large.hpi");
+        FileUtils.writeByteArrayToFile(file, data);
+
+        FileDigest digest = FileDigest.of(file);
+        assertThat(digest.getSha1(), equalTo(MessageDigest.getInstance("SHA-1").digest(data)));
+        assertThat(digest.getSha256Base64(), equalTo(Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(data))));
+    }
+
+    @Test
+    public void cachedUntilModified() throws Exception {
+        File file = tmp.newFile("plugin.hpi");
+        FileUtils.writeStringToFile(file, "1.0", "UTF-8");
+        file.setLastModified(1000000000000L);
+        int cached = FileDigest.CACHE.size();
+
+        FileDigest digest = FileDigest.of(file);
+        assertThat(FileDigest.of(file), sameInstance(digest));
+
+        FileUtils.writeStringToFile(file, "1.1", "UTF-8");
+        file.setLastModified(1000000000000L); // Same size and timestamp, content change is not detected
+        assertThat(FileDigest.of(file), sameInstance(digest));
+
+        file.setLastModified(1000000060000L);
+        FileDigest updated = FileDigest.of(file);
+        assertThat(updated.getSha1Hex(), not(equalTo(digest.getSha1Hex())));
+        assertThat(updated.getSha1Hex(), equalTo(FileDigest.compute(file).getSha1Hex()));
+        assertThat(FileDigest.of(file), sameInstance(updated));
+
+        // Replaced rather than added
+        assertThat(FileDigest.CACHE.size(), equalTo(cached + 1));
+    }
+}